@@ -0,0 +1,45 @@
+package edu.washu.tag.benchmark;
+
+import ca.uhn.hl7v2.model.v281.message.ORU_R01;
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.context.HapiContextProvider;
+import edu.washu.tag.hl7.v2.triggerevents.UnsolicitedObservationTransmissionGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@State(Scope.Thread)
+public class HapiContextProviderBenchmark {
+
+    @Param({"fresh", "shared", "perThread", "pooled"})
+    public String mode;
+
+    private final MessageRequirements messageRequirements = new MessageRequirements();
+    private UnsolicitedObservationTransmissionGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new UnsolicitedObservationTransmissionGenerator();
+        generator.setHapiContextProvider(switch (mode) {
+            case "fresh" -> HapiContextProvider.fresh();
+            case "shared" -> HapiContextProvider.shared();
+            case "perThread" -> HapiContextProvider.perThread();
+            case "pooled" -> HapiContextProvider.pooled(2);
+            default -> throw new IllegalArgumentException("Unknown HapiContext mode " + mode);
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        generator.close();
+    }
+
+    @Benchmark
+    public ORU_R01 generateMessage() {
+        return generator.generate(messageRequirements);
+    }
+
+}
@@ -0,0 +1,51 @@
+package edu.washu.tag.benchmark;
+
+import edu.washu.tag.hl7.v2.MessageValues;
+import edu.washu.tag.hl7.v2.id.BlockSequenceAllocator;
+import edu.washu.tag.hl7.v2.id.CheckDigit;
+import edu.washu.tag.hl7.v2.id.DicomUidAllocator;
+import edu.washu.tag.hl7.v2.id.IdAllocators;
+import edu.washu.tag.hl7.v2.id.IdNamespace;
+import edu.washu.tag.hl7.v2.id.SnowflakeAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+@State(Scope.Benchmark)
+@Threads(4)
+public class IdAllocationBenchmark {
+
+    private final BlockSequenceAllocator blockSequence = new BlockSequenceAllocator(0, Long.MAX_VALUE, 1024);
+    private final SnowflakeAllocator snowflake = new SnowflakeAllocator(0);
+    private final IdAllocators luhnSequences = IdAllocators.blockSequences(1024).setCheckDigit(CheckDigit.LUHN);
+    private final DicomUidAllocator counterUids = DicomUidAllocator.counter("1.2.826.0.1.3680043.10.1234", 0);
+    private final DicomUidAllocator orderDerivedUids = DicomUidAllocator.fromOrderNumber("1.2.826.0.1.3680043.10.1234");
+    private final MessageValues messageValues = new MessageValues().setFillerOrderNumber("123456789");
+
+    @Benchmark
+    public long blockSequence() {
+        return blockSequence.next();
+    }
+
+    @Benchmark
+    public long snowflake() {
+        return snowflake.next();
+    }
+
+    @Benchmark
+    public String placerOrderNumberWithLuhn() {
+        return luhnSequences.nextId(IdNamespace.PLACER_ORDER_NUMBER);
+    }
+
+    @Benchmark
+    public String counterStudyUid() {
+        return counterUids.studyInstanceUid(messageValues);
+    }
+
+    @Benchmark
+    public String orderDerivedStudyUid() {
+        return orderDerivedUids.studyInstanceUid(messageValues);
+    }
+
+}
@@ -0,0 +1,39 @@
+package edu.washu.tag.benchmark;
+
+import ca.uhn.hl7v2.model.Message;
+import edu.washu.tag.hl7.v2.LocalHospitalMessageLogger;
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.context.HapiContextProvider;
+import edu.washu.tag.hl7.v2.triggerevents.UnsolicitedObservationTransmissionGenerator;
+import java.util.ArrayList;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class LocalHospitalMessageLoggerBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int numMessages;
+
+    private final LocalHospitalMessageLogger messageLogger = new LocalHospitalMessageLogger();
+    private final List<Message> messages = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        final MessageRequirements messageRequirements = new MessageRequirements();
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator()) {
+            generator.setHapiContextProvider(HapiContextProvider.shared());
+            messages.addAll(generator.generateBatch(numMessages, messageRequirements));
+        }
+    }
+
+    @Benchmark
+    public String encodeMessages() {
+        return messageLogger.encodeMessages(messages);
+    }
+
+}
@@ -0,0 +1,68 @@
+package edu.washu.tag.benchmark;
+
+import ca.uhn.hl7v2.HL7Exception;
+import ca.uhn.hl7v2.model.v281.message.ORU_R01;
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.MessageValues;
+import edu.washu.tag.hl7.v2.context.HapiContextProvider;
+import edu.washu.tag.hl7.v2.er7.Er7MessageWriter;
+import edu.washu.tag.hl7.v2.triggerevents.UnsolicitedObservationTransmissionGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@State(Scope.Thread)
+public class MessageGenerationBenchmark {
+
+    private final MessageRequirements messageRequirements = new MessageRequirements();
+    private final Er7MessageWriter messageWriter = new Er7MessageWriter();
+    private UnsolicitedObservationTransmissionGenerator generator;
+    private MessageValues messageValues;
+    private ORU_R01 message;
+
+    @Setup
+    public void setUp() {
+        generator = new UnsolicitedObservationTransmissionGenerator();
+        generator.setHapiContextProvider(HapiContextProvider.shared());
+        messageValues = generator.drawValues(messageRequirements);
+        message = generator.generate(messageRequirements, messageValues);
+    }
+
+    @TearDown
+    public void tearDown() {
+        generator.close();
+    }
+
+    @Benchmark
+    public ORU_R01 generateMessage() {
+        return generator.generate(messageRequirements);
+    }
+
+    @Benchmark
+    public CharSequence generateEr7() {
+        return generator.generateEr7(messageRequirements, generator.drawValues(messageRequirements), messageWriter);
+    }
+
+    @Benchmark
+    public MessageValues drawValues() {
+        return generator.drawValues(messageRequirements);
+    }
+
+    @Benchmark
+    public ORU_R01 buildMessageFromValues() {
+        return generator.generate(messageRequirements, messageValues);
+    }
+
+    @Benchmark
+    public CharSequence writeEr7FromValues() {
+        return generator.generateEr7(messageRequirements, messageValues, messageWriter);
+    }
+
+    @Benchmark
+    public String encode() throws HL7Exception {
+        return message.encode();
+    }
+
+}
@@ -0,0 +1,95 @@
+package edu.washu.tag.benchmark;
+
+import ca.uhn.hl7v2.HL7Exception;
+import ca.uhn.hl7v2.model.DataTypeException;
+import ca.uhn.hl7v2.model.v281.datatype.XCN;
+import ca.uhn.hl7v2.model.v281.datatype.XPN;
+import ca.uhn.hl7v2.model.v281.message.ORU_R01;
+import edu.washu.tag.hl7.v2.context.HapiContextProvider;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
+import edu.washu.tag.hl7.v2.model.AbcEncoder;
+import edu.washu.tag.hl7.v2.model.EncodedPerson;
+import edu.washu.tag.hl7.v2.model.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@State(Scope.Thread)
+public class PersonEncodingBenchmark {
+
+    private final Person person = new Person()
+        .setPersonIdentifier("D1234567")
+        .setFamilyName("ROENTGEN")
+        .setGivenName("WILHELM")
+        .setSecondNameEtc("CONRAD")
+        .setAssigningAuthority(AbcEncoder.assigningAuthority)
+        .setIdentifierTypeCode("HOSP");
+    private final EncodedPerson encodedPerson = EncodedPerson.of(person);
+    private final Er7SegmentWriter segmentWriter = new Er7SegmentWriter();
+    private final StringBuilder er7Buffer = new StringBuilder();
+    private HapiContextProvider contextProvider;
+    private XCN xcn;
+    private XPN xpn;
+
+    @Setup
+    public void setUp() throws HL7Exception {
+        contextProvider = HapiContextProvider.shared();
+        final ORU_R01 message = contextProvider.acquire().newMessage(ORU_R01.class);
+        xcn = new XCN(message);
+        xpn = new XPN(message);
+    }
+
+    @TearDown
+    public void tearDown() {
+        contextProvider.close();
+    }
+
+    @Benchmark
+    public XCN toXcn() throws DataTypeException {
+        return person.toXcn(xcn);
+    }
+
+    @Benchmark
+    public XPN toXpn() throws DataTypeException {
+        return person.toXpn(xpn);
+    }
+
+    @Benchmark
+    public StringBuilder toXcnEr7() {
+        segmentWriter.reset("ORC");
+        person.toXcn(segmentWriter, 12, 0);
+        er7Buffer.setLength(0);
+        segmentWriter.appendTo(er7Buffer);
+        return er7Buffer;
+    }
+
+    @Benchmark
+    public StringBuilder toXpnEr7() {
+        segmentWriter.reset("PID");
+        person.toXpn(segmentWriter, 5, 0);
+        er7Buffer.setLength(0);
+        segmentWriter.appendTo(er7Buffer);
+        return er7Buffer;
+    }
+
+    @Benchmark
+    public StringBuilder toXcnEr7Encoded() {
+        segmentWriter.reset("ORC");
+        encodedPerson.toXcn(segmentWriter, 12, 0);
+        er7Buffer.setLength(0);
+        segmentWriter.appendTo(er7Buffer);
+        return er7Buffer;
+    }
+
+    @Benchmark
+    public StringBuilder toXpnEr7Encoded() {
+        segmentWriter.reset("PID");
+        encodedPerson.toXpn(segmentWriter, 5, 0);
+        er7Buffer.setLength(0);
+        segmentWriter.appendTo(er7Buffer);
+        return er7Buffer;
+    }
+
+}
@@ -0,0 +1,56 @@
+package edu.washu.tag.hl7.v2.segment;
+
+import ca.uhn.hl7v2.HL7Exception;
+import ca.uhn.hl7v2.model.v281.message.ORU_R01;
+import ca.uhn.hl7v2.model.v281.segment.OBR;
+import ca.uhn.hl7v2.util.Terser;
+import edu.washu.tag.hl7.v2.context.HapiContextProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares setting OBR-15(1)-4 through a Terser string path, as ObrGenerator used to, with a compiled
+ * {@link FieldPath} applied to the segment directly.
+ */
+@State(Scope.Thread)
+public class FieldPathBenchmark {
+
+    private static final FieldPath SPECIMEN_BODY_PART = FieldPath.compile("OBR-15(1)-4");
+    private HapiContextProvider contextProvider;
+    private ORU_R01 message;
+    private OBR obr;
+
+    @Setup
+    public void setUp() throws HL7Exception {
+        contextProvider = HapiContextProvider.shared();
+        message = contextProvider.acquire().newMessage(ORU_R01.class);
+        message.getPATIENT_RESULT().getPATIENT().getPID();
+        obr = message.getPATIENT_RESULT().getORDER_OBSERVATION().getOBR();
+    }
+
+    @TearDown
+    public void tearDown() {
+        contextProvider.close();
+    }
+
+    @Benchmark
+    public OBR terserPath() throws HL7Exception {
+        new Terser(message).set("/.OBR-15(1)-4", "CHEST");
+        return obr;
+    }
+
+    @Benchmark
+    public OBR compiledPath() throws HL7Exception {
+        SPECIMEN_BODY_PART.set(obr, "CHEST");
+        return obr;
+    }
+
+    @Benchmark
+    public FieldPath compile() {
+        return FieldPath.compile("OBR-15(1)-4");
+    }
+
+}
@@ -0,0 +1,167 @@
+package edu.washu.tag.hl7.v2.segment;
+
+import ca.uhn.hl7v2.HL7Exception;
+import ca.uhn.hl7v2.HapiContext;
+import ca.uhn.hl7v2.model.GenericSegment;
+import ca.uhn.hl7v2.model.Segment;
+import ca.uhn.hl7v2.model.v281.group.ORU_R01_ORDER_OBSERVATION;
+import ca.uhn.hl7v2.model.v281.group.ORU_R01_PATIENT;
+import ca.uhn.hl7v2.model.v281.message.ORU_R01;
+import edu.washu.tag.hl7.v2.GenerationContext;
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.context.HapiContextProvider;
+import edu.washu.tag.hl7.v2.er7.Er7MessageWriter;
+import edu.washu.tag.hl7.v2.triggerevents.UnsolicitedObservationTransmissionGenerator;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Times each segment generator on its own, against a message whose other segments have already been generated, via
+ * both the HAPI model and the direct ER7 writer. Lives in the segment package to reach the protected generator entry
+ * points, which do not record the segment in the context on every call.
+ */
+@State(Scope.Thread)
+public class SegmentGeneratorBenchmark {
+
+    private final MshGenerator mshGenerator = new MshGenerator();
+    private final PidGenerator pidGenerator = new PidGenerator();
+    private final Pv1Generator pv1Generator = new Pv1Generator();
+    private final OrcGenerator orcGenerator = new OrcGenerator();
+    private final ObrGenerator obrGenerator = new ObrGenerator();
+    private final ZpfGenerator zpfGenerator = new ZpfGenerator();
+    private final ObxGenerator obxGenerator = new ObxGenerator(true, "The scan shows significant evidence of emphysema.");
+    private final ZdsGenerator zdsGenerator = new ZdsGenerator();
+    private final Er7MessageWriter messageWriter = new Er7MessageWriter();
+    private HapiContextProvider contextProvider;
+    private GenerationContext generationContext;
+    private ORU_R01_PATIENT patient;
+    private ORU_R01_ORDER_OBSERVATION orderObservation;
+    private ORU_R01 message;
+
+    @Setup
+    public void setUp() throws HL7Exception, IOException {
+        contextProvider = HapiContextProvider.shared();
+        final HapiContext hapiContext = contextProvider.acquire();
+        final MessageRequirements messageRequirements = new MessageRequirements();
+        message = hapiContext.newMessage(ORU_R01.class);
+        generationContext = new GenerationContext(hapiContext, message, messageRequirements)
+            .setMessageValues(new UnsolicitedObservationTransmissionGenerator().drawValues(messageRequirements));
+        patient = message.getPATIENT_RESULT().getPATIENT();
+        orderObservation = message.getPATIENT_RESULT().getORDER_OBSERVATION();
+
+        mshGenerator.generate(generationContext, message.getMSH());
+        pidGenerator.generate(generationContext, patient.getPID());
+        pv1Generator.generate(generationContext, patient.getVISIT().getPV1());
+        orcGenerator.generate(generationContext, orderObservation.getCOMMON_ORDER().getORC());
+        obrGenerator.generate(generationContext, orderObservation.getOBR());
+        zpfGenerator.generateSegment(generationContext);
+        obxGenerator.setSetId(0).generate(generationContext, orderObservation.getOBSERVATION(0).getOBX());
+        zdsGenerator.generateSegment(generationContext);
+    }
+
+    @TearDown
+    public void tearDown() {
+        contextProvider.close();
+    }
+
+    @Benchmark
+    public Segment msh() throws HL7Exception, IOException {
+        mshGenerator.generateSegment(generationContext, message.getMSH());
+        return message.getMSH();
+    }
+
+    @Benchmark
+    public Segment pid() throws HL7Exception {
+        pidGenerator.generateSegment(generationContext, patient.getPID());
+        return patient.getPID();
+    }
+
+    @Benchmark
+    public Segment pv1() throws HL7Exception, IOException {
+        pv1Generator.generateSegment(generationContext, patient.getVISIT().getPV1());
+        return patient.getVISIT().getPV1();
+    }
+
+    @Benchmark
+    public Segment orc() throws HL7Exception {
+        orcGenerator.generateSegment(generationContext, orderObservation.getCOMMON_ORDER().getORC());
+        return orderObservation.getCOMMON_ORDER().getORC();
+    }
+
+    @Benchmark
+    public Segment obr() throws HL7Exception, IOException {
+        obrGenerator.generateSegment(generationContext, orderObservation.getOBR());
+        return orderObservation.getOBR();
+    }
+
+    @Benchmark
+    public Segment zpf() throws HL7Exception {
+        final GenericSegment zpf = (GenericSegment) orderObservation.get(zpfGenerator.getSegmentName());
+        zpfGenerator.generateSegment(generationContext, zpf);
+        return zpf;
+    }
+
+    @Benchmark
+    public Segment obx() throws HL7Exception, IOException {
+        obxGenerator.generateSegment(generationContext, orderObservation.getOBSERVATION(0).getOBX());
+        return orderObservation.getOBSERVATION(0).getOBX();
+    }
+
+    @Benchmark
+    public Segment zds() throws HL7Exception {
+        final GenericSegment zds = (GenericSegment) orderObservation.get(zdsGenerator.getSegmentName());
+        zdsGenerator.generateSegment(generationContext, zds);
+        return zds;
+    }
+
+    @Benchmark
+    public CharSequence mshEr7() {
+        return writeEr7(mshGenerator);
+    }
+
+    @Benchmark
+    public CharSequence pidEr7() {
+        return writeEr7(pidGenerator);
+    }
+
+    @Benchmark
+    public CharSequence pv1Er7() {
+        return writeEr7(pv1Generator);
+    }
+
+    @Benchmark
+    public CharSequence orcEr7() {
+        return writeEr7(orcGenerator);
+    }
+
+    @Benchmark
+    public CharSequence obrEr7() {
+        return writeEr7(obrGenerator);
+    }
+
+    @Benchmark
+    public CharSequence zpfEr7() {
+        return writeEr7(zpfGenerator);
+    }
+
+    @Benchmark
+    public CharSequence obxEr7() {
+        return writeEr7(obxGenerator);
+    }
+
+    @Benchmark
+    public CharSequence zdsEr7() {
+        return writeEr7(zdsGenerator);
+    }
+
+    private CharSequence writeEr7(SegmentGenerator<?> segmentGenerator) {
+        messageWriter.reset();
+        segmentGenerator.write(generationContext, messageWriter);
+        return messageWriter.finish();
+    }
+
+}
@@ -2,11 +2,13 @@ package edu.washu.tag;
 
 import edu.washu.tag.reporting.TestSuiteExporter;
 import edu.washu.tag.testcontrol.ExecutionParallelizer;
+import edu.washu.tag.testcontrol.WorkStealingHook;
 import org.testng.annotations.Listeners;
 
 @Listeners({
         ExecutionParallelizer.class,
-        TestSuiteExporter.class
+        TestSuiteExporter.class,
+        WorkStealingHook.class
 })
 public class BaseTestCase {
 }
@@ -0,0 +1,52 @@
+package edu.washu.tag;
+
+import edu.washu.tag.hl7.v2.context.HapiContextProvider;
+import edu.washu.tag.hl7.v2.mllp.MllpConnectionStats;
+import edu.washu.tag.hl7.v2.mllp.MllpReceiver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.BeforeSuite;
+
+/**
+ * Base class for tests that send generated messages over MLLP. A single local {@link MllpReceiver}, which parses
+ * everything it receives with a shared HAPI parser, is started before the suite and stopped after it. Its port
+ * defaults to a free one and can be pinned with the {@code mllpReceiverPort} system property.
+ */
+public class MllpTestCase extends BaseTestCase {
+
+    private static final Logger log = LoggerFactory.getLogger(MllpTestCase.class);
+    private static HapiContextProvider receiverContextProvider;
+    protected static MllpReceiver mllpReceiver;
+
+    @BeforeSuite(alwaysRun = true)
+    public void startMllpReceiver() {
+        if (mllpReceiver == null) {
+            receiverContextProvider = HapiContextProvider.shared();
+            mllpReceiver = new MllpReceiver(TestSettings.MLLP_RECEIVER_PORT)
+                .setParser(receiverContextProvider.acquire().getPipeParser())
+                .start();
+            log.info("Started MLLP receiver on port {}", mllpReceiver.getPort());
+        }
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void stopMllpReceiver() {
+        if (mllpReceiver != null) {
+            final MllpReceiver receiver = mllpReceiver;
+            mllpReceiver = null;
+            try {
+                for (MllpConnectionStats stats : receiver.getConnectionStats()) {
+                    log.info("MLLP receiver connection {}", stats);
+                }
+            } finally {
+                try {
+                    receiver.close(); // unbinds the port even if the receiver failed, then rethrows the failure
+                } finally {
+                    receiverContextProvider.close();
+                }
+            }
+        }
+    }
+
+}
@@ -3,5 +3,10 @@ package edu.washu.tag;
 public class TestSettings {
 
     public static final int EXECUTOR_ID = Integer.parseInt(System.getProperty("executorId", "0"));
+    public static final int MLLP_RECEIVER_PORT = Integer.parseInt(System.getProperty("mllpReceiverPort", "0"));
+    public static final boolean INCREMENTAL_RESULTS = Boolean.getBoolean("incrementalResults");
+    public static final String TEST_HISTORY = System.getProperty("testHistory");
+    public static final String WORK_QUEUE = System.getProperty("workQueue");
+    public static final String RUN_ID = System.getProperty("runId");
 
 }
@@ -0,0 +1,142 @@
+package edu.washu.tag.dicom;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.net.ApplicationEntity;
+import org.dcm4che3.net.Association;
+import org.dcm4che3.net.Connection;
+import org.dcm4che3.net.Device;
+import org.dcm4che3.net.PDVInputStream;
+import org.dcm4che3.net.TransferCapability;
+import org.dcm4che3.net.pdu.PresentationContext;
+import org.dcm4che3.net.service.BasicCEchoSCP;
+import org.dcm4che3.net.service.BasicCStoreSCP;
+import org.dcm4che3.net.service.DicomServiceRegistry;
+
+/**
+ * A local stand-in for a PACS: accepts C-ECHO and C-STORE of any SOP class in any transfer syntax, for any called AE
+ * title, with any number of outstanding operations per association, and acknowledges every instance without writing
+ * it anywhere. Each instance's header is read so that received studies can be checked against the reports describing
+ * them.
+ */
+public class DicomStoreReceiver implements AutoCloseable {
+
+    private final int requestedPort;
+    private final Map<String, ReceivedStudy> studies = new ConcurrentHashMap<>();
+    private final AtomicLong instancesReceived = new AtomicLong();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ScheduledExecutorService scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
+    private Device device;
+    private int port;
+
+    public DicomStoreReceiver() {
+        this(0);
+    }
+
+    /**
+     * @param port the port to listen on, or 0 to pick a free one (see {@link #getPort()})
+     */
+    public DicomStoreReceiver(int port) {
+        this.requestedPort = port;
+    }
+
+    public DicomStoreReceiver start() {
+        port = requestedPort == 0 ? freePort() : requestedPort;
+        final Connection connection = new Connection();
+        connection.setHostname("localhost");
+        connection.setPort(port);
+        connection.setMaxOpsInvoked(0);
+        connection.setMaxOpsPerformed(0);
+        final ApplicationEntity ae = new ApplicationEntity("*");
+        ae.setAssociationAcceptor(true);
+        ae.addTransferCapability(new TransferCapability(null, "*", TransferCapability.Role.SCP, "*"));
+
+        final DicomServiceRegistry serviceRegistry = new DicomServiceRegistry();
+        serviceRegistry.addDicomService(new BasicCEchoSCP());
+        serviceRegistry.addDicomService(new BasicCStoreSCP("*") {
+            @Override
+            protected void store(Association as, PresentationContext pc, Attributes rq, PDVInputStream data,
+                Attributes rsp) throws IOException {
+                record(data.readDataset(pc.getTransferSyntax()));
+            }
+        });
+
+        device = new Device("poc-test-storescp");
+        device.addConnection(connection);
+        device.addApplicationEntity(ae);
+        ae.addConnection(connection);
+        device.setDimseRQHandler(serviceRegistry);
+        device.setExecutor(executor);
+        device.setScheduledExecutor(scheduledExecutor);
+        try {
+            device.bindConnections();
+        } catch (IOException | GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+        return this;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public long getInstancesReceived() {
+        return instancesReceived.get();
+    }
+
+    /**
+     * Returns every study received so far, by Study Instance UID.
+     */
+    public Map<String, ReceivedStudy> getStudies() {
+        return Map.copyOf(studies);
+    }
+
+    @Override
+    public void close() {
+        if (device != null) {
+            device.unbindConnections();
+            device = null;
+        }
+        executor.shutdownNow();
+        scheduledExecutor.shutdownNow();
+    }
+
+    private void record(Attributes instance) {
+        studies.compute(instance.getString(Tag.StudyInstanceUID), (studyInstanceUid, study) -> new ReceivedStudy(
+            instance.getString(Tag.AccessionNumber),
+            instance.getString(Tag.PatientID),
+            study == null ? 1 : study.instances() + 1
+        ));
+        instancesReceived.incrementAndGet();
+    }
+
+    /**
+     * Binding to port 0 would leave dcm4che reporting the configured port rather than the bound one, so a free port
+     * is found up front instead. Another process could take it in between, which is acceptable for a test stand-in.
+     */
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * What was received for one study: its accession number and patient ID, from the last instance received, and how
+     * many instances arrived.
+     */
+    public record ReceivedStudy(String accessionNumber, String patientId, int instances) {
+
+    }
+
+}
@@ -0,0 +1,16 @@
+package edu.washu.tag.dicom;
+
+import edu.washu.tag.util.LatencyHistogram;
+
+/**
+ * The outcome of a {@link DicomStoreSender#send} run: how many C-STOREs succeeded, how many were answered with a
+ * non-success status, and the time from each request to its response.
+ */
+public record DicomStoreResult(long stored, long failed, LatencyHistogram latency) {
+
+    @Override
+    public String toString() {
+        return String.format("%d stored, %d failed, latency %s", stored, failed, latency.summarize());
+    }
+
+}
@@ -0,0 +1,184 @@
+package edu.washu.tag.dicom;
+
+import edu.washu.tag.util.LatencyHistogram;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.net.ApplicationEntity;
+import org.dcm4che3.net.Association;
+import org.dcm4che3.net.Connection;
+import org.dcm4che3.net.DataWriterAdapter;
+import org.dcm4che3.net.Device;
+import org.dcm4che3.net.DimseRSPHandler;
+import org.dcm4che3.net.IncompatibleConnectionException;
+import org.dcm4che3.net.Priority;
+import org.dcm4che3.net.Status;
+import org.dcm4che3.net.pdu.AAssociateRQ;
+import org.dcm4che3.net.pdu.PresentationContext;
+
+/**
+ * Sends in-memory DICOM instances to a C-STORE SCP, as storescu does for files, over {@code associations} concurrent
+ * associations. Each association may have up to {@code maxOpsInvoked} C-STOREs awaiting a response, so sends are
+ * pipelined when the SCP negotiates asynchronous operations. Instances are pulled from the source only as an
+ * association is ready for them, so they may be generated lazily. Only Secondary Capture images, as produced by
+ * {@link DicomStudyGenerator}, are proposed.
+ */
+public class DicomStoreSender implements AutoCloseable {
+
+    private final String host;
+    private final int port;
+    private final String calledAet;
+    private String callingAet = "POCTEST";
+    private int associations = 1;
+    private int maxOpsInvoked = 1;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ScheduledExecutorService scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
+
+    public DicomStoreSender(String host, int port, String calledAet) {
+        this.host = host;
+        this.port = port;
+        this.calledAet = calledAet;
+    }
+
+    public String getCallingAet() {
+        return callingAet;
+    }
+
+    public DicomStoreSender setCallingAet(String callingAet) {
+        this.callingAet = callingAet;
+        return this;
+    }
+
+    public int getAssociations() {
+        return associations;
+    }
+
+    public DicomStoreSender setAssociations(int associations) {
+        this.associations = associations;
+        return this;
+    }
+
+    public int getMaxOpsInvoked() {
+        return maxOpsInvoked;
+    }
+
+    /**
+     * Sets how many C-STOREs each association may have outstanding; 0 leaves it unlimited.
+     */
+    public DicomStoreSender setMaxOpsInvoked(int maxOpsInvoked) {
+        this.maxOpsInvoked = maxOpsInvoked;
+        return this;
+    }
+
+    public DicomStoreResult send(Stream<Attributes> instances) {
+        return send(instances.iterator());
+    }
+
+    /**
+     * Sends every instance from {@code instances}, blocking until all have been answered.
+     */
+    public DicomStoreResult send(Iterator<Attributes> instances) {
+        final Device device = new Device("poc-test-storescu");
+        final Connection localConnection = new Connection();
+        localConnection.setMaxOpsInvoked(maxOpsInvoked);
+        localConnection.setMaxOpsPerformed(maxOpsInvoked);
+        final ApplicationEntity ae = new ApplicationEntity(callingAet);
+        device.addConnection(localConnection);
+        device.addApplicationEntity(ae);
+        ae.addConnection(localConnection);
+        device.setExecutor(executor);
+        device.setScheduledExecutor(scheduledExecutor);
+
+        final Connection remoteConnection = new Connection();
+        remoteConnection.setHostname(host);
+        remoteConnection.setPort(port);
+
+        final AtomicLong stored = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final LatencyHistogram latency = new LatencyHistogram();
+        final List<Future<?>> workers = new ArrayList<>(associations);
+        for (int i = 0; i < associations; i++) {
+            workers.add(executor.submit(() -> {
+                sendOnAssociation(ae, localConnection, remoteConnection, instances, stored, failed, latency);
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        return new DicomStoreResult(stored.get(), failed.get(), latency);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        scheduledExecutor.shutdownNow();
+    }
+
+    private void sendOnAssociation(ApplicationEntity ae, Connection localConnection, Connection remoteConnection,
+        Iterator<Attributes> instances, AtomicLong stored, AtomicLong failed, LatencyHistogram latency)
+        throws IOException, InterruptedException, IncompatibleConnectionException, GeneralSecurityException {
+
+        final AAssociateRQ associateRq = new AAssociateRQ();
+        associateRq.setCalledAET(calledAet);
+        associateRq.addPresentationContext(new PresentationContext(
+            1, UID.SecondaryCaptureImageStorage, UID.ExplicitVRLittleEndian
+        ));
+        final Association association = ae.connect(localConnection, remoteConnection, associateRq);
+        try {
+            Attributes instance;
+            while ((instance = next(instances)) != null) {
+                final long startNanos = System.nanoTime();
+                association.cstore(
+                    instance.getString(Tag.SOPClassUID),
+                    instance.getString(Tag.SOPInstanceUID),
+                    Priority.NORMAL,
+                    new DataWriterAdapter(instance),
+                    UID.ExplicitVRLittleEndian,
+                    new DimseRSPHandler(association.nextMessageID()) {
+                        @Override
+                        public void onDimseRSP(Association as, Attributes cmd, Attributes data) {
+                            super.onDimseRSP(as, cmd, data);
+                            latency.record(System.nanoTime() - startNanos);
+                            if (cmd.getInt(Tag.Status, -1) == Status.Success) {
+                                stored.incrementAndGet();
+                            } else {
+                                failed.incrementAndGet();
+                            }
+                        }
+                    }
+                );
+            }
+            association.waitForOutstandingRSP();
+        } finally {
+            association.release();
+            association.waitForSocketClose();
+        }
+    }
+
+    private static Attributes next(Iterator<Attributes> instances) {
+        synchronized (instances) {
+            return instances.hasNext() ? instances.next() : null;
+        }
+    }
+
+}
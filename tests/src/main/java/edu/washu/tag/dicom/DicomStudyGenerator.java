@@ -0,0 +1,159 @@
+package edu.washu.tag.dicom;
+
+import edu.washu.tag.hl7.v2.MessageValues;
+import edu.washu.tag.hl7.v2.population.Patient;
+import edu.washu.tag.hl7.v2.report.ReportType;
+import edu.washu.tag.util.RandomGenUtils;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+
+/**
+ * Builds the DICOM study a generated report describes, so images and reports can be linked end to end. The header
+ * repeats what the ORU carries: patient name, ID, birth date and sex from PID, the filler order number (ORC-3) as
+ * accession number, the procedure from OBR-4 and the Study Instance UID from ZDS-1. Images are Secondary Capture
+ * objects with a few bytes of pixel data, since only the header matters to linkage. Series and SOP Instance UIDs
+ * extend the study UID, so a study always contains the same instances.
+ */
+public class DicomStudyGenerator {
+
+    private static final DateTimeFormatter DICOM_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter DICOM_TIME = DateTimeFormatter.ofPattern("HHmmss");
+    private static final int MAX_UID_LENGTH = 64;
+
+    private int seriesPerStudy = 1;
+    private int instancesPerSeries = 1;
+    private int imageSize = 8;
+
+    public int getSeriesPerStudy() {
+        return seriesPerStudy;
+    }
+
+    public DicomStudyGenerator setSeriesPerStudy(int seriesPerStudy) {
+        this.seriesPerStudy = seriesPerStudy;
+        return this;
+    }
+
+    public int getInstancesPerSeries() {
+        return instancesPerSeries;
+    }
+
+    public DicomStudyGenerator setInstancesPerSeries(int instancesPerSeries) {
+        this.instancesPerSeries = instancesPerSeries;
+        return this;
+    }
+
+    public int getImageSize() {
+        return imageSize;
+    }
+
+    /**
+     * Sets the width and height, in pixels, of every 8-bit greyscale image.
+     */
+    public DicomStudyGenerator setImageSize(int imageSize) {
+        this.imageSize = imageSize;
+        return this;
+    }
+
+    public List<Attributes> generateStudy(MessageValues messageValues) {
+        final Attributes studyAttributes = studyAttributes(messageValues);
+        final String studyInstanceUid = messageValues.getStudyInstanceUid();
+        final List<Attributes> instances = new ArrayList<>(seriesPerStudy * instancesPerSeries);
+        for (int series = 1; series <= seriesPerStudy; series++) {
+            final String seriesInstanceUid = childUid(studyInstanceUid, series);
+            for (int instance = 1; instance <= instancesPerSeries; instance++) {
+                final Attributes attributes = new Attributes(studyAttributes);
+                attributes.setString(Tag.SeriesInstanceUID, VR.UI, seriesInstanceUid);
+                attributes.setInt(Tag.SeriesNumber, VR.IS, series);
+                attributes.setString(Tag.SOPInstanceUID, VR.UI, childUid(seriesInstanceUid, instance));
+                attributes.setInt(Tag.InstanceNumber, VR.IS, instance);
+                attributes.setBytes(Tag.PixelData, VR.OB, pixelData(series * instancesPerSeries + instance));
+                instances.add(attributes);
+            }
+        }
+        return instances;
+    }
+
+    private Attributes studyAttributes(MessageValues messageValues) {
+        final Patient patient = messageValues.getPatient();
+        final ReportType.Procedure procedure = messageValues.getReportType().getProcedure();
+        final LocalDateTime studyDateTime = messageValues.getMessageDateTime();
+        final Attributes attributes = new Attributes();
+        attributes.setString(Tag.SOPClassUID, VR.UI, UID.SecondaryCaptureImageStorage);
+        attributes.setString(Tag.StudyInstanceUID, VR.UI, messageValues.getStudyInstanceUid());
+        attributes.setString(Tag.StudyDate, VR.DA, DICOM_DATE.format(studyDateTime));
+        attributes.setString(Tag.StudyTime, VR.TM, DICOM_TIME.format(studyDateTime));
+        attributes.setString(Tag.AccessionNumber, VR.SH, messageValues.getFillerOrderNumber());
+        attributes.setString(Tag.StudyID, VR.SH, messageValues.getPlacerOrderNumber());
+        attributes.setString(Tag.Modality, VR.CS, modalityFor(procedure.diagnosticServiceSection()));
+        attributes.setString(Tag.StudyDescription, VR.LO, procedure.name());
+        attributes.setString(Tag.BodyPartExamined, VR.CS, procedure.bodyPart());
+        attributes.setString(Tag.PatientName, VR.PN, patient.familyName() + "^" + patient.givenName());
+        attributes.setString(Tag.PatientID, VR.LO, messageValues.getPatientIds().get(0));
+        if (messageValues.getDateOfBirth() != null) {
+            attributes.setString(Tag.PatientBirthDate, VR.DA, DICOM_DATE.format(messageValues.getDateOfBirth()));
+        }
+        attributes.setString(Tag.PatientSex, VR.CS, patient.sex());
+        attributes.setInt(Tag.SamplesPerPixel, VR.US, 1);
+        attributes.setString(Tag.PhotometricInterpretation, VR.CS, "MONOCHROME2");
+        attributes.setInt(Tag.Rows, VR.US, imageSize);
+        attributes.setInt(Tag.Columns, VR.US, imageSize);
+        attributes.setInt(Tag.BitsAllocated, VR.US, 8);
+        attributes.setInt(Tag.BitsStored, VR.US, 8);
+        attributes.setInt(Tag.HighBit, VR.US, 7);
+        attributes.setInt(Tag.PixelRepresentation, VR.US, 0);
+        return attributes;
+    }
+
+    /**
+     * Maps an HL7 diagnostic service section (OBR-24, table 0074) to the DICOM modality (0008,0060) that produces the
+     * images, falling back to OT for sections with no single imaging modality.
+     */
+    public static String modalityFor(String diagnosticServiceSection) {
+        if (diagnosticServiceSection == null) {
+            return "OT";
+        }
+        return switch (diagnosticServiceSection) {
+            case "CR", "RX", "XR", "RAD" -> "CR";
+            case "DX" -> "DX";
+            case "XRC" -> "RF";
+            case "CT" -> "CT";
+            case "MR", "NMR" -> "MR";
+            case "US", "CUS", "OUS", "VUS" -> "US";
+            case "NM", "NMS" -> "NM";
+            default -> "OT";
+        };
+    }
+
+    /**
+     * A diagonal gradient, shifted per image so instances are not byte-identical. Odd-sized images are padded to an
+     * even length as the standard requires.
+     */
+    private byte[] pixelData(int shift) {
+        final byte[] pixels = new byte[(imageSize * imageSize + 1) & ~1];
+        for (int row = 0; row < imageSize; row++) {
+            for (int column = 0; column < imageSize; column++) {
+                pixels[row * imageSize + column] = (byte) ((row + column) * 16 + shift);
+            }
+        }
+        return pixels;
+    }
+
+    /**
+     * Appends {@code index} to {@code parentUid}, or, where that would exceed the 64 characters a UID may have, derives
+     * a "2.25." UID from both instead.
+     */
+    private static String childUid(String parentUid, int index) {
+        final String childUid = parentUid + "." + index;
+        if (childUid.length() <= MAX_UID_LENGTH) {
+            return childUid;
+        }
+        return "2.25." + Long.toUnsignedString(RandomGenUtils.stableLongId(childUid));
+    }
+
+}
@@ -3,18 +3,23 @@ package edu.washu.tag.hl7.v2;
 import ca.uhn.hl7v2.HapiContext;
 import ca.uhn.hl7v2.model.Message;
 import ca.uhn.hl7v2.model.Segment;
-import edu.washu.tag.hl7.v2.model.Person;
+import edu.washu.tag.hl7.v2.model.EncodedPerson;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class GenerationContext {
 
     private HapiContext hapiContext;
     private Message parentMessage;
     private MessageRequirements messageRequirements;
-    private List<Segment> segments = new ArrayList<>();
-    private Person technician;
-    private Person interpreter;
+    private MessageValues messageValues;
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<Class<? extends Segment>, List<Segment>> segmentsByType = new HashMap<>();
+    private EncodedPerson technician;
+    private EncodedPerson interpreter;
 
     public GenerationContext(HapiContext hapiContext, Message parentMessage, MessageRequirements messageRequirements) {
         this.hapiContext = hapiContext;
@@ -22,6 +27,29 @@ public class GenerationContext {
         this.messageRequirements = messageRequirements;
     }
 
+    /**
+     * Prepares this context for another message, clearing everything recorded for the previous one while keeping the
+     * allocated segment index.
+     */
+    public GenerationContext reset(HapiContext hapiContext, Message parentMessage,
+        MessageRequirements messageRequirements) {
+        this.hapiContext = hapiContext;
+        this.parentMessage = parentMessage;
+        this.messageRequirements = messageRequirements;
+        messageValues = null;
+        technician = null;
+        interpreter = null;
+        clearSegments();
+        return this;
+    }
+
+    /**
+     * Drops every reference to the last message, so a context kept for reuse does not hold it alive.
+     */
+    public GenerationContext clear() {
+        return reset(null, null, null);
+    }
+
     public HapiContext getHapiContext() {
         return hapiContext;
     }
@@ -50,40 +78,71 @@ public class GenerationContext {
         return this;
     }
 
+    public MessageValues getMessageValues() {
+        return messageValues;
+    }
+
+    public GenerationContext setMessageValues(MessageValues messageValues) {
+        this.messageValues = messageValues;
+        return this;
+    }
+
     public List<Segment> getSegments() {
-        return segments;
+        return Collections.unmodifiableList(segments);
     }
 
     public GenerationContext setSegments(List<Segment> segments) {
-        this.segments = segments;
+        clearSegments();
+        segments.forEach(this::addSegment);
+        return this;
+    }
+
+    public GenerationContext addSegment(Segment segment) {
+        segments.add(segment);
+        segmentsByType.computeIfAbsent(segment.getClass(), segmentClass -> new ArrayList<>(1)).add(segment);
         return this;
     }
 
-    public Person getTechnician() {
+    public EncodedPerson getTechnician() {
         return technician;
     }
 
-    public GenerationContext setTechnician(Person technician) {
+    public GenerationContext setTechnician(EncodedPerson technician) {
         this.technician = technician;
         return this;
     }
 
-    public Person getInterpreter() {
+    public EncodedPerson getInterpreter() {
         return interpreter;
     }
 
-    public GenerationContext setInterpreter(Person interpreter) {
+    public GenerationContext setInterpreter(EncodedPerson interpreter) {
         this.interpreter = interpreter;
         return this;
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Returns the first generated segment of exactly {@code segmentClass}, or null if there is none.
+     */
     public <X extends Segment> X lookupSegment(Class<X> segmentClass) {
-        return (X) segments
-            .stream()
-            .filter(segment -> segment.getClass().equals(segmentClass))
-            .findFirst()
-            .orElse(null);
+        final List<Segment> matches = segmentsByType.get(segmentClass);
+        return matches == null || matches.isEmpty() ? null : segmentClass.cast(matches.get(0));
+    }
+
+    /**
+     * Returns every generated segment of exactly {@code segmentClass}, in generation order.
+     */
+    @SuppressWarnings("unchecked")
+    public <X extends Segment> List<X> lookupSegments(Class<X> segmentClass) {
+        final List<Segment> matches = segmentsByType.get(segmentClass);
+        return matches == null ? Collections.emptyList() : Collections.unmodifiableList((List<X>) matches);
+    }
+
+    private void clearSegments() {
+        segments.clear();
+        for (List<Segment> matches : segmentsByType.values()) {
+            matches.clear();
+        }
     }
 
 }
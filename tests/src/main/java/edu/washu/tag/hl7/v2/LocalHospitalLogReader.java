@@ -0,0 +1,199 @@
+package edu.washu.tag.hl7.v2;
+
+import ca.uhn.hl7v2.model.Message;
+import ca.uhn.hl7v2.parser.Parser;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads logs written by {@link LocalHospitalMessageLogger} through memory mapped views of the file. Frames are located
+ * by scanning for the block markers in the mapped bytes and are handed out lazily as {@link LogFrame} views, so
+ * reading a log never copies the file onto the heap. Large logs can be cut into frame-aligned {@link LogRange}s with
+ * {@link #split(int)} and each range read on its own thread.
+ */
+public class LocalHospitalLogReader implements AutoCloseable {
+
+    static final long MAX_MAPPED_RANGE = Integer.MAX_VALUE;
+    private static final int ALIGNMENT_WINDOW = 64 * 1024;
+    private static final byte[] START_BLOCK = LocalHospitalMessageLogger.START_BLOCK.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END_BLOCK = LocalHospitalMessageLogger.END_BLOCK.getBytes(StandardCharsets.US_ASCII);
+
+    private final FileChannel channel;
+    private final long fileSize;
+
+    public LocalHospitalLogReader(Path logFile) {
+        try {
+            channel = FileChannel.open(logFile, StandardOpenOption.READ);
+            fileSize = channel.size();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public record LogRange(long start, long end) {
+
+        public long length() {
+            return end - start;
+        }
+
+    }
+
+    /**
+     * Cuts the log into roughly {@code parts} ranges, each starting on a frame boundary. Ranges are further subdivided
+     * where needed so that none exceeds the 2 GB limit of a single mapping.
+     */
+    public List<LogRange> split(int parts) {
+        final int numParts = (int) Math.max(parts, (fileSize + MAX_MAPPED_RANGE - 1) / MAX_MAPPED_RANGE * 2);
+        final List<LogRange> ranges = new ArrayList<>();
+        long rangeStart = alignToFrameStart(0);
+        for (int i = 1; i <= numParts && rangeStart < fileSize; i++) {
+            final long rangeEnd = i == numParts
+                ? fileSize
+                : alignToFrameStart(Math.max(rangeStart + 1, fileSize * i / numParts));
+            if (rangeEnd > rangeStart) {
+                ranges.add(new LogRange(rangeStart, rangeEnd));
+            }
+            rangeStart = rangeEnd;
+        }
+        return ranges;
+    }
+
+    public Stream<LogFrame> frames() {
+        return split(1).stream().flatMap(this::frames);
+    }
+
+    public Stream<LogFrame> frames(LogRange range) {
+        if (range.length() > MAX_MAPPED_RANGE) {
+            throw new IllegalArgumentException("Range is too large to map at once: " + range);
+        }
+        final MappedByteBuffer buffer = map(range.start(), range.length());
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                new FrameIterator(buffer, range.start()),
+                Spliterator.ORDERED | Spliterator.NONNULL
+            ),
+            false
+        );
+    }
+
+    public Stream<LogFrame> parallelFrames(int parts) {
+        return split(parts).parallelStream().flatMap(this::frames);
+    }
+
+    public Stream<Message> messages(Parser parser) {
+        return frames().map(frame -> frame.parse(parser));
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private MappedByteBuffer map(long position, long size) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    long alignToFrameStart(long position) {
+        long windowStart = position;
+        while (windowStart < fileSize) {
+            final int windowSize = (int) Math.min(ALIGNMENT_WINDOW, fileSize - windowStart);
+            final MappedByteBuffer window = map(windowStart, windowSize);
+            final int found = indexOf(window, START_BLOCK, 0, windowSize);
+            if (found >= 0) {
+                return windowStart + found;
+            }
+            if (windowStart + windowSize >= fileSize) {
+                break;
+            }
+            windowStart += windowSize - (START_BLOCK.length - 1); // overlap so a marker split across windows is found
+        }
+        return fileSize;
+    }
+
+    static int indexOf(MappedByteBuffer buffer, byte[] marker, int from, int to) {
+        final int lastStart = to - marker.length;
+        outer:
+        for (int i = from; i <= lastStart; i++) {
+            for (int j = 0; j < marker.length; j++) {
+                if (buffer.get(i + j) != marker[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static class FrameIterator implements Iterator<LogFrame> {
+
+        private final MappedByteBuffer buffer;
+        private final long bufferOffset;
+        private int position = 0;
+        private LogFrame next;
+
+        private FrameIterator(MappedByteBuffer buffer, long bufferOffset) {
+            this.buffer = buffer;
+            this.bufferOffset = bufferOffset;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = findNext();
+            }
+            return next != null;
+        }
+
+        @Override
+        public LogFrame next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final LogFrame frame = next;
+            next = null;
+            return frame;
+        }
+
+        private LogFrame findNext() {
+            final int limit = buffer.limit();
+            final int start = indexOf(buffer, START_BLOCK, position, limit);
+            if (start < 0) {
+                position = limit;
+                return null;
+            }
+            final int contentStart = start + START_BLOCK.length;
+            final int end = indexOf(buffer, END_BLOCK, contentStart, limit);
+            if (end < 0) {
+                throw new IllegalStateException("Unterminated frame at offset " + (bufferOffset + start));
+            }
+            position = end + END_BLOCK.length;
+            return new LogFrame(buffer.slice(contentStart, end - contentStart), bufferOffset + contentStart);
+        }
+
+    }
+
+}
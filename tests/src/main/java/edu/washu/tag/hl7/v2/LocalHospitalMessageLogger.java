@@ -2,34 +2,70 @@ package edu.washu.tag.hl7.v2;
 
 import ca.uhn.hl7v2.HL7Exception;
 import ca.uhn.hl7v2.model.Message;
-import java.util.ArrayList;
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class LocalHospitalMessageLogger implements MessageLogger {
 
     public static final String CR_REPLACEMENT = "<R>";
+    public static final String START_BLOCK = "<SB>";
+    public static final String END_BLOCK = "<EB>";
+    public static final String MESSAGE_SEPARATOR = CR_REPLACEMENT + "\n\r\n";
 
     @Override
     public String encodeMessages(List<Message> messages) {
-        return messages
-            .stream()
-            .map(this::encodeMessage)
-            .collect(Collectors.joining(CR_REPLACEMENT + "\n\r\n"));
+        final StringBuilder encoded = new StringBuilder();
+        try {
+            for (int i = 0; i < messages.size(); i++) {
+                if (i > 0) {
+                    encoded.append(MESSAGE_SEPARATOR);
+                }
+                encodeMessage(messages.get(i), encoded);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return encoded.toString();
     }
 
-    private String encodeMessage(Message message) {
-        final List<String> lines = new ArrayList<>();
-        lines.add("<SB>");
+    @Override
+    public void encodeMessage(Message message, Appendable destination) throws IOException {
+        final String encodedMessage;
         try {
-            for (String line : message.encode().split("\r")) {
-                lines.add(line + CR_REPLACEMENT);
-            }
+            encodedMessage = message.encode();
         } catch (HL7Exception e) {
             throw new RuntimeException(e);
         }
-        lines.add("<EB>");
-        return String.join("\n", lines);
+        int length = encodedMessage.length();
+        while (length > 0 && encodedMessage.charAt(length - 1) == '\r') {
+            length--;
+        }
+
+        destination.append(START_BLOCK);
+        int lineStart = 0;
+        do {
+            int lineEnd = encodedMessage.indexOf('\r', lineStart);
+            if (lineEnd < 0 || lineEnd > length) {
+                lineEnd = length;
+            }
+            destination.append('\n').append(encodedMessage, lineStart, lineEnd).append(CR_REPLACEMENT);
+            lineStart = lineEnd + 1;
+        } while (lineStart <= length);
+        destination.append('\n').append(END_BLOCK);
+    }
+
+    @Override
+    public String getMessageSeparator() {
+        return MESSAGE_SEPARATOR;
+    }
+
+    /**
+     * Streams the batch, which writes the same bytes as {@link #encodeMessages(List)} without building them in memory.
+     */
+    @Override
+    public void writeToLog(File logFile, List<Message> messages) {
+        writeToLog(logFile, messages.iterator());
     }
 
 }
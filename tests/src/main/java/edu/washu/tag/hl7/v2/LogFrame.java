@@ -0,0 +1,132 @@
+package edu.washu.tag.hl7.v2;
+
+import ca.uhn.hl7v2.HL7Exception;
+import ca.uhn.hl7v2.model.Message;
+import ca.uhn.hl7v2.parser.Parser;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A single {@code <SB>}...{@code <EB>} frame from a {@link LocalHospitalMessageLogger} log, backed directly by the
+ * mapped log file, which is written in UTF-8. As a {@link CharSequence} it exposes the framed text between the block
+ * markers: one byte per char while the frame is pure ASCII, which is what generated messages almost always are, and
+ * otherwise through a decoded copy, so the view always agrees with {@link #toString()}. Nothing is copied for an ASCII
+ * frame until {@link #toString()}, {@link #toEr7()} or {@link #parse(Parser)} is called.
+ */
+public class LogFrame implements CharSequence {
+
+    private static final byte[] CR_REPLACEMENT = LocalHospitalMessageLogger.CR_REPLACEMENT
+        .getBytes(StandardCharsets.US_ASCII);
+
+    private final ByteBuffer content;
+    private final long fileOffset;
+    private boolean asciiChecked;
+    /**
+     * The decoded text, set on first use of the {@link CharSequence} view if the frame holds any non-ASCII byte.
+     */
+    private String decoded;
+
+    LogFrame(ByteBuffer content, long fileOffset) {
+        this.content = content;
+        this.fileOffset = fileOffset;
+    }
+
+    public long getFileOffset() {
+        return fileOffset;
+    }
+
+    @Override
+    public int length() {
+        final String text = decodedIfNotAscii();
+        return text == null ? content.limit() : text.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        final String text = decodedIfNotAscii();
+        return text == null ? (char) content.get(index) : text.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        final String text = decodedIfNotAscii();
+        if (text != null) {
+            return text.subSequence(start, end);
+        }
+        return new LogFrame(content.slice(start, end - start), fileOffset + start);
+    }
+
+    @Override
+    public String toString() {
+        final String text = decodedIfNotAscii();
+        return text != null ? text : decode();
+    }
+
+    public String toEr7() {
+        final int length = content.limit();
+        final byte[] er7 = new byte[length];
+        int written = 0;
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && content.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int segmentEnd = lineEnd;
+            if (endsWithCrReplacement(lineStart, lineEnd)) {
+                segmentEnd -= CR_REPLACEMENT.length;
+            }
+            if (lineEnd > lineStart) {
+                content.get(lineStart, er7, written, segmentEnd - lineStart);
+                written += segmentEnd - lineStart;
+                er7[written++] = '\r';
+            }
+            lineStart = lineEnd + 1;
+        }
+        return new String(er7, 0, written, StandardCharsets.UTF_8);
+    }
+
+    public Message parse(Parser parser) {
+        try {
+            return parser.parse(toEr7());
+        } catch (HL7Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns null if every byte of the frame is ASCII, so that char and byte indexes coincide, or the decoded text.
+     */
+    private String decodedIfNotAscii() {
+        if (!asciiChecked) {
+            final int length = content.limit();
+            for (int i = 0; i < length; i++) {
+                if (content.get(i) < 0) {
+                    decoded = decode();
+                    break;
+                }
+            }
+            asciiChecked = true;
+        }
+        return decoded;
+    }
+
+    private String decode() {
+        final byte[] bytes = new byte[content.limit()];
+        content.get(0, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean endsWithCrReplacement(int lineStart, int lineEnd) {
+        if (lineEnd - lineStart < CR_REPLACEMENT.length) {
+            return false;
+        }
+        for (int i = 0; i < CR_REPLACEMENT.length; i++) {
+            if (content.get(lineEnd - CR_REPLACEMENT.length + i) != CR_REPLACEMENT[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,31 @@
+package edu.washu.tag.hl7.v2;
+
+public record LogRotationPolicy(long maxBytesPerFile, long maxMessagesPerFile) {
+
+    public static LogRotationPolicy none() {
+        return new LogRotationPolicy(Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    public static LogRotationPolicy bySize(long maxBytesPerFile) {
+        return new LogRotationPolicy(maxBytesPerFile, Long.MAX_VALUE);
+    }
+
+    public static LogRotationPolicy byMessageCount(long maxMessagesPerFile) {
+        return new LogRotationPolicy(Long.MAX_VALUE, maxMessagesPerFile);
+    }
+
+    public LogRotationPolicy {
+        if (maxBytesPerFile < 1 || maxMessagesPerFile < 1) {
+            throw new IllegalArgumentException("Rotation limits must be positive");
+        }
+    }
+
+    /**
+     * Rotation is checked before each message, so a file is only rolled over once it already holds at least one
+     * message. A single message larger than {@link #maxBytesPerFile()} still gets a file of its own.
+     */
+    public boolean shouldRotate(long bytesInFile, long messagesInFile) {
+        return messagesInFile > 0 && (bytesInFile >= maxBytesPerFile || messagesInFile >= maxMessagesPerFile);
+    }
+
+}
@@ -0,0 +1,175 @@
+package edu.washu.tag.hl7.v2;
+
+import ca.uhn.hl7v2.model.Message;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Streams messages into one or more log files, encoding each message into a reused buffer and writing it straight to a
+ * {@link FileChannel}, so memory use is bounded by the largest single message rather than by the whole batch.
+ */
+public class MessageLogWriter implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MessageLogger messageLogger;
+    private final IntFunction<Path> logFileForIndex;
+    private final LogRotationPolicy rotationPolicy;
+    private final String messageSeparator;
+    private final List<File> logFiles = new ArrayList<>();
+    private final StringBuilder encodingBuffer = new StringBuilder();
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private FileChannel channel;
+    private long bytesFlushedToFile;
+    private long messagesInFile;
+    private long messagesWritten;
+
+    public MessageLogWriter(MessageLogger messageLogger, IntFunction<Path> logFileForIndex,
+        LogRotationPolicy rotationPolicy) {
+        this.messageLogger = messageLogger;
+        this.logFileForIndex = logFileForIndex;
+        this.rotationPolicy = rotationPolicy;
+        this.messageSeparator = messageLogger.getMessageSeparator();
+    }
+
+    public static MessageLogWriter toFile(MessageLogger messageLogger, Path logFile) {
+        return new MessageLogWriter(
+            messageLogger,
+            index -> {
+                if (index > 0) {
+                    throw new IllegalStateException("Single file log cannot be rotated");
+                }
+                return logFile;
+            },
+            LogRotationPolicy.none()
+        );
+    }
+
+    public static MessageLogWriter rotating(MessageLogger messageLogger, Path logDirectory, String filePrefix,
+        LogRotationPolicy rotationPolicy) {
+        return new MessageLogWriter(
+            messageLogger,
+            index -> logDirectory.resolve(String.format("%s_%05d.log", filePrefix, index)),
+            rotationPolicy
+        );
+    }
+
+    public void write(Message message) {
+        try {
+            if (channel == null) {
+                openNextFile();
+            } else if (rotationPolicy.shouldRotate(bytesInFile(), messagesInFile)) {
+                closeCurrentFile();
+                openNextFile();
+            }
+            encodingBuffer.setLength(0);
+            if (messagesInFile > 0) {
+                encodingBuffer.append(messageSeparator);
+            }
+            messageLogger.encodeMessage(message, encodingBuffer);
+            writeChars(encodingBuffer);
+            messagesInFile++;
+            messagesWritten++;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void writeAll(Iterator<? extends Message> messages) {
+        while (messages.hasNext()) {
+            write(messages.next());
+        }
+    }
+
+    public void writeAll(Iterable<? extends Message> messages) {
+        writeAll(messages.iterator());
+    }
+
+    public List<File> getLogFiles() {
+        return logFiles;
+    }
+
+    public long getMessagesWritten() {
+        return messagesWritten;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (channel == null && logFiles.isEmpty()) {
+                openNextFile(); // mirror Files.writeString, which leaves an empty log for an empty batch
+            }
+            closeCurrentFile();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private long bytesInFile() {
+        return bytesFlushedToFile + byteBuffer.position();
+    }
+
+    private void openNextFile() throws IOException {
+        final Path logFile = logFileForIndex.apply(logFiles.size());
+        channel = FileChannel.open(
+            logFile,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING
+        );
+        logFiles.add(logFile.toFile());
+        bytesFlushedToFile = 0;
+        messagesInFile = 0;
+    }
+
+    private void closeCurrentFile() throws IOException {
+        if (channel != null) {
+            drainBuffer();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void writeChars(CharSequence chars) throws IOException {
+        final CharBuffer charBuffer = CharBuffer.wrap(chars);
+        encoder.reset();
+        CoderResult result;
+        while ((result = encoder.encode(charBuffer, byteBuffer, true)).isOverflow()) {
+            drainBuffer();
+        }
+        throwIfError(result);
+        while ((result = encoder.flush(byteBuffer)).isOverflow()) {
+            drainBuffer();
+        }
+        throwIfError(result);
+    }
+
+    private void throwIfError(CoderResult result) throws CharacterCodingException {
+        if (result.isError()) {
+            result.throwException();
+        }
+    }
+
+    private void drainBuffer() throws IOException {
+        byteBuffer.flip();
+        while (byteBuffer.hasRemaining()) {
+            bytesFlushedToFile += channel.write(byteBuffer);
+        }
+        byteBuffer.clear();
+    }
+
+}
@@ -4,12 +4,23 @@ import ca.uhn.hl7v2.model.Message;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MessageLogger {
 
     String encodeMessages(List<Message> messages);
 
+    default void encodeMessage(Message message, Appendable destination) throws IOException {
+        destination.append(encodeMessages(List.of(message)));
+    }
+
+    default String getMessageSeparator() {
+        return "";
+    }
+
     default File getLogfileFor(List<Message> messages) {
         try {
             return Files.createTempFile("hl7messages", ".log").toFile();
@@ -18,6 +29,10 @@ public interface MessageLogger {
         }
     }
 
+    /**
+     * Writes exactly what {@link #encodeMessages(List)} returns for {@code messages}. Loggers that also override
+     * {@link #encodeMessage(Message, Appendable)} and {@link #getMessageSeparator()} may stream the batch instead.
+     */
     default void writeToLog(File logFile, List<Message> messages) {
         try {
             Files.writeString(logFile.toPath(), encodeMessages(messages));
@@ -26,10 +41,33 @@ public interface MessageLogger {
         }
     }
 
+    /**
+     * Streams {@code messages} through a {@link MessageLogWriter}, which builds the log from
+     * {@link #encodeMessage(Message, Appendable)} and {@link #getMessageSeparator()} rather than from
+     * {@link #encodeMessages(List)}.
+     */
+    default void writeToLog(File logFile, Iterator<? extends Message> messages) {
+        try (MessageLogWriter writer = MessageLogWriter.toFile(this, logFile.toPath())) {
+            writer.writeAll(messages);
+        }
+    }
+
+    default void writeToLog(File logFile, Stream<? extends Message> messages) {
+        writeToLog(logFile, messages.iterator());
+    }
+
     default File writeToLog(List<Message> messages) {
         final File log = getLogfileFor(messages);
         writeToLog(log, messages);
         return log;
     }
 
+    default List<File> writeToLogs(Path logDirectory, String filePrefix, Iterator<? extends Message> messages,
+        LogRotationPolicy rotationPolicy) {
+        try (MessageLogWriter writer = MessageLogWriter.rotating(this, logDirectory, filePrefix, rotationPolicy)) {
+            writer.writeAll(messages);
+            return writer.getLogFiles();
+        }
+    }
+
 }
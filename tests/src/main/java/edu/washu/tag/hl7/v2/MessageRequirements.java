@@ -1,5 +1,11 @@
 package edu.washu.tag.hl7.v2;
 
+import edu.washu.tag.hl7.v2.id.DicomUidAllocator;
+import edu.washu.tag.hl7.v2.id.IdAllocators;
+import edu.washu.tag.hl7.v2.population.PatientPopulation;
+import edu.washu.tag.hl7.v2.report.ReportType;
+import java.util.List;
+
 public class MessageRequirements {
 
     private int numPatientIds = 1;
@@ -10,6 +16,10 @@ public class MessageRequirements {
     private String orcStatus = "Prelim";
     private String reasonForStudy = "Chest pain";
     private boolean malformObrInterpretersAndTech = true;
+    private List<ReportType> reportTypes = List.of(ReportType.XR);
+    private PatientPopulation patientPopulation;
+    private IdAllocators idAllocators;
+    private DicomUidAllocator dicomUidAllocator;
 
     public int getNumPatientIds() {
         return numPatientIds;
@@ -83,4 +93,52 @@ public class MessageRequirements {
         return this;
     }
 
+    public List<ReportType> getReportTypes() {
+        return reportTypes;
+    }
+
+    /**
+     * Each message picks one of {@code reportTypes} uniformly at random.
+     */
+    public MessageRequirements setReportTypes(List<ReportType> reportTypes) {
+        this.reportTypes = reportTypes;
+        return this;
+    }
+
+    public PatientPopulation getPatientPopulation() {
+        return patientPopulation;
+    }
+
+    /**
+     * If set, each message is for a patient drawn from {@code patientPopulation}; otherwise every message is for
+     * {@link edu.washu.tag.hl7.v2.population.Patient#DEFAULT} with freshly drawn identifiers.
+     */
+    public MessageRequirements setPatientPopulation(PatientPopulation patientPopulation) {
+        this.patientPopulation = patientPopulation;
+        return this;
+    }
+
+    public IdAllocators getIdAllocators() {
+        return idAllocators;
+    }
+
+    /**
+     * If set, patient identifiers drawn per message, visit numbers and order numbers are allocated from
+     * {@code idAllocators} and so never collide; otherwise they are random. Patients drawn from a
+     * {@link #setPatientPopulation(PatientPopulation) population} keep their own identifiers.
+     */
+    public MessageRequirements setIdAllocators(IdAllocators idAllocators) {
+        this.idAllocators = idAllocators;
+        return this;
+    }
+
+    public DicomUidAllocator getDicomUidAllocator() {
+        return dicomUidAllocator;
+    }
+
+    public MessageRequirements setDicomUidAllocator(DicomUidAllocator dicomUidAllocator) {
+        this.dicomUidAllocator = dicomUidAllocator;
+        return this;
+    }
+
 }
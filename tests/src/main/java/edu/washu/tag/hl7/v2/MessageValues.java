@@ -0,0 +1,170 @@
+package edu.washu.tag.hl7.v2;
+
+import edu.washu.tag.hl7.v2.population.Patient;
+import edu.washu.tag.hl7.v2.report.ReportType;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The per-message variable values (identifiers, timestamps, randomized content) drawn once before a message is built.
+ * Every segment generator reads these instead of drawing its own, so the HAPI and ER7 encodings of the same values
+ * are identical.
+ */
+public class MessageValues {
+
+    private String messageControlId;
+    private LocalDateTime messageDateTime;
+    private Patient patient;
+    private List<String> patientIds;
+    private LocalDate dateOfBirth;
+    private String visitNumber;
+    private String placerOrderNumber;
+    private String fillerOrderNumber;
+    private String resultStatus;
+    private ReportType reportType;
+    private List<String> abnormalities;
+    private String studyInstanceUid;
+
+    public String getMessageControlId() {
+        return messageControlId;
+    }
+
+    public MessageValues setMessageControlId(String messageControlId) {
+        this.messageControlId = messageControlId;
+        return this;
+    }
+
+    public LocalDateTime getMessageDateTime() {
+        return messageDateTime;
+    }
+
+    public MessageValues setMessageDateTime(LocalDateTime messageDateTime) {
+        this.messageDateTime = messageDateTime;
+        return this;
+    }
+
+    /**
+     * Start of the order's quantity/timing window in ORC-7, which OBR-27 repeats: one second before the message.
+     */
+    public LocalDateTime getQuantityTimingStart() {
+        return messageDateTime.minusSeconds(1);
+    }
+
+    public LocalDateTime getQuantityTimingEnd() {
+        return messageDateTime;
+    }
+
+    public Patient getPatient() {
+        return patient;
+    }
+
+    public MessageValues setPatient(Patient patient) {
+        this.patient = patient;
+        return this;
+    }
+
+    public List<String> getPatientIds() {
+        return patientIds;
+    }
+
+    public MessageValues setPatientIds(List<String> patientIds) {
+        this.patientIds = patientIds;
+        return this;
+    }
+
+    public LocalDate getDateOfBirth() {
+        return dateOfBirth;
+    }
+
+    public MessageValues setDateOfBirth(LocalDate dateOfBirth) {
+        this.dateOfBirth = dateOfBirth;
+        return this;
+    }
+
+    public String getVisitNumber() {
+        return visitNumber;
+    }
+
+    public MessageValues setVisitNumber(String visitNumber) {
+        this.visitNumber = visitNumber;
+        return this;
+    }
+
+    public String getPlacerOrderNumber() {
+        return placerOrderNumber;
+    }
+
+    public MessageValues setPlacerOrderNumber(String placerOrderNumber) {
+        this.placerOrderNumber = placerOrderNumber;
+        return this;
+    }
+
+    public String getFillerOrderNumber() {
+        return fillerOrderNumber;
+    }
+
+    public MessageValues setFillerOrderNumber(String fillerOrderNumber) {
+        this.fillerOrderNumber = fillerOrderNumber;
+        return this;
+    }
+
+    public String getResultStatus() {
+        return resultStatus;
+    }
+
+    /**
+     * The status written to ORC-5, OBR-25 and OBX-11.
+     */
+    public MessageValues setResultStatus(String resultStatus) {
+        this.resultStatus = resultStatus;
+        return this;
+    }
+
+    public ReportType getReportType() {
+        return reportType;
+    }
+
+    public MessageValues setReportType(ReportType reportType) {
+        this.reportType = reportType;
+        return this;
+    }
+
+    public List<String> getAbnormalities() {
+        return abnormalities;
+    }
+
+    public MessageValues setAbnormalities(List<String> abnormalities) {
+        this.abnormalities = abnormalities;
+        return this;
+    }
+
+    public String getStudyInstanceUid() {
+        return studyInstanceUid;
+    }
+
+    public MessageValues setStudyInstanceUid(String studyInstanceUid) {
+        this.studyInstanceUid = studyInstanceUid;
+        return this;
+    }
+
+    /**
+     * A shallow copy, for deriving later messages about the same order.
+     */
+    public MessageValues copy() {
+        return new MessageValues()
+            .setMessageControlId(messageControlId)
+            .setMessageDateTime(messageDateTime)
+            .setPatient(patient)
+            .setPatientIds(patientIds)
+            .setDateOfBirth(dateOfBirth)
+            .setVisitNumber(visitNumber)
+            .setPlacerOrderNumber(placerOrderNumber)
+            .setFillerOrderNumber(fillerOrderNumber)
+            .setResultStatus(resultStatus)
+            .setReportType(reportType)
+            .setAbnormalities(abnormalities)
+            .setStudyInstanceUid(studyInstanceUid);
+    }
+
+}
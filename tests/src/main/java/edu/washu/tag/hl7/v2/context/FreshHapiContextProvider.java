@@ -0,0 +1,17 @@
+package edu.washu.tag.hl7.v2.context;
+
+import ca.uhn.hl7v2.HapiContext;
+
+public class FreshHapiContextProvider implements HapiContextProvider {
+
+    @Override
+    public HapiContext acquire() {
+        return HapiContextProvider.createContext();
+    }
+
+    @Override
+    public void release(HapiContext hapiContext) {
+        // the generated message still references this context through its parser, so leave it for GC
+    }
+
+}
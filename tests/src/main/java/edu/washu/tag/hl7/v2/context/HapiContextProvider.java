@@ -0,0 +1,46 @@
+package edu.washu.tag.hl7.v2.context;
+
+import ca.uhn.hl7v2.DefaultHapiContext;
+import ca.uhn.hl7v2.HapiContext;
+import ca.uhn.hl7v2.util.idgenerator.UUIDGenerator;
+import ca.uhn.hl7v2.validation.impl.ValidationContextFactory;
+
+/**
+ * Supplies the {@link HapiContext} used to build each generated message. Contexts handed out by
+ * {@link #acquire()} must be returned with {@link #release(HapiContext)} once the message has been built.
+ */
+public interface HapiContextProvider extends AutoCloseable {
+
+    HapiContext acquire();
+
+    void release(HapiContext hapiContext);
+
+    @Override
+    default void close() {
+
+    }
+
+    static HapiContext createContext() {
+        final HapiContext context = new DefaultHapiContext();
+        context.getParserConfiguration().setIdGenerator(new UUIDGenerator());
+        context.setValidationContext(ValidationContextFactory.noValidation());
+        return context;
+    }
+
+    static HapiContextProvider fresh() {
+        return new FreshHapiContextProvider();
+    }
+
+    static HapiContextProvider shared() {
+        return new SharedHapiContextProvider();
+    }
+
+    static HapiContextProvider perThread() {
+        return new ThreadLocalHapiContextProvider();
+    }
+
+    static HapiContextProvider pooled(int poolSize) {
+        return new PooledHapiContextProvider(poolSize);
+    }
+
+}
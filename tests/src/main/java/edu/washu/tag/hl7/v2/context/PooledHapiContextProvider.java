@@ -0,0 +1,108 @@
+package edu.washu.tag.hl7.v2.context;
+
+import ca.uhn.hl7v2.HapiContext;
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lazily creates up to {@code poolSize} contexts and lends them out one caller at a time. Callers block in
+ * {@link #acquire()} while every context in the pool is in use.
+ */
+public class PooledHapiContextProvider implements HapiContextProvider {
+
+    private static final long SLOT_RECHECK_MILLIS = 100;
+
+    private final int poolSize;
+    private final BlockingQueue<HapiContext> idleContexts;
+    private final Queue<HapiContext> createdContexts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger numCreated = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    public PooledHapiContextProvider(int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be positive, was " + poolSize);
+        }
+        this.poolSize = poolSize;
+        idleContexts = new LinkedBlockingQueue<>(poolSize);
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getNumCreated() {
+        return numCreated.get();
+    }
+
+    @Override
+    public HapiContext acquire() {
+        while (true) {
+            if (closed) {
+                throw new IllegalStateException("Context pool has been closed");
+            }
+            final HapiContext idle = idleContexts.poll();
+            if (idle != null) {
+                return idle;
+            }
+            if (numCreated.getAndUpdate(created -> created < poolSize ? created + 1 : created) < poolSize) {
+                return createPooledContext();
+            }
+            try {
+                // wake up now and then in case a slot was given back by a failed creation rather than a release
+                final HapiContext released = idleContexts.poll(SLOT_RECHECK_MILLIS, TimeUnit.MILLISECONDS);
+                if (released != null) {
+                    return released;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Override
+    public void release(HapiContext hapiContext) {
+        if (!closed) {
+            idleContexts.offer(hapiContext);
+        }
+    }
+
+    /**
+     * Creates a context for the pool. Overridable so tests can simulate a context that fails to build.
+     */
+    protected HapiContext newContext() {
+        return HapiContextProvider.createContext();
+    }
+
+    private HapiContext createPooledContext() {
+        final HapiContext context;
+        try {
+            context = newContext();
+        } catch (RuntimeException | Error e) {
+            numCreated.decrementAndGet(); // give the slot back, or the pool would shrink for good
+            throw e;
+        }
+        createdContexts.add(context);
+        return context;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        idleContexts.clear();
+        HapiContext context;
+        while ((context = createdContexts.poll()) != null) {
+            try {
+                context.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package edu.washu.tag.hl7.v2.context;
+
+import ca.uhn.hl7v2.HapiContext;
+import java.io.IOException;
+
+/**
+ * Hands the same context to every caller. HAPI contexts are safe to share once configured, so this is the cheapest
+ * mode, but all generating threads will contend on the same model class factory caches.
+ */
+public class SharedHapiContextProvider implements HapiContextProvider {
+
+    private final HapiContext hapiContext = HapiContextProvider.createContext();
+
+    @Override
+    public HapiContext acquire() {
+        return hapiContext;
+    }
+
+    @Override
+    public void release(HapiContext hapiContext) {
+
+    }
+
+    @Override
+    public void close() {
+        try {
+            hapiContext.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package edu.washu.tag.hl7.v2.context;
+
+import ca.uhn.hl7v2.HapiContext;
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Gives each thread its own context, created the first time that thread asks and reused for every later message, so
+ * threads never contend on a shared context's caches. Contexts live until {@link #close()}, so this suits a fixed pool
+ * of generating threads rather than short-lived ones.
+ */
+public class ThreadLocalHapiContextProvider implements HapiContextProvider {
+
+    private final Queue<HapiContext> createdContexts = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<HapiContext> contexts = ThreadLocal.withInitial(() -> {
+        final HapiContext context = HapiContextProvider.createContext();
+        createdContexts.add(context);
+        return context;
+    });
+
+    @Override
+    public HapiContext acquire() {
+        return contexts.get();
+    }
+
+    @Override
+    public void release(HapiContext hapiContext) {
+
+    }
+
+    @Override
+    public void close() {
+        HapiContext context;
+        while ((context = createdContexts.poll()) != null) {
+            try {
+                context.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package edu.washu.tag.hl7.v2.er7;
+
+/**
+ * Minimal field lookup over an encoded ER7 message, for the cases (ACK correlation, routing) where parsing the whole
+ * message into the HAPI model would be wasted work. Segments may be separated by CR, LF or CRLF.
+ */
+public class Er7Fields {
+
+    private static final String MSH = "MSH";
+
+    /**
+     * Returns the full text of field {@code field} of the first segment named {@code segmentName}, an empty string if
+     * the segment is present but the field is not, or null if there is no such segment. Field numbering follows the
+     * standard, so for MSH, field 1 is the field separator and field 2 the encoding characters.
+     */
+    public static String get(CharSequence message, String segmentName, int field) {
+        final int length = message.length();
+        int segmentStart = 0;
+        while (segmentStart < length) {
+            int segmentEnd = segmentStart;
+            while (segmentEnd < length && !isSegmentSeparator(message.charAt(segmentEnd))) {
+                segmentEnd++;
+            }
+            if (isSegment(message, segmentStart, segmentEnd, segmentName)) {
+                final int fieldIndex = MSH.equals(segmentName) ? field - 1 : field;
+                return field(message, segmentStart + segmentName.length() + 1, segmentEnd, fieldIndex);
+            }
+            segmentStart = segmentEnd + 1;
+        }
+        return null;
+    }
+
+    private static String field(CharSequence message, int firstFieldStart, int segmentEnd, int fieldIndex) {
+        if (fieldIndex == 0) {
+            return String.valueOf(Er7SegmentWriter.FIELD_SEPARATOR);
+        }
+        int fieldStart = firstFieldStart;
+        for (int i = 1; i < fieldIndex; i++) {
+            while (fieldStart < segmentEnd && message.charAt(fieldStart) != Er7SegmentWriter.FIELD_SEPARATOR) {
+                fieldStart++;
+            }
+            fieldStart++;
+        }
+        if (fieldStart > segmentEnd) {
+            return "";
+        }
+        int fieldEnd = fieldStart;
+        while (fieldEnd < segmentEnd && message.charAt(fieldEnd) != Er7SegmentWriter.FIELD_SEPARATOR) {
+            fieldEnd++;
+        }
+        return message.subSequence(fieldStart, fieldEnd).toString();
+    }
+
+    private static boolean isSegment(CharSequence message, int segmentStart, int segmentEnd, String segmentName) {
+        final int nameEnd = segmentStart + segmentName.length();
+        if (nameEnd >= segmentEnd || message.charAt(nameEnd) != Er7SegmentWriter.FIELD_SEPARATOR) {
+            return false;
+        }
+        for (int i = 0; i < segmentName.length(); i++) {
+            if (message.charAt(segmentStart + i) != segmentName.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSegmentSeparator(char c) {
+        return c == '\r' || c == '\n';
+    }
+
+}
@@ -0,0 +1,49 @@
+package edu.washu.tag.hl7.v2.er7;
+
+/**
+ * Builds a pipe-delimited ER7 message into a reusable buffer, one segment at a time. The segment returned by
+ * {@link #startSegment(String)} stays open, so callers may keep adding to it, until the next segment is started or
+ * the message is finished.
+ */
+public class Er7MessageWriter {
+
+    public static final char SEGMENT_SEPARATOR = '\r';
+
+    private final StringBuilder buffer = new StringBuilder(4096);
+    private final Er7SegmentWriter segmentWriter = new Er7SegmentWriter();
+    private boolean segmentOpen = false;
+
+    public Er7MessageWriter reset() {
+        buffer.setLength(0);
+        segmentOpen = false;
+        return this;
+    }
+
+    public Er7SegmentWriter startSegment(String segmentName) {
+        commitSegment();
+        segmentOpen = true;
+        return segmentWriter.reset(segmentName);
+    }
+
+    /**
+     * Completes the message and returns the underlying buffer, which is only valid until this writer is reset.
+     */
+    public CharSequence finish() {
+        commitSegment();
+        return buffer;
+    }
+
+    private void commitSegment() {
+        if (segmentOpen) {
+            final int segmentStart = buffer.length();
+            segmentWriter.appendTo(buffer);
+            if (buffer.length() - segmentStart > segmentWriter.getSegmentName().length()) {
+                buffer.append(SEGMENT_SEPARATOR);
+            } else {
+                buffer.setLength(segmentStart); // like HAPI, leave out segments with no content
+            }
+            segmentOpen = false;
+        }
+    }
+
+}
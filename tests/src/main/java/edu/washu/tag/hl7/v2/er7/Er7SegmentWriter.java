@@ -0,0 +1,268 @@
+package edu.washu.tag.hl7.v2.er7;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Collects the values of a single segment addressed the same way as {@link ca.uhn.hl7v2.util.Terser#set}
+ * (field, repetition, component, subcomponent) and serializes them as ER7 with the same delimiter trimming and
+ * escaping HAPI's PipeParser applies. Positions may be set in any order; a later value for the same position replaces
+ * an earlier one, and null or empty values leave the position empty. Instances are reused across segments via
+ * {@link #reset(String)}.
+ */
+public class Er7SegmentWriter {
+
+    public static final char FIELD_SEPARATOR = '|';
+    public static final char COMPONENT_SEPARATOR = '^';
+    public static final char REPETITION_SEPARATOR = '~';
+    public static final char ESCAPE_CHARACTER = '\\';
+    public static final char SUBCOMPONENT_SEPARATOR = '&';
+    public static final String ENCODING_CHARACTERS = "^~\\&";
+    private static final String MSH = "MSH";
+
+    private String segmentName;
+    private int[] positions = new int[64];
+    private String[] values = new String[64];
+    private boolean[] encoded = new boolean[64];
+    private int numValues;
+    /**
+     * The field repetitions, as the field and repetition bits of a position, that hold a value from
+     * {@link #setEncoded(int, int, String)}.
+     */
+    private int[] encodedRepetitions = new int[8];
+    private int numEncodedRepetitions;
+
+    public Er7SegmentWriter reset(String segmentName) {
+        Arrays.fill(values, 0, numValues, null);
+        numValues = 0;
+        numEncodedRepetitions = 0;
+        this.segmentName = segmentName;
+        return this;
+    }
+
+    public String getSegmentName() {
+        return segmentName;
+    }
+
+    public Er7SegmentWriter set(int field, int repetition, int component, int subcomponent, String value) {
+        return add(position(field, repetition, component, subcomponent), value, false);
+    }
+
+    public Er7SegmentWriter set(int field, String value) {
+        return set(field, 0, 1, 1, value);
+    }
+
+    /**
+     * Sets one piece of a composite value located at {@code component}. A {@code component} of 0 means the composite
+     * is the whole field repetition, so its pieces are components; otherwise the composite is itself a component and
+     * its pieces are subcomponents.
+     */
+    public Er7SegmentWriter setPiece(int field, int repetition, int component, int piece, String value) {
+        return component == 0
+            ? set(field, repetition, piece, 1, value)
+            : set(field, repetition, component, piece, value);
+    }
+
+    /**
+     * Sets a whole field repetition to {@code encodedValue}, ER7 that is already delimited and escaped (such as from
+     * {@link #encodeField(Consumer)}) and is written verbatim. Nothing else may be set in the same repetition, before
+     * or after, except another {@code setEncoded} value that replaces this one.
+     *
+     * @throws IllegalStateException if a component of the repetition has already been set, or is set later
+     */
+    public Er7SegmentWriter setEncoded(int field, int repetition, String encodedValue) {
+        return add(position(field, repetition, 1, 1), encodedValue, true);
+    }
+
+    /**
+     * Returns the ER7 encoding of field 1 as written by {@code fieldWriter}, for caching values that are written
+     * repeatedly with {@link #setEncoded(int, int, String)}.
+     */
+    public static String encodeField(Consumer<Er7SegmentWriter> fieldWriter) {
+        final Er7SegmentWriter segment = new Er7SegmentWriter().reset("ZZZ");
+        fieldWriter.accept(segment);
+        final StringBuilder destination = new StringBuilder();
+        segment.appendTo(destination);
+        final int fieldStart = segment.segmentName.length() + 1;
+        return destination.length() > fieldStart ? destination.substring(fieldStart) : "";
+    }
+
+    public void appendTo(StringBuilder destination) {
+        sortPositions();
+        destination.append(segmentName);
+        int currentField = 0;
+        boolean delimiterSegment = MSH.equals(segmentName);
+        if (delimiterSegment) {
+            destination.append(FIELD_SEPARATOR); // MSH-1 is the field separator itself
+            currentField = 2;
+        }
+        int currentRepetition = 0;
+        int currentComponent = 1;
+        int currentSubcomponent = 1;
+
+        for (int i = 0; i < numValues; i++) {
+            final int position = positions[i];
+            if (i + 1 < numValues && positions[i + 1] == position) {
+                continue; // the last value set for a position wins
+            }
+            final String value = values[i];
+            final int field = field(position);
+            if (value == null || value.isEmpty() || (delimiterSegment && field < 2)) {
+                continue;
+            }
+            final int repetition = repetition(position);
+            final int component = component(position);
+            final int subcomponent = subcomponent(position);
+
+            if (field > currentField) {
+                repeat(destination, FIELD_SEPARATOR, field - currentField);
+                currentField = field;
+                currentRepetition = 0;
+                currentComponent = 1;
+                currentSubcomponent = 1;
+            }
+            if (repetition > currentRepetition) {
+                repeat(destination, REPETITION_SEPARATOR, repetition - currentRepetition);
+                currentRepetition = repetition;
+                currentComponent = 1;
+                currentSubcomponent = 1;
+            }
+            if (component > currentComponent) {
+                repeat(destination, COMPONENT_SEPARATOR, component - currentComponent);
+                currentComponent = component;
+                currentSubcomponent = 1;
+            }
+            if (subcomponent > currentSubcomponent) {
+                repeat(destination, SUBCOMPONENT_SEPARATOR, subcomponent - currentSubcomponent);
+                currentSubcomponent = subcomponent;
+            }
+
+            if (encoded[i] || (delimiterSegment && field == 2)) {
+                destination.append(value); // pre-encoded, or MSH-2 holding the encoding characters
+            } else {
+                escape(destination, value);
+            }
+        }
+    }
+
+    /**
+     * Appends {@code value} with the delimiters escaped, and with carriage returns as {@code \X0D\} since a bare CR
+     * would end the segment.
+     */
+    public static void escape(StringBuilder destination, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case FIELD_SEPARATOR -> destination.append("\\F\\");
+                case COMPONENT_SEPARATOR -> destination.append("\\S\\");
+                case REPETITION_SEPARATOR -> destination.append("\\R\\");
+                case SUBCOMPONENT_SEPARATOR -> destination.append("\\T\\");
+                case ESCAPE_CHARACTER -> destination.append("\\E\\");
+                case '\r' -> destination.append("\\X0D\\");
+                default -> destination.append(c);
+            }
+        }
+    }
+
+    private Er7SegmentWriter add(int position, String value, boolean alreadyEncoded) {
+        if (value != null && !value.isEmpty()) {
+            checkEncodedRepetitions(position, alreadyEncoded);
+        }
+        if (numValues == positions.length) {
+            positions = Arrays.copyOf(positions, numValues * 2);
+            values = Arrays.copyOf(values, numValues * 2);
+            encoded = Arrays.copyOf(encoded, numValues * 2);
+        }
+        positions[numValues] = position;
+        values[numValues] = value;
+        encoded[numValues] = alreadyEncoded;
+        numValues++;
+        return this;
+    }
+
+    private void checkEncodedRepetitions(int position, boolean alreadyEncoded) {
+        final int fieldRepetition = fieldRepetition(position);
+        if (alreadyEncoded) {
+            for (int i = 0; i < numValues; i++) {
+                if (!encoded[i] && fieldRepetition(positions[i]) == fieldRepetition && values[i] != null
+                    && !values[i].isEmpty()) {
+                    throw repetitionConflict(position);
+                }
+            }
+            if (numEncodedRepetitions == encodedRepetitions.length) {
+                encodedRepetitions = Arrays.copyOf(encodedRepetitions, numEncodedRepetitions * 2);
+            }
+            encodedRepetitions[numEncodedRepetitions++] = fieldRepetition;
+        } else {
+            for (int i = 0; i < numEncodedRepetitions; i++) {
+                if (encodedRepetitions[i] == fieldRepetition) {
+                    throw repetitionConflict(position);
+                }
+            }
+        }
+    }
+
+    private IllegalStateException repetitionConflict(int position) {
+        return new IllegalStateException(String.format(
+            "%s-%d(%d) holds a pre-encoded value and cannot also be set component by component",
+            segmentName,
+            field(position),
+            repetition(position)
+        ));
+    }
+
+    private void sortPositions() {
+        // values are mostly set in order, so a stable insertion sort is close to linear here
+        for (int i = 1; i < numValues; i++) {
+            final int position = positions[i];
+            final String value = values[i];
+            final boolean alreadyEncoded = encoded[i];
+            int j = i - 1;
+            while (j >= 0 && positions[j] > position) {
+                positions[j + 1] = positions[j];
+                values[j + 1] = values[j];
+                encoded[j + 1] = encoded[j];
+                j--;
+            }
+            positions[j + 1] = position;
+            values[j + 1] = value;
+            encoded[j + 1] = alreadyEncoded;
+        }
+    }
+
+    private static void repeat(StringBuilder destination, char delimiter, int count) {
+        for (int i = 0; i < count; i++) {
+            destination.append(delimiter);
+        }
+    }
+
+    private static int position(int field, int repetition, int component, int subcomponent) {
+        if (field > 0xFF || repetition > 0xFF || component > 0xFF || subcomponent > 0xFF) {
+            throw new IllegalArgumentException(
+                String.format("Position %d(%d)-%d-%d is out of range", field, repetition, component, subcomponent)
+            );
+        }
+        return field << 24 | repetition << 16 | component << 8 | subcomponent;
+    }
+
+    private static int fieldRepetition(int position) {
+        return position >>> 16;
+    }
+
+    private static int field(int position) {
+        return position >>> 24;
+    }
+
+    private static int repetition(int position) {
+        return (position >>> 16) & 0xFF;
+    }
+
+    private static int component(int position) {
+        return (position >>> 8) & 0xFF;
+    }
+
+    private static int subcomponent(int position) {
+        return position & 0xFF;
+    }
+
+}
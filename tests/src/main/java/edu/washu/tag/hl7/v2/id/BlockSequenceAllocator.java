@@ -0,0 +1,52 @@
+package edu.washu.tag.hl7.v2.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A sequence whose threads each reserve a block of consecutive numbers from a shared counter and then hand them out
+ * with no further coordination, so contention is one atomic add per block. Every number is used at most once, but
+ * numbers are not issued in order across threads, and the unused rest of a thread's block is lost when the thread
+ * ends.
+ */
+public class BlockSequenceAllocator implements IdAllocator {
+
+    private final AtomicLong nextBlock;
+    private final long limit;
+    private final int blockSize;
+    private final ThreadLocal<long[]> threadBlocks = ThreadLocal.withInitial(() -> new long[] {0, 0});
+
+    /**
+     * Issues numbers from {@code first} up to, but excluding, {@code limit}, after which {@link #next()} throws.
+     */
+    public BlockSequenceAllocator(long first, long limit, int blockSize) {
+        if (blockSize < 1 || first >= limit) {
+            throw new IllegalArgumentException("Empty sequence or block: [" + first + ", " + limit + "), " + blockSize);
+        }
+        this.nextBlock = new AtomicLong(first);
+        this.limit = limit;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * A sequence of all numbers with exactly {@code digits} digits, so identifiers keep a fixed width.
+     */
+    public static BlockSequenceAllocator ofDigits(int digits, int blockSize) {
+        final long first = (long) Math.pow(10, digits - 1);
+        return new BlockSequenceAllocator(first, first * 10, blockSize);
+    }
+
+    @Override
+    public long next() {
+        final long[] block = threadBlocks.get(); // {next number, end of block}
+        if (block[0] == block[1]) {
+            final long start = nextBlock.getAndAdd(blockSize);
+            if (start >= limit || start < 0) {
+                throw new IllegalStateException("ID sequence exhausted at " + limit);
+            }
+            block[0] = start;
+            block[1] = Math.min(start + blockSize, limit);
+        }
+        return block[0]++;
+    }
+
+}
@@ -0,0 +1,76 @@
+package edu.washu.tag.hl7.v2.id;
+
+/**
+ * Optional check digits appended to numeric identifiers, so that systems validating them, and people reading them,
+ * catch mistyped and transposed digits.
+ */
+public enum CheckDigit {
+
+    NONE {
+        @Override
+        String compute(String digits) {
+            return "";
+        }
+    },
+
+    /**
+     * The Luhn mod 10 check digit, which catches any single wrong digit and most adjacent transpositions.
+     */
+    LUHN {
+        @Override
+        String compute(String digits) {
+            int sum = 0;
+            boolean doubled = true;
+            for (int i = digits.length() - 1; i >= 0; i--) {
+                int digit = digits.charAt(i) - '0';
+                if (doubled) {
+                    digit *= 2;
+                    if (digit > 9) {
+                        digit -= 9;
+                    }
+                }
+                sum += digit;
+                doubled = !doubled;
+            }
+            return String.valueOf((10 - sum % 10) % 10);
+        }
+    },
+
+    /**
+     * The mod 11 check digit with weights 2 to 7 repeating from the right, with "X" standing for 10. It also catches
+     * every adjacent transposition.
+     */
+    MOD_11 {
+        @Override
+        String compute(String digits) {
+            int sum = 0;
+            int weight = 2;
+            for (int i = digits.length() - 1; i >= 0; i--) {
+                sum += (digits.charAt(i) - '0') * weight;
+                weight = weight == 7 ? 2 : weight + 1;
+            }
+            final int check = (11 - sum % 11) % 11;
+            return check == 10 ? "X" : String.valueOf(check);
+        }
+    };
+
+    abstract String compute(String digits);
+
+    public String append(long number) {
+        final String digits = Long.toString(number);
+        return digits + compute(digits);
+    }
+
+    public boolean isValid(String identifier) {
+        if (this == NONE) {
+            return true;
+        }
+        if (identifier.length() < 2) {
+            return false;
+        }
+        final String digits = identifier.substring(0, identifier.length() - 1);
+        return digits.chars().allMatch(Character::isDigit)
+            && compute(digits).equals(identifier.substring(identifier.length() - 1));
+    }
+
+}
@@ -0,0 +1,21 @@
+package edu.washu.tag.hl7.v2.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code start} components of {@link DicomUidAllocator#counter(String, int)} UIDs: the current time in
+ * milliseconds, moved past the last start handed out so that no two counter allocators in this JVM share one, even
+ * when created in the same millisecond.
+ */
+final class CounterUidStarts {
+
+    private static final AtomicLong lastStart = new AtomicLong();
+
+    private CounterUidStarts() {
+    }
+
+    static long next() {
+        return lastStart.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+    }
+
+}
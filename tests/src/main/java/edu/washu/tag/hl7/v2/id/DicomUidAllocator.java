@@ -0,0 +1,83 @@
+package edu.washu.tag.hl7.v2.id;
+
+import edu.washu.tag.hl7.v2.MessageValues;
+import edu.washu.tag.util.RandomGenUtils;
+import java.util.regex.Pattern;
+
+/**
+ * Supplies the Study Instance UID carried in ZDS-1. Set on
+ * {@link edu.washu.tag.hl7.v2.MessageRequirements#setDicomUidAllocator(DicomUidAllocator)}; without one, each message
+ * gets a random UUID-derived "2.25." UID.
+ */
+public interface DicomUidAllocator {
+
+    int MAX_UID_LENGTH = 64;
+    int MAX_SUFFIX_LENGTH = 36;
+    int MAX_NODE = 1023;
+    long MAX_COUNTER = 9_999_999_999_999_999L;
+    Pattern UID_PATTERN = Pattern.compile("(0|[1-9][0-9]*)(\\.(0|[1-9][0-9]*))*");
+
+    /**
+     * Called once the message's order numbers have been drawn.
+     */
+    String studyInstanceUid(MessageValues messageValues);
+
+    /**
+     * UIDs of the form {@code <root>.<node>.<start>.<counter>}, where {@code node}, up to {@value #MAX_NODE}, tells
+     * apart executors sharing the root and {@code start} is the allocator's creation time in milliseconds, moved past
+     * any start already used in this JVM. Allocators on one node therefore never share a start, and restarting a node
+     * does not reissue UIDs unless its clock has been set back or the previous run created allocators faster than one
+     * per millisecond. Counters come from a {@link BlockSequenceAllocator}, so allocation is unique across threads and
+     * costs little more than formatting the number; they stop at {@value #MAX_COUNTER} so the suffix stays within
+     * {@value #MAX_SUFFIX_LENGTH} characters.
+     */
+    static DicomUidAllocator counter(String root, int node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        final String prefix = validateRoot(root) + "." + node + "." + CounterUidStarts.next() + ".";
+        final IdAllocator counter = new BlockSequenceAllocator(1, MAX_COUNTER + 1, 1024);
+        return messageValues -> prefix + counter.next();
+    }
+
+    /**
+     * UIDs derived from the filler order number (ORC-3), so every message about an order, such as a preliminary and
+     * then a final report, names the same study, in every run. Numeric order numbers are used as they are, under
+     * {@code <root>.1}, and any others are hashed to a 64-bit number under {@code <root>.2}. Order numbers must
+     * therefore be unique, for example allocated by {@link IdAllocators}, for the UIDs to be.
+     */
+    static DicomUidAllocator fromOrderNumber(String root) {
+        final String numericPrefix = validateRoot(root) + ".1.";
+        final String hashedPrefix = root + ".2.";
+        return messageValues -> {
+            final String orderNumber = messageValues.getFillerOrderNumber();
+            if (isCanonicalNumber(orderNumber)) {
+                return numericPrefix + orderNumber;
+            }
+            return hashedPrefix + Long.toUnsignedString(RandomGenUtils.stableLongId(orderNumber));
+        };
+    }
+
+    /**
+     * Checks that {@code root} is a well-formed UID leaving room for the suffixes above.
+     */
+    static String validateRoot(String root) {
+        if (!UID_PATTERN.matcher(root).matches() || root.length() > MAX_UID_LENGTH - MAX_SUFFIX_LENGTH) {
+            throw new IllegalArgumentException("Not a usable DICOM UID root: " + root);
+        }
+        return root;
+    }
+
+    private static boolean isCanonicalNumber(String value) {
+        if (value.isEmpty() || value.length() > 19 || (value.length() > 1 && value.charAt(0) == '0')) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
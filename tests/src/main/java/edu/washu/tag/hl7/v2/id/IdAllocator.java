@@ -0,0 +1,10 @@
+package edu.washu.tag.hl7.v2.id;
+
+/**
+ * Hands out identifiers that are unique among everything this allocator returns. Implementations are thread-safe.
+ */
+public interface IdAllocator {
+
+    long next();
+
+}
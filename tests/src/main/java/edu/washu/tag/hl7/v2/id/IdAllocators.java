@@ -0,0 +1,64 @@
+package edu.washu.tag.hl7.v2.id;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The allocator and check digit scheme used for each {@link IdNamespace}. Set on
+ * {@link edu.washu.tag.hl7.v2.MessageRequirements#setIdAllocators(IdAllocators)} to have generated messages carry
+ * unique identifiers instead of random ones. Allocated identifiers do not depend on a message's seed, so seeded
+ * generation with allocators is only reproducible when messages are drawn in the same order on a single thread.
+ */
+public class IdAllocators {
+
+    private final Map<IdNamespace, IdAllocator> allocators = new EnumMap<>(IdNamespace.class);
+    private final Map<IdNamespace, CheckDigit> checkDigits = new EnumMap<>(IdNamespace.class);
+
+    /**
+     * Block sequences of 9-digit numbers for every namespace, room for 900 million identifiers each.
+     */
+    public static IdAllocators blockSequences(int blockSize) {
+        final IdAllocators idAllocators = new IdAllocators();
+        for (IdNamespace namespace : IdNamespace.values()) {
+            idAllocators.setAllocator(namespace, BlockSequenceAllocator.ofDigits(9, blockSize));
+        }
+        return idAllocators;
+    }
+
+    /**
+     * Snowflake IDs for every namespace, for generators on up to 1024 nodes that cannot share a counter.
+     */
+    public static IdAllocators snowflake(int node) {
+        final IdAllocators idAllocators = new IdAllocators();
+        for (IdNamespace namespace : IdNamespace.values()) {
+            idAllocators.setAllocator(namespace, new SnowflakeAllocator(node));
+        }
+        return idAllocators;
+    }
+
+    public IdAllocators setAllocator(IdNamespace namespace, IdAllocator allocator) {
+        allocators.put(namespace, allocator);
+        return this;
+    }
+
+    public IdAllocators setCheckDigit(IdNamespace namespace, CheckDigit checkDigit) {
+        checkDigits.put(namespace, checkDigit);
+        return this;
+    }
+
+    public IdAllocators setCheckDigit(CheckDigit checkDigit) {
+        for (IdNamespace namespace : IdNamespace.values()) {
+            checkDigits.put(namespace, checkDigit);
+        }
+        return this;
+    }
+
+    public String nextId(IdNamespace namespace) {
+        final IdAllocator allocator = allocators.get(namespace);
+        if (allocator == null) {
+            throw new IllegalStateException("No ID allocator for " + namespace);
+        }
+        return checkDigits.getOrDefault(namespace, CheckDigit.NONE).append(allocator.next());
+    }
+
+}
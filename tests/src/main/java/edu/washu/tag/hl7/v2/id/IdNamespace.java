@@ -0,0 +1,14 @@
+package edu.washu.tag.hl7.v2.id;
+
+/**
+ * The identifier spaces that must stay unique across a generated corpus.
+ */
+public enum IdNamespace {
+
+    EPIC_MRN,
+    ABC_MR,
+    PLACER_ORDER_NUMBER, // ORC-2
+    FILLER_ORDER_NUMBER, // ORC-3
+    VISIT_NUMBER // PV1-19
+
+}
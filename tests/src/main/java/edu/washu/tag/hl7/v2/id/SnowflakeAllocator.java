@@ -0,0 +1,69 @@
+package edu.washu.tag.hl7.v2.id;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style identifiers: milliseconds since {@link #DEFAULT_EPOCH} in the top 41 bits, a node number in the
+ * next 10 and a per-millisecond sequence in the low 12, so up to 1024 generators, such as distributed executors, can
+ * issue IDs independently without colliding. A generator issues at most 4096 IDs per millisecond; past that, and
+ * whenever the clock steps backwards, it borrows from following milliseconds rather than waiting, which keeps IDs
+ * unique and increasing for as long as the burst lasts.
+ */
+public class SnowflakeAllocator implements IdAllocator {
+
+    public static final Instant DEFAULT_EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private final long epochMillis;
+    private final long nodeBits;
+    private final LongSupplier clockMillis;
+    private final AtomicLong lastId = new AtomicLong();
+
+    public SnowflakeAllocator(int node) {
+        this(node, DEFAULT_EPOCH, System::currentTimeMillis);
+    }
+
+    public SnowflakeAllocator(int node, Instant epoch, LongSupplier clockMillis) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        this.epochMillis = epoch.toEpochMilli();
+        this.nodeBits = (long) node << SEQUENCE_BITS;
+        this.clockMillis = clockMillis;
+    }
+
+    @Override
+    public long next() {
+        final long timestampBits = (clockMillis.getAsLong() - epochMillis) << (NODE_BITS + SEQUENCE_BITS);
+        while (true) {
+            final long last = lastId.get();
+            // the sequence carries into the timestamp bits, skipping over the node bits, once 4096 are used
+            final long candidate = timestampBits > last
+                ? timestampBits | nodeBits
+                : nextAfter(last);
+            if (lastId.compareAndSet(last, candidate)) {
+                return candidate;
+            }
+        }
+    }
+
+    private long nextAfter(long last) {
+        if ((last & MAX_SEQUENCE) < MAX_SEQUENCE) {
+            return last + 1;
+        }
+        return (last | (MAX_NODE << SEQUENCE_BITS) | MAX_SEQUENCE) + 1 | nodeBits;
+    }
+
+    /**
+     * Returns the time encoded in {@code id}, for diagnostics.
+     */
+    public Instant timestampOf(long id) {
+        return Instant.ofEpochMilli(epochMillis + (id >>> (NODE_BITS + SEQUENCE_BITS)));
+    }
+
+}
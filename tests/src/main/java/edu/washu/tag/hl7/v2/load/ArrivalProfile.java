@@ -0,0 +1,90 @@
+package edu.washu.tag.hl7.v2.load;
+
+import java.time.Duration;
+import java.util.function.LongToDoubleFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * When a {@link LoadDriver} intends to send each message. Times are nanoseconds since the start of the run; the first
+ * message is intended for 0. All rates are in messages per second and must be positive, except that {@link #step}
+ * takes a rate of 0 as a pause.
+ */
+@FunctionalInterface
+public interface ArrivalProfile {
+
+    long nextArrival(long previousNanos, RandomGenerator random);
+
+    static ArrivalProfile constant(double messagesPerSecond) {
+        requirePositive(messagesPerSecond);
+        return rate(nanos -> messagesPerSecond);
+    }
+
+    /**
+     * Changes the rate linearly from {@code fromRate} to {@code toRate} over {@code rampDuration}, then holds it.
+     */
+    static ArrivalProfile ramp(double fromRate, double toRate, Duration rampDuration) {
+        requirePositive(fromRate);
+        requirePositive(toRate);
+        if (rampDuration.isNegative()) {
+            throw new IllegalArgumentException("Ramp duration must not be negative: " + rampDuration);
+        }
+        final double rampNanos = rampDuration.toNanos();
+        return rate(nanos -> nanos >= rampNanos ? toRate : fromRate + (toRate - fromRate) * nanos / rampNanos);
+    }
+
+    /**
+     * Sends at each of {@code rates} in turn for {@code stepDuration}, holding the last one. Alternating a base rate
+     * with a higher one gives periodic bursts. A rate of 0 pauses sending until the next step with a positive rate, or
+     * for good if no later step has one.
+     */
+    static ArrivalProfile step(Duration stepDuration, double... rates) {
+        if (stepDuration.isZero() || stepDuration.isNegative()) {
+            throw new IllegalArgumentException("Step duration must be positive: " + stepDuration);
+        }
+        if (rates.length == 0) {
+            throw new IllegalArgumentException("At least one rate is required");
+        }
+        for (double rate : rates) {
+            if (!(rate >= 0) || Double.isInfinite(rate)) {
+                throw new IllegalArgumentException("Rates must be finite and not negative: " + rate);
+            }
+        }
+        final long stepNanos = stepDuration.toNanos();
+        return (previousNanos, random) -> {
+            final double rate = rates[(int) Math.min(previousNanos / stepNanos, rates.length - 1)];
+            long arrival = rate > 0 ? previousNanos + Math.round(interval(rate)) : previousNanos;
+            for (long step = arrival / stepNanos; rates[(int) Math.min(step, rates.length - 1)] == 0; step++) {
+                if (step >= rates.length - 1) {
+                    return Long.MAX_VALUE; // paused for the rest of the run
+                }
+                arrival = (step + 1) * stepNanos;
+            }
+            return arrival;
+        };
+    }
+
+    /**
+     * Exponentially distributed gaps averaging {@code messagesPerSecond}, as independent clients would produce.
+     */
+    static ArrivalProfile poisson(double messagesPerSecond) {
+        requirePositive(messagesPerSecond);
+        return (previousNanos, random) ->
+            previousNanos + Math.round(random.nextExponential() * interval(messagesPerSecond));
+    }
+
+    static ArrivalProfile rate(LongToDoubleFunction messagesPerSecondAt) {
+        return (previousNanos, random) ->
+            previousNanos + Math.round(interval(messagesPerSecondAt.applyAsDouble(previousNanos)));
+    }
+
+    private static void requirePositive(double messagesPerSecond) {
+        if (!(messagesPerSecond > 0) || Double.isInfinite(messagesPerSecond)) {
+            throw new IllegalArgumentException("Rate must be positive and finite: " + messagesPerSecond);
+        }
+    }
+
+    private static double interval(double messagesPerSecond) {
+        return 1e9 / messagesPerSecond;
+    }
+
+}
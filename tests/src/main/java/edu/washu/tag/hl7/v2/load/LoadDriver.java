@@ -0,0 +1,184 @@
+package edu.washu.tag.hl7.v2.load;
+
+import ca.uhn.hl7v2.model.Message;
+import edu.washu.tag.hl7.v2.MessageLogWriter;
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.triggerevents.MessageGenerator;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Sends generated messages open-loop: each message is scheduled by the {@link ArrivalProfile} up front, independent of
+ * how long earlier sends took, and latency is measured from that schedule (see {@link LoadReport}). A background
+ * thread generates messages ahead of the schedule into a bounded queue, which is filled before the clock starts, so
+ * generation cost stays off the send path while memory stays bounded; if generation falls behind, the wait counts
+ * against response time.
+ */
+public class LoadDriver<X extends Message> {
+
+    private static final long QUEUE_POLL_MILLIS = 10;
+
+    private final MessageGenerator<X> messageGenerator;
+    private final MessageRequirements messageRequirements;
+    private ArrivalProfile arrivalProfile = ArrivalProfile.constant(100);
+    private Duration duration = Duration.ofMinutes(1);
+    private long messageLimit = Long.MAX_VALUE;
+    private int queueCapacity = 1024;
+    private long seed = ThreadLocalRandom.current().nextLong();
+
+    public LoadDriver(MessageGenerator<X> messageGenerator, MessageRequirements messageRequirements) {
+        this.messageGenerator = messageGenerator;
+        this.messageRequirements = messageRequirements;
+    }
+
+    public ArrivalProfile getArrivalProfile() {
+        return arrivalProfile;
+    }
+
+    public LoadDriver<X> setArrivalProfile(ArrivalProfile arrivalProfile) {
+        this.arrivalProfile = arrivalProfile;
+        return this;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * No message is scheduled at or after {@code duration} from the start of the run.
+     */
+    public LoadDriver<X> setDuration(Duration duration) {
+        if (duration.isZero() || duration.isNegative()) {
+            throw new IllegalArgumentException("Duration must be positive: " + duration);
+        }
+        this.duration = duration;
+        return this;
+    }
+
+    public long getMessageLimit() {
+        return messageLimit;
+    }
+
+    public LoadDriver<X> setMessageLimit(long messageLimit) {
+        this.messageLimit = messageLimit;
+        return this;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public LoadDriver<X> setQueueCapacity(int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Seeds the arrival schedule. Message contents come from the generator's own random source.
+     */
+    public LoadDriver<X> setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public LoadReport run(MessageLogWriter messageLogWriter) {
+        return run(messageLogWriter::write);
+    }
+
+    /**
+     * Sends messages to {@code sink} on the calling thread until the duration or message limit is reached.
+     */
+    public LoadReport run(Consumer<? super X> sink) {
+        final BlockingQueue<X> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final ExecutorService producerExecutor = Executors.newSingleThreadExecutor();
+        final Future<?> producer = producerExecutor.submit(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                queue.put(messageGenerator.generate(messageRequirements));
+            }
+            return null;
+        });
+        final LoadReport report = new LoadReport();
+        try {
+            awaitPrefill(queue, producer, (int) Math.min(queueCapacity, messageLimit));
+            final SplittableRandom random = new SplittableRandom(seed);
+            final long endNanos = duration.toNanos();
+            final long runStart = System.nanoTime();
+            long intendedNanos = 0;
+            for (long sent = 0; sent < messageLimit && intendedNanos < endNanos; sent++) {
+                final long intendedStart = runStart + intendedNanos;
+                waitUntil(intendedStart);
+                final X message = take(queue, producer);
+                final long actualStart = System.nanoTime();
+                sink.accept(message);
+                report.record(intendedStart, actualStart, System.nanoTime());
+                intendedNanos = arrivalProfile.nextArrival(intendedNanos, random);
+            }
+            report.setElapsedNanos(System.nanoTime() - runStart);
+        } finally {
+            producerExecutor.shutdownNow();
+        }
+        return report;
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static void awaitPrefill(BlockingQueue<?> queue, Future<?> producer, int prefill) {
+        try {
+            while (queue.size() < prefill) {
+                if (producer.isDone()) {
+                    producer.get();
+                    throw new IllegalStateException("Message generation stopped");
+                }
+                TimeUnit.MILLISECONDS.sleep(1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static <X> X take(BlockingQueue<X> queue, Future<?> producer) {
+        try {
+            while (true) {
+                final X message = queue.poll(QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (message != null) {
+                    return message;
+                }
+                if (producer.isDone()) {
+                    producer.get();
+                    throw new IllegalStateException("Message generation stopped");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package edu.washu.tag.hl7.v2.load;
+
+import edu.washu.tag.util.LatencyHistogram;
+
+/**
+ * The outcome of a {@link LoadDriver} run. Response time is measured from when each message was scheduled to be sent,
+ * not from when sending actually began, so a stall delays every message queued behind it and shows up in the
+ * percentiles instead of being hidden by coordinated omission. Service time is measured from the actual start.
+ */
+public class LoadReport {
+
+    private final LatencyHistogram responseTime = new LatencyHistogram();
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private long messagesSent;
+    private long elapsedNanos;
+
+    void record(long intendedStartNanos, long actualStartNanos, long completedNanos) {
+        responseTime.record(completedNanos - intendedStartNanos);
+        serviceTime.record(completedNanos - actualStartNanos);
+        messagesSent++;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public LatencyHistogram getResponseTime() {
+        return responseTime;
+    }
+
+    public LatencyHistogram getServiceTime() {
+        return serviceTime;
+    }
+
+    public long getMessagesSent() {
+        return messagesSent;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getMessagesPerSecond() {
+        return elapsedNanos == 0 ? 0 : messagesSent * 1e9 / elapsedNanos;
+    }
+
+    public String summarize() {
+        return String.format(
+            "sent=%d elapsed=%.3fs rate=%.1f/s%nresponse time: %s%nservice time: %s",
+            messagesSent,
+            elapsedNanos / 1e9,
+            getMessagesPerSecond(),
+            responseTime.summarize(),
+            serviceTime.summarize()
+        );
+    }
+
+    @Override
+    public String toString() {
+        return summarize();
+    }
+
+}
@@ -0,0 +1,13 @@
+package edu.washu.tag.hl7.v2.mllp;
+
+/**
+ * The acknowledgment received for one sent message, correlated by MSH-10/MSA-2, with the time from the message being
+ * queued on its connection to the ACK being read.
+ */
+public record MllpAck(String messageControlId, String acknowledgmentCode, long latencyNanos) {
+
+    public boolean isAccepted() {
+        return "AA".equals(acknowledgmentCode) || "CA".equals(acknowledgmentCode);
+    }
+
+}
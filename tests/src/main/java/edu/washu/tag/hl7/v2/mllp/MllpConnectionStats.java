@@ -0,0 +1,83 @@
+package edu.washu.tag.hl7.v2.mllp;
+
+import edu.washu.tag.util.LatencyHistogram;
+import java.net.SocketAddress;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one connection accepted by {@link MllpReceiver}. Updated from the receiver's selector thread and safe
+ * to read from any other.
+ */
+public class MllpConnectionStats {
+
+    private final SocketAddress remoteAddress;
+    private final LongAdder messagesAccepted = new LongAdder();
+    private final LongAdder messagesRejected = new LongAdder();
+    private final LatencyHistogram ackLatency = new LatencyHistogram();
+    private volatile long firstMessageNanos;
+    private volatile long lastMessageNanos;
+    private volatile boolean open = true;
+
+    MllpConnectionStats(SocketAddress remoteAddress) {
+        this.remoteAddress = remoteAddress;
+    }
+
+    void recordMessage(boolean accepted, long receivedNanos) {
+        if (getMessagesReceived() == 0) {
+            firstMessageNanos = receivedNanos;
+        }
+        lastMessageNanos = receivedNanos;
+        (accepted ? messagesAccepted : messagesRejected).increment();
+    }
+
+    void recordAckWritten(long receivedNanos, long writtenNanos) {
+        ackLatency.record(writtenNanos - receivedNanos);
+    }
+
+    void markClosed() {
+        open = false;
+    }
+
+    public SocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public long getMessagesReceived() {
+        return messagesAccepted.sum() + messagesRejected.sum();
+    }
+
+    public long getMessagesAccepted() {
+        return messagesAccepted.sum();
+    }
+
+    public long getMessagesRejected() {
+        return messagesRejected.sum();
+    }
+
+    /**
+     * Time from the read that completed a frame until its ACK was handed to the socket.
+     */
+    public LatencyHistogram getAckLatency() {
+        return ackLatency;
+    }
+
+    /**
+     * Messages per second between the first and last message received on this connection.
+     */
+    public double getMessagesPerSecond() {
+        final long received = getMessagesReceived();
+        final long elapsed = lastMessageNanos - firstMessageNanos;
+        return received < 2 || elapsed <= 0 ? 0 : (received - 1) / (elapsed / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d accepted, %d rejected, %.0f msg/s, ACK latency %s",
+            remoteAddress, getMessagesAccepted(), getMessagesRejected(), getMessagesPerSecond(), ackLatency);
+    }
+
+}
@@ -0,0 +1,64 @@
+package edu.washu.tag.hl7.v2.mllp;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Incrementally reassembles MLLP frames from whatever chunks a non-blocking read happens to return. Bytes outside
+ * a start block/end block pair are discarded, and a frame may be split across any number of reads, including
+ * between the end block and the trailing carriage return.
+ */
+public class MllpFrameDecoder {
+
+    private final Charset charset;
+    private byte[] frame = new byte[8192];
+    private int frameLength;
+    private boolean inFrame;
+    private boolean sawEndBlock;
+
+    public MllpFrameDecoder(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * Consumes all remaining bytes of {@code input}, passing the payload of each completed frame to
+     * {@code frameConsumer}, and returns the number of frames completed.
+     */
+    public int decode(ByteBuffer input, Consumer<String> frameConsumer) {
+        int numFrames = 0;
+        while (input.hasRemaining()) {
+            final byte b = input.get();
+            if (sawEndBlock) {
+                sawEndBlock = false;
+                if (b == MllpFraming.CARRIAGE_RETURN) {
+                    frameConsumer.accept(new String(frame, 0, frameLength, charset));
+                    inFrame = false;
+                    numFrames++;
+                    continue;
+                }
+                append(MllpFraming.END_BLOCK); // a lone end block is just data
+            }
+            if (b == MllpFraming.START_BLOCK) {
+                inFrame = true;
+                frameLength = 0;
+            } else if (inFrame) {
+                if (b == MllpFraming.END_BLOCK) {
+                    sawEndBlock = true;
+                } else {
+                    append(b);
+                }
+            }
+        }
+        return numFrames;
+    }
+
+    private void append(byte b) {
+        if (frameLength == frame.length) {
+            frame = Arrays.copyOf(frame, frame.length * 2);
+        }
+        frame[frameLength++] = b;
+    }
+
+}
@@ -0,0 +1,60 @@
+package edu.washu.tag.hl7.v2.mllp;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+
+/**
+ * The Minimal Lower Layer Protocol block: {@code <VT> payload <FS><CR>}.
+ */
+public class MllpFraming {
+
+    public static final byte START_BLOCK = 0x0B;
+    public static final byte END_BLOCK = 0x1C;
+    public static final byte CARRIAGE_RETURN = 0x0D;
+
+    /**
+     * Appends one framed message to {@code buffer} (in fill mode) and returns it, or a larger copy if it did not fit.
+     */
+    public static ByteBuffer frame(CharSequence message, CharsetEncoder encoder, ByteBuffer buffer) {
+        ByteBuffer output = ensureCapacity(buffer, message.length() + 3);
+        output.put(START_BLOCK);
+
+        final CharBuffer chars = CharBuffer.wrap(message);
+        encoder.reset();
+        CoderResult result = encoder.encode(chars, output, true);
+        while (result.isOverflow()) {
+            output = ensureCapacity(output, chars.remaining() * 2 + 16);
+            result = encoder.encode(chars, output, true);
+        }
+        if (result.isError()) {
+            try {
+                result.throwException();
+            } catch (CharacterCodingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        while (encoder.flush(output).isOverflow()) {
+            output = ensureCapacity(output, 16);
+        }
+
+        output = ensureCapacity(output, 2);
+        output.put(END_BLOCK);
+        output.put(CARRIAGE_RETURN);
+        return output;
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int needed) {
+        if (buffer.remaining() >= needed) {
+            return buffer;
+        }
+        final int capacity = Math.max(buffer.capacity() * 2, buffer.position() + needed);
+        final ByteBuffer larger = buffer.isDirect() ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+}
@@ -0,0 +1,371 @@
+package edu.washu.tag.hl7.v2.mllp;
+
+import ca.uhn.hl7v2.HL7Exception;
+import ca.uhn.hl7v2.parser.Parser;
+import edu.washu.tag.hl7.v2.er7.Er7Fields;
+import edu.washu.tag.util.LatencyHistogram;
+import edu.washu.tag.util.TimeUtils;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A local stand-in for an HL7 interface engine: accepts any number of MLLP connections on a single selector thread
+ * and acknowledges every frame it receives. Frames are answered with AA, or AE if they have no MSH-10 or, when a
+ * {@link Parser} has been set, fail to parse. Per-connection counters are kept in {@link MllpConnectionStats}. If the
+ * selector loop fails, every connection is closed so senders see the failure, and the cause is rethrown from
+ * {@link #close()} and {@link #getConnectionStats()}.
+ */
+public class MllpReceiver implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MllpReceiver.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String DEFAULT_PROCESSING_ID = "P";
+    private static final String DEFAULT_VERSION = "2.7";
+
+    private final int requestedPort;
+    private final Charset charset;
+    private final List<MllpConnectionStats> connectionStats = new CopyOnWriteArrayList<>();
+    private Parser parser;
+    private Clock clock = Clock.systemDefaultZone();
+    private ServerSocketChannel serverChannel;
+    private Selector selector;
+    private Thread selectorThread;
+    private volatile boolean running;
+    private volatile Exception failure;
+
+    public MllpReceiver() {
+        this(0);
+    }
+
+    /**
+     * @param port the port to listen on, or 0 to pick a free one (see {@link #getPort()})
+     */
+    public MllpReceiver(int port) {
+        this(port, StandardCharsets.UTF_8);
+    }
+
+    public MllpReceiver(int port, Charset charset) {
+        this.requestedPort = port;
+        this.charset = charset;
+    }
+
+    public Parser getParser() {
+        return parser;
+    }
+
+    /**
+     * If set, every received frame is parsed with {@code parser} before being acknowledged, and frames that fail to
+     * parse are rejected. Parsing happens on the selector thread, so the parser need not be thread-safe.
+     */
+    public MllpReceiver setParser(Parser parser) {
+        this.parser = parser;
+        return this;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Sets where the MSH-7 timestamp of each ACK comes from; the system clock by default. Set it before
+     * {@link #start()}, since ACKs are built on the selector thread.
+     */
+    public MllpReceiver setClock(Clock clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    public MllpReceiver start() {
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress("localhost", requestedPort));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        running = true;
+        selectorThread = new Thread(this::run, "mllp-receiver-" + getPort());
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+        return this;
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public long getMessagesReceived() {
+        return connectionStats.stream().mapToLong(MllpConnectionStats::getMessagesReceived).sum();
+    }
+
+    public long getMessagesRejected() {
+        return connectionStats.stream().mapToLong(MllpConnectionStats::getMessagesRejected).sum();
+    }
+
+    /**
+     * Returns the stats of every connection accepted so far, including ones that have since closed.
+     */
+    public List<MllpConnectionStats> getConnectionStats() {
+        checkNotFailed();
+        return new ArrayList<>(connectionStats);
+    }
+
+    public LatencyHistogram getAckLatency() {
+        final LatencyHistogram combined = new LatencyHistogram();
+        for (MllpConnectionStats stats : connectionStats) {
+            combined.add(stats.getAckLatency());
+        }
+        return combined;
+    }
+
+    /**
+     * Returns what stopped the selector loop, or null if it has not failed.
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (selectorThread != null) {
+            selector.wakeup();
+            try {
+                selectorThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            selectorThread = null;
+        }
+        checkNotFailed();
+    }
+
+    /**
+     * Returns the acknowledgment code to send back for {@code message}.
+     */
+    protected String acknowledgmentCode(String message) {
+        final String controlId = Er7Fields.get(message, "MSH", 10);
+        if (controlId == null || controlId.isEmpty()) {
+            return "AE";
+        }
+        if (parser != null) {
+            try {
+                parser.parse(message);
+            } catch (HL7Exception e) {
+                return "AE";
+            }
+        }
+        return "AA";
+    }
+
+    /**
+     * Builds the ACK for {@code message}, addressed back to its sender and echoing its processing ID (MSH-11) and
+     * version (MSH-12). A message missing either is answered as production, HL7 v2.7.
+     */
+    protected String buildAck(String message, String acknowledgmentCode) {
+        final String controlId = Er7Fields.get(message, "MSH", 10);
+        return "MSH|^~\\&|"
+            + nullToEmpty(Er7Fields.get(message, "MSH", 5)) + "|"
+            + nullToEmpty(Er7Fields.get(message, "MSH", 6)) + "|"
+            + nullToEmpty(Er7Fields.get(message, "MSH", 3)) + "|"
+            + nullToEmpty(Er7Fields.get(message, "MSH", 4)) + "|"
+            + TimeUtils.hl7DatetimeNow(clock) + "||ACK|"
+            + UUID.randomUUID() + "|"
+            + emptyToDefault(Er7Fields.get(message, "MSH", 11), DEFAULT_PROCESSING_ID) + "|"
+            + emptyToDefault(Er7Fields.get(message, "MSH", 12), DEFAULT_VERSION) + "\r"
+            + "MSA|" + acknowledgmentCode + "|" + nullToEmpty(controlId) + "\r";
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String emptyToDefault(String value, String defaultValue) {
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+
+    private void checkNotFailed() {
+        if (failure != null) {
+            throw new IllegalStateException("MLLP receiver stopped after a failure", failure);
+        }
+    }
+
+    /**
+     * The selector loop, which owns every channel and closes them all on the way out, whether stopped by
+     * {@link #close()} or by a failure.
+     */
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        final ReceiverConnection connection = (ReceiverConnection) key.attachment();
+                        try {
+                            if (key.isReadable()) {
+                                connection.read();
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                connection.flush();
+                            }
+                        } catch (IOException e) {
+                            connection.close(); // the client went away; keep serving the others
+                        }
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("MLLP receiver on port {} failed; closing all connections", getPort(), e);
+            failure = e;
+        } finally {
+            running = false;
+            closeChannels();
+        }
+    }
+
+    private void closeChannels() {
+        for (SelectionKey key : selector.keys()) {
+            try {
+                if (key.attachment() instanceof ReceiverConnection connection) {
+                    connection.close();
+                } else {
+                    key.channel().close();
+                }
+            } catch (IOException e) {
+                log.warn("Failed to close MLLP receiver channel", e);
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            log.warn("Failed to close MLLP receiver selector", e);
+        }
+    }
+
+    private void accept() throws IOException {
+        final SocketChannel channel = serverChannel.accept();
+        if (channel != null) {
+            channel.configureBlocking(false);
+            final MllpConnectionStats stats = new MllpConnectionStats(channel.getRemoteAddress());
+            connectionStats.add(stats);
+            final ReceiverConnection connection = new ReceiverConnection(channel, stats);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    private class ReceiverConnection {
+        private final SocketChannel channel;
+        private final MllpConnectionStats stats;
+        private final MllpFrameDecoder decoder = new MllpFrameDecoder(charset);
+        private final CharsetEncoder encoder = charset.newEncoder();
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private SelectionKey key;
+        /**
+         * ACKs queued but not yet fully written, oldest first, as a ring of when each frame was read and where its ACK
+         * ends in the stream of bytes queued on this connection.
+         */
+        private long[] pendingReceivedNanos = new long[16];
+        private long[] pendingAckEnds = new long[16];
+        private int pendingHead;
+        private int numPendingAcks;
+        private long bytesQueued;
+        private long bytesWritten;
+
+        private ReceiverConnection(SocketChannel channel, MllpConnectionStats stats) {
+            this.channel = channel;
+            this.stats = stats;
+        }
+
+        private void read() throws IOException {
+            if (channel.read(readBuffer) < 0) {
+                close();
+                return;
+            }
+            final long receivedNanos = System.nanoTime();
+            readBuffer.flip();
+            final int numFrames = decoder.decode(readBuffer, message -> {
+                final String acknowledgmentCode = acknowledgmentCode(message);
+                stats.recordMessage("AA".equals(acknowledgmentCode), receivedNanos);
+                final int queuedBefore = writeBuffer.position();
+                writeBuffer = MllpFraming.frame(buildAck(message, acknowledgmentCode), encoder, writeBuffer);
+                bytesQueued += writeBuffer.position() - queuedBefore;
+                addPendingAck(receivedNanos, bytesQueued);
+            });
+            readBuffer.clear();
+            if (numFrames > 0) {
+                flush();
+            }
+        }
+
+        /**
+         * Writes what the socket will take and records the latency of each ACK whose last byte went out, measured from
+         * the read that completed its own frame.
+         */
+        private void flush() throws IOException {
+            writeBuffer.flip();
+            bytesWritten += channel.write(writeBuffer);
+            final boolean drained = !writeBuffer.hasRemaining();
+            writeBuffer.compact();
+            key.interestOps(drained ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            final long writtenNanos = System.nanoTime();
+            while (numPendingAcks > 0 && pendingAckEnds[pendingHead] <= bytesWritten) {
+                stats.recordAckWritten(pendingReceivedNanos[pendingHead], writtenNanos);
+                pendingHead = (pendingHead + 1) % pendingAckEnds.length;
+                numPendingAcks--;
+            }
+        }
+
+        private void addPendingAck(long receivedNanos, long ackEnd) {
+            if (numPendingAcks == pendingAckEnds.length) {
+                pendingReceivedNanos = unwrapPending(pendingReceivedNanos);
+                pendingAckEnds = unwrapPending(pendingAckEnds);
+                pendingHead = 0;
+            }
+            final int slot = (pendingHead + numPendingAcks) % pendingAckEnds.length;
+            pendingReceivedNanos[slot] = receivedNanos;
+            pendingAckEnds[slot] = ackEnd;
+            numPendingAcks++;
+        }
+
+        /**
+         * Copies a full ring into an array twice its size, oldest entry first.
+         */
+        private long[] unwrapPending(long[] ring) {
+            final long[] larger = new long[ring.length * 2];
+            final int headLength = ring.length - pendingHead;
+            System.arraycopy(ring, pendingHead, larger, 0, headLength);
+            System.arraycopy(ring, 0, larger, headLength, pendingHead);
+            return larger;
+        }
+
+        private void close() throws IOException {
+            stats.markClosed();
+            channel.close();
+        }
+    }
+
+}
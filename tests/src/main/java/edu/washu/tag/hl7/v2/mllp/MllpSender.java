@@ -0,0 +1,266 @@
+package edu.washu.tag.hl7.v2.mllp;
+
+import ca.uhn.hl7v2.HL7Exception;
+import ca.uhn.hl7v2.model.Message;
+import edu.washu.tag.hl7.v2.er7.Er7Fields;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Sends ER7 messages over a pool of persistent MLLP connections. Each connection may have up to {@code window}
+ * messages written but not yet acknowledged, so sends are pipelined rather than waiting a round trip per message.
+ * ACKs are matched to their messages by MSA-2, so a receiver may acknowledge out of order. All I/O happens on the
+ * calling thread through a single selector; connections are opened on first use and stay open until {@link #close()}.
+ */
+public class MllpSender implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InetSocketAddress address;
+    private int poolSize = 1;
+    private int window = 1;
+    private Duration ackTimeout = Duration.ofSeconds(30);
+    private Charset charset = StandardCharsets.UTF_8;
+    private Selector selector;
+    private final List<Connection> connections = new ArrayList<>();
+
+    public MllpSender(String host, int port) {
+        this(new InetSocketAddress(host, port));
+    }
+
+    public MllpSender(InetSocketAddress address) {
+        this.address = address;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public MllpSender setPoolSize(int poolSize) {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("poolSize must be positive: " + poolSize);
+        }
+        this.poolSize = poolSize;
+        return this;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public MllpSender setWindow(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be positive: " + window);
+        }
+        this.window = window;
+        return this;
+    }
+
+    public Duration getAckTimeout() {
+        return ackTimeout;
+    }
+
+    public MllpSender setAckTimeout(Duration ackTimeout) {
+        this.ackTimeout = ackTimeout;
+        return this;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public MllpSender setCharset(Charset charset) {
+        this.charset = charset;
+        return this;
+    }
+
+    public List<MllpAck> sendMessages(Stream<? extends Message> messages) {
+        return send(messages.map(MllpSender::encode).iterator());
+    }
+
+    public List<MllpAck> send(List<? extends CharSequence> messages) {
+        return send(messages.iterator());
+    }
+
+    public List<MllpAck> send(Iterator<? extends CharSequence> messages) {
+        final List<MllpAck> acks = new ArrayList<>();
+        send(messages, acks::add);
+        return acks;
+    }
+
+    /**
+     * Sends every message from {@code messages}, blocking until each has been acknowledged, and returns the number
+     * sent. ACKs are passed to {@code ackConsumer} in the order they arrive. Messages are pulled from the iterator
+     * only as window space frees up, so it may be lazily generated.
+     */
+    public long send(Iterator<? extends CharSequence> messages, Consumer<MllpAck> ackConsumer) {
+        try {
+            connect();
+            long numSent = 0;
+            long lastProgress = System.nanoTime();
+            while (true) {
+                numSent += fillWindows(messages);
+                if (!messages.hasNext() && connections.stream().allMatch(Connection::isIdle)) {
+                    return numSent;
+                }
+
+                if (selector.select(ackTimeout.toMillis()) > 0) {
+                    for (SelectionKey key : selector.selectedKeys()) {
+                        final Connection connection = (Connection) key.attachment();
+                        if (key.isWritable()) {
+                            connection.flush();
+                        }
+                        if (key.isReadable() && connection.read(ackConsumer) > 0) {
+                            lastProgress = System.nanoTime();
+                        }
+                    }
+                    selector.selectedKeys().clear();
+                }
+                if (System.nanoTime() - lastProgress > ackTimeout.toNanos()) {
+                    throw new SocketTimeoutException("No ACK received from " + address + " within " + ackTimeout);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Connection connection : connections) {
+            try {
+                connection.channel.close();
+            } catch (IOException ignored) {
+                // nothing useful to do while tearing down
+            }
+        }
+        connections.clear();
+        if (selector != null) {
+            try {
+                selector.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            selector = null;
+        }
+    }
+
+    private int fillWindows(Iterator<? extends CharSequence> messages) throws IOException {
+        int numQueued = 0;
+        boolean queuedThisPass = true;
+        while (queuedThisPass && messages.hasNext()) {
+            queuedThisPass = false;
+            for (Connection connection : connections) {
+                if (connection.inFlight.size() < window && messages.hasNext()) {
+                    connection.queue(messages.next());
+                    queuedThisPass = true;
+                    numQueued++;
+                }
+            }
+        }
+        for (Connection connection : connections) {
+            connection.flush();
+        }
+        return numQueued;
+    }
+
+    private void connect() throws IOException {
+        if (selector == null) {
+            selector = Selector.open();
+        }
+        while (connections.size() < poolSize) {
+            final SocketChannel channel = SocketChannel.open(address);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.configureBlocking(false);
+            final Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            connections.add(connection);
+        }
+    }
+
+    private static String encode(Message message) {
+        try {
+            return message.encode();
+        } catch (HL7Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private class Connection {
+        private final SocketChannel channel;
+        private final CharsetEncoder encoder = charset.newEncoder();
+        private final MllpFrameDecoder decoder = new MllpFrameDecoder(charset);
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final Map<String, Long> inFlight = new LinkedHashMap<>();
+        private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private SelectionKey key;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        private boolean isIdle() {
+            return inFlight.isEmpty();
+        }
+
+        private void queue(CharSequence message) {
+            final String controlId = Er7Fields.get(message, "MSH", 10);
+            if (controlId == null || controlId.isEmpty()) {
+                throw new IllegalArgumentException("Message has no MSH-10 to correlate its ACK with");
+            }
+            if (inFlight.putIfAbsent(controlId, System.nanoTime()) != null) {
+                throw new IllegalArgumentException("Message control ID " + controlId + " is already in flight");
+            }
+            writeBuffer = MllpFraming.frame(message, encoder, writeBuffer);
+        }
+
+        private void flush() throws IOException {
+            writeBuffer.flip();
+            channel.write(writeBuffer);
+            final boolean drained = !writeBuffer.hasRemaining();
+            writeBuffer.compact();
+            key.interestOps(drained ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+
+        private int read(Consumer<MllpAck> ackConsumer) throws IOException {
+            final int numRead = channel.read(readBuffer);
+            if (numRead < 0) {
+                throw new EOFException(address + " closed the connection with " + inFlight.size()
+                    + " messages unacknowledged");
+            }
+            readBuffer.flip();
+            final int numAcks = decoder.decode(readBuffer, ack -> ackConsumer.accept(correlate(ack)));
+            readBuffer.clear();
+            return numAcks;
+        }
+
+        private MllpAck correlate(String ack) {
+            final long received = System.nanoTime();
+            final String controlId = Er7Fields.get(ack, "MSA", 2);
+            final Long sent = controlId == null ? null : inFlight.remove(controlId);
+            if (sent == null) {
+                throw new IllegalStateException("Received ACK for unknown message control ID " + controlId);
+            }
+            return new MllpAck(controlId, Er7Fields.get(ack, "MSA", 1), received - sent);
+        }
+    }
+
+}
@@ -2,6 +2,8 @@ package edu.washu.tag.hl7.v2.model;
 
 import ca.uhn.hl7v2.model.DataTypeException;
 import ca.uhn.hl7v2.model.v281.datatype.CWE;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
+import java.util.Objects;
 
 public class CodedValue {
 
@@ -256,4 +258,120 @@ public class CodedValue {
         return emptyDataStore;
     }
 
+    public void toCwe(Er7SegmentWriter segment, int field, int repetition, int component) {
+        segment.setPiece(field, repetition, component, 1, identifier);
+        segment.setPiece(field, repetition, component, 2, text);
+        segment.setPiece(field, repetition, component, 3, nameOfCodingSystem);
+        segment.setPiece(field, repetition, component, 4, alternateIdentifier);
+        segment.setPiece(field, repetition, component, 5, alternateText);
+        segment.setPiece(field, repetition, component, 6, nameOfAlternateCodingSystem);
+        segment.setPiece(field, repetition, component, 7, codingSystemVersionId);
+        segment.setPiece(field, repetition, component, 8, alternateCodingSystemVersionId);
+        segment.setPiece(field, repetition, component, 9, originalText);
+        segment.setPiece(field, repetition, component, 10, secondAlternateIdentifier);
+        segment.setPiece(field, repetition, component, 11, secondAlternateText);
+        segment.setPiece(field, repetition, component, 12, nameOfSecondAlternateCodingSystem);
+        segment.setPiece(field, repetition, component, 13, secondAlternateCodingSystemVersionId);
+        segment.setPiece(field, repetition, component, 14, codingSystemOid);
+        segment.setPiece(field, repetition, component, 15, valueSetOid);
+        segment.setPiece(field, repetition, component, 16, valueSetVersionId);
+        segment.setPiece(field, repetition, component, 17, alternateCodingSystemOid);
+        segment.setPiece(field, repetition, component, 18, alternateValueSetOid);
+        segment.setPiece(field, repetition, component, 19, alternateValueSetVersionId);
+        segment.setPiece(field, repetition, component, 20, secondAlternateCodingSystemOid);
+        segment.setPiece(field, repetition, component, 21, secondAlternateValueSetOid);
+        segment.setPiece(field, repetition, component, 22, secondAlternateValueSetVersionId);
+    }
+
+    /**
+     * Returns a deep copy.
+     */
+    CodedValue copy() {
+        final CodedValue copy = new CodedValue();
+        copy.identifier = identifier;
+        copy.text = text;
+        copy.nameOfCodingSystem = nameOfCodingSystem;
+        copy.alternateIdentifier = alternateIdentifier;
+        copy.alternateText = alternateText;
+        copy.nameOfAlternateCodingSystem = nameOfAlternateCodingSystem;
+        copy.codingSystemVersionId = codingSystemVersionId;
+        copy.alternateCodingSystemVersionId = alternateCodingSystemVersionId;
+        copy.originalText = originalText;
+        copy.secondAlternateIdentifier = secondAlternateIdentifier;
+        copy.secondAlternateText = secondAlternateText;
+        copy.nameOfSecondAlternateCodingSystem = nameOfSecondAlternateCodingSystem;
+        copy.secondAlternateCodingSystemVersionId = secondAlternateCodingSystemVersionId;
+        copy.codingSystemOid = codingSystemOid;
+        copy.valueSetOid = valueSetOid;
+        copy.valueSetVersionId = valueSetVersionId;
+        copy.alternateCodingSystemOid = alternateCodingSystemOid;
+        copy.alternateValueSetOid = alternateValueSetOid;
+        copy.alternateValueSetVersionId = alternateValueSetVersionId;
+        copy.secondAlternateCodingSystemOid = secondAlternateCodingSystemOid;
+        copy.secondAlternateValueSetOid = secondAlternateValueSetOid;
+        copy.secondAlternateValueSetVersionId = secondAlternateValueSetVersionId;
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        final CodedValue codedValue = (CodedValue) other;
+        return Objects.equals(identifier, codedValue.identifier)
+            && Objects.equals(text, codedValue.text)
+            && Objects.equals(nameOfCodingSystem, codedValue.nameOfCodingSystem)
+            && Objects.equals(alternateIdentifier, codedValue.alternateIdentifier)
+            && Objects.equals(alternateText, codedValue.alternateText)
+            && Objects.equals(nameOfAlternateCodingSystem, codedValue.nameOfAlternateCodingSystem)
+            && Objects.equals(codingSystemVersionId, codedValue.codingSystemVersionId)
+            && Objects.equals(alternateCodingSystemVersionId, codedValue.alternateCodingSystemVersionId)
+            && Objects.equals(originalText, codedValue.originalText)
+            && Objects.equals(secondAlternateIdentifier, codedValue.secondAlternateIdentifier)
+            && Objects.equals(secondAlternateText, codedValue.secondAlternateText)
+            && Objects.equals(nameOfSecondAlternateCodingSystem, codedValue.nameOfSecondAlternateCodingSystem)
+            && Objects.equals(secondAlternateCodingSystemVersionId, codedValue.secondAlternateCodingSystemVersionId)
+            && Objects.equals(codingSystemOid, codedValue.codingSystemOid)
+            && Objects.equals(valueSetOid, codedValue.valueSetOid)
+            && Objects.equals(valueSetVersionId, codedValue.valueSetVersionId)
+            && Objects.equals(alternateCodingSystemOid, codedValue.alternateCodingSystemOid)
+            && Objects.equals(alternateValueSetOid, codedValue.alternateValueSetOid)
+            && Objects.equals(alternateValueSetVersionId, codedValue.alternateValueSetVersionId)
+            && Objects.equals(secondAlternateCodingSystemOid, codedValue.secondAlternateCodingSystemOid)
+            && Objects.equals(secondAlternateValueSetOid, codedValue.secondAlternateValueSetOid)
+            && Objects.equals(secondAlternateValueSetVersionId, codedValue.secondAlternateValueSetVersionId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+            identifier,
+            text,
+            nameOfCodingSystem,
+            alternateIdentifier,
+            alternateText,
+            nameOfAlternateCodingSystem,
+            codingSystemVersionId,
+            alternateCodingSystemVersionId,
+            originalText,
+            secondAlternateIdentifier,
+            secondAlternateText,
+            nameOfSecondAlternateCodingSystem,
+            secondAlternateCodingSystemVersionId,
+            codingSystemOid,
+            valueSetOid,
+            valueSetVersionId,
+            alternateCodingSystemOid,
+            alternateValueSetOid,
+            alternateValueSetVersionId,
+            secondAlternateCodingSystemOid,
+            secondAlternateValueSetOid,
+            secondAlternateValueSetVersionId
+        );
+    }
+
 }
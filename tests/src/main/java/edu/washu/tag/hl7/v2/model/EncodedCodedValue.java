@@ -0,0 +1,68 @@
+package edu.washu.tag.hl7.v2.model;
+
+import ca.uhn.hl7v2.model.DataTypeException;
+import ca.uhn.hl7v2.model.v281.datatype.CWE;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An interned {@link CodedValue} whose CWE encoding is built once, so writing it as a whole field to an
+ * {@link Er7SegmentWriter} appends the cached text. Like {@link EncodedPerson}, it keeps its own copy of the coded
+ * value and shares only the first {@value #MAX_INTERNED} distinct ones, which covers the fixed set of procedure codes
+ * the generators intern. The HAPI {@link #toCwe(CWE)} still sets every component.
+ */
+public final class EncodedCodedValue {
+
+    static final int MAX_INTERNED = 1024;
+    private static final ConcurrentMap<CodedValue, EncodedCodedValue> interned = new ConcurrentHashMap<>();
+
+    private final CodedValue codedValue;
+    private final String cwe;
+
+    private EncodedCodedValue(CodedValue codedValue, String cwe) {
+        this.codedValue = codedValue;
+        this.cwe = cwe;
+    }
+
+    /**
+     * Returns the shared instance for any coded value equal to {@code codedValue}, encoding it only the first time, or
+     * a new instance once the intern map is full.
+     */
+    public static EncodedCodedValue of(CodedValue codedValue) {
+        final EncodedCodedValue existing = interned.get(codedValue);
+        if (existing != null) {
+            return existing;
+        }
+        final CodedValue copy = codedValue.copy();
+        final EncodedCodedValue encodedCodedValue = new EncodedCodedValue(
+            copy,
+            Er7SegmentWriter.encodeField(segment -> copy.toCwe(segment, 1, 0, 0))
+        );
+        if (interned.size() >= MAX_INTERNED) {
+            return encodedCodedValue;
+        }
+        final EncodedCodedValue raced = interned.putIfAbsent(copy, encodedCodedValue);
+        return raced != null ? raced : encodedCodedValue;
+    }
+
+    /**
+     * Returns a copy of the coded value, so changing it cannot affect the cached encoding.
+     */
+    public CodedValue getCodedValue() {
+        return codedValue.copy();
+    }
+
+    public String getCwe() {
+        return cwe;
+    }
+
+    public CWE toCwe(CWE emptyDataStore) throws DataTypeException {
+        return codedValue.toCwe(emptyDataStore);
+    }
+
+    public void toCwe(Er7SegmentWriter segment, int field, int repetition) {
+        segment.setEncoded(field, repetition, cwe);
+    }
+
+}
@@ -0,0 +1,89 @@
+package edu.washu.tag.hl7.v2.model;
+
+import ca.uhn.hl7v2.model.DataTypeException;
+import ca.uhn.hl7v2.model.v281.datatype.XCN;
+import ca.uhn.hl7v2.model.v281.datatype.XPN;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An interned {@link Person} whose XCN and XPN encodings are built once, for people such as providers who appear on
+ * most messages. Writing one to an {@link Er7SegmentWriter} appends the cached text instead of setting every
+ * component. The person is copied when first encoded and {@link #getPerson()} returns copies, so the cached text
+ * cannot go stale. Only the first {@value #MAX_INTERNED} distinct people are shared; the generators intern a fixed
+ * handful of staff, and anything past the limit gets its own instance, so encoding arbitrary people cannot grow the
+ * intern map without bound.
+ * <p>
+ * The HAPI {@link #toXcn(XCN)} and {@link #toXpn(XPN)} still set every component. A HAPI datatype belongs to a single
+ * message, so there is no encoded form to share, and parsing the cached text into it would cost more than the setters.
+ */
+public final class EncodedPerson {
+
+    static final int MAX_INTERNED = 1024;
+    private static final ConcurrentMap<Person, EncodedPerson> interned = new ConcurrentHashMap<>();
+
+    private final Person person;
+    private final String xcn;
+    private final String xpn;
+
+    private EncodedPerson(Person person, String xcn, String xpn) {
+        this.person = person;
+        this.xcn = xcn;
+        this.xpn = xpn;
+    }
+
+    /**
+     * Returns the shared instance for any person equal to {@code person}, encoding it only the first time, or a new
+     * instance once the intern map is full.
+     */
+    public static EncodedPerson of(Person person) {
+        final EncodedPerson existing = interned.get(person);
+        if (existing != null) {
+            return existing;
+        }
+        final Person copy = person.copy();
+        final EncodedPerson encodedPerson = new EncodedPerson(
+            copy,
+            Er7SegmentWriter.encodeField(segment -> copy.toXcn(segment, 1, 0)),
+            Er7SegmentWriter.encodeField(segment -> copy.toXpn(segment, 1, 0))
+        );
+        if (interned.size() >= MAX_INTERNED) {
+            return encodedPerson;
+        }
+        final EncodedPerson raced = interned.putIfAbsent(copy, encodedPerson);
+        return raced != null ? raced : encodedPerson;
+    }
+
+    /**
+     * Returns a copy of the person, so changing it cannot affect the cached encodings.
+     */
+    public Person getPerson() {
+        return person.copy();
+    }
+
+    public String getXcn() {
+        return xcn;
+    }
+
+    public String getXpn() {
+        return xpn;
+    }
+
+    public XCN toXcn(XCN emptyDataStore) throws DataTypeException {
+        return person.toXcn(emptyDataStore);
+    }
+
+    public XPN toXpn(XPN emptyDataStore) throws DataTypeException {
+        return person.toXpn(emptyDataStore);
+    }
+
+    public void toXcn(Er7SegmentWriter segment, int field, int repetition) {
+        segment.setEncoded(field, repetition, xcn);
+    }
+
+    public void toXpn(Er7SegmentWriter segment, int field, int repetition) {
+        segment.setEncoded(field, repetition, xpn);
+    }
+
+}
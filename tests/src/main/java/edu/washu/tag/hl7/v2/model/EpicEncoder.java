@@ -1,20 +1,24 @@
 package edu.washu.tag.hl7.v2.model;
 
-import ca.uhn.hl7v2.model.DataTypeException;
-import ca.uhn.hl7v2.model.v281.datatype.CX;
+import edu.washu.tag.hl7.v2.id.IdNamespace;
 
 public class EpicEncoder implements PatientIdEncoder {
 
     private static final HierarchicDesignator assigningAuthority = HierarchicDesignator.simple("EPIC");
 
     @Override
-    public CX generateAndEncodeId(CX emptyDataStore) throws DataTypeException {
-        return defaultEncoding(emptyDataStore, "MRN");
+    public HierarchicDesignator getAssigningAuthority() {
+        return assigningAuthority;
     }
 
     @Override
-    public HierarchicDesignator getAssigningAuthority() {
-        return assigningAuthority;
+    public String getIdentifierTypeCode() {
+        return "MRN";
+    }
+
+    @Override
+    public IdNamespace getIdNamespace() {
+        return IdNamespace.EPIC_MRN;
     }
 
 }
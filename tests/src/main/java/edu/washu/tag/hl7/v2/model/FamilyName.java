@@ -2,6 +2,8 @@ package edu.washu.tag.hl7.v2.model;
 
 import ca.uhn.hl7v2.model.DataTypeException;
 import ca.uhn.hl7v2.model.v281.datatype.FN;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
+import java.util.Objects;
 
 public class FamilyName {
 
@@ -60,4 +62,52 @@ public class FamilyName {
         return emptyDataStore;
     }
 
+    void toFn(Er7SegmentWriter segment, int field, int repetition, int component) {
+        segment.setPiece(field, repetition, component, 1, surname);
+        segment.setPiece(field, repetition, component, 2, ownSurnamePrefix);
+        segment.setPiece(field, repetition, component, 3, ownSurname);
+        segment.setPiece(field, repetition, component, 4, surnamePrefixFromPartnerOrSpouse);
+        segment.setPiece(field, repetition, component, 5, surnameFromPartnerOrSpouse);
+    }
+
+    /**
+     * Returns a deep copy.
+     */
+    FamilyName copy() {
+        final FamilyName copy = new FamilyName();
+        copy.surname = surname;
+        copy.ownSurnamePrefix = ownSurnamePrefix;
+        copy.ownSurname = ownSurname;
+        copy.surnamePrefixFromPartnerOrSpouse = surnamePrefixFromPartnerOrSpouse;
+        copy.surnameFromPartnerOrSpouse = surnameFromPartnerOrSpouse;
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        final FamilyName familyName = (FamilyName) other;
+        return Objects.equals(surname, familyName.surname)
+            && Objects.equals(ownSurnamePrefix, familyName.ownSurnamePrefix)
+            && Objects.equals(ownSurname, familyName.ownSurname)
+            && Objects.equals(surnamePrefixFromPartnerOrSpouse, familyName.surnamePrefixFromPartnerOrSpouse)
+            && Objects.equals(surnameFromPartnerOrSpouse, familyName.surnameFromPartnerOrSpouse);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+            surname,
+            ownSurnamePrefix,
+            ownSurname,
+            surnamePrefixFromPartnerOrSpouse,
+            surnameFromPartnerOrSpouse
+        );
+    }
+
 }
@@ -2,6 +2,8 @@ package edu.washu.tag.hl7.v2.model;
 
 import ca.uhn.hl7v2.model.DataTypeException;
 import ca.uhn.hl7v2.model.v281.datatype.HD;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
+import java.util.Objects;
 
 public class HierarchicDesignator {
 
@@ -45,8 +47,44 @@ public class HierarchicDesignator {
         return emptyDataStore;
     }
 
+    public void toHd(Er7SegmentWriter segment, int field, int repetition, int component) {
+        segment.setPiece(field, repetition, component, 1, namespaceId);
+        segment.setPiece(field, repetition, component, 2, universalId);
+        segment.setPiece(field, repetition, component, 3, universalIdType);
+    }
+
     public static HierarchicDesignator simple(String id) {
         return new HierarchicDesignator().withNamespaceId(id);
     }
 
+    /**
+     * Returns a deep copy.
+     */
+    HierarchicDesignator copy() {
+        final HierarchicDesignator copy = new HierarchicDesignator();
+        copy.namespaceId = namespaceId;
+        copy.universalId = universalId;
+        copy.universalIdType = universalIdType;
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        final HierarchicDesignator hierarchicDesignator = (HierarchicDesignator) other;
+        return Objects.equals(namespaceId, hierarchicDesignator.namespaceId)
+            && Objects.equals(universalId, hierarchicDesignator.universalId)
+            && Objects.equals(universalIdType, hierarchicDesignator.universalIdType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(namespaceId, universalId, universalIdType);
+    }
+
 }
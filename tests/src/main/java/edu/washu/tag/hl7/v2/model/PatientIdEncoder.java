@@ -2,20 +2,47 @@ package edu.washu.tag.hl7.v2.model;
 
 import ca.uhn.hl7v2.model.DataTypeException;
 import ca.uhn.hl7v2.model.v281.datatype.CX;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
+import edu.washu.tag.hl7.v2.id.IdAllocators;
+import edu.washu.tag.hl7.v2.id.IdNamespace;
 import edu.washu.tag.util.RandomGenUtils;
+import java.util.random.RandomGenerator;
 
 public interface PatientIdEncoder {
 
-    CX generateAndEncodeId(CX emptyDataStore) throws DataTypeException;
-
     HierarchicDesignator getAssigningAuthority();
 
-    default CX defaultEncoding(CX emptyDataStore, String identifierTypeCode) throws DataTypeException {
-        final String assigner = getAssigningAuthority().getNamespaceId();
-        emptyDataStore.getCx1_IDNumber().setValue(assigner + RandomGenUtils.randomId());
+    String getIdentifierTypeCode();
+
+    IdNamespace getIdNamespace();
+
+    default String generateId(RandomGenerator random) {
+        return formatId(RandomGenUtils.randomId(random));
+    }
+
+    default String allocateId(IdAllocators idAllocators) {
+        return getAssigningAuthority().getNamespaceId() + idAllocators.nextId(getIdNamespace());
+    }
+
+    default String formatId(long number) {
+        return getAssigningAuthority().getNamespaceId() + number;
+    }
+
+    default CX generateAndEncodeId(CX emptyDataStore, RandomGenerator random) throws DataTypeException {
+        return encodeId(emptyDataStore, generateId(random));
+    }
+
+    default CX encodeId(CX emptyDataStore, String id) throws DataTypeException {
+        emptyDataStore.getCx1_IDNumber().setValue(id);
         getAssigningAuthority().toHd(emptyDataStore.getCx4_AssigningAuthority());
-        emptyDataStore.getCx5_IdentifierTypeCode().setValue(identifierTypeCode);
+        emptyDataStore.getCx5_IdentifierTypeCode().setValue(getIdentifierTypeCode());
         return emptyDataStore;
     }
 
+    default void encodeId(Er7SegmentWriter segment, int field, int repetition, String id) {
+        segment.set(field, repetition, 1, 1, id);
+        getAssigningAuthority().toHd(segment, field, repetition, 4);
+        segment.set(field, repetition, 5, 1, getIdentifierTypeCode());
+    }
+
 }
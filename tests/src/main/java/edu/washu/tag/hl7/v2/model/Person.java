@@ -3,6 +3,8 @@ package edu.washu.tag.hl7.v2.model;
 import ca.uhn.hl7v2.model.DataTypeException;
 import ca.uhn.hl7v2.model.v281.datatype.XCN;
 import ca.uhn.hl7v2.model.v281.datatype.XPN;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
+import java.util.Objects;
 
 public class Person {
 
@@ -343,4 +345,173 @@ public class Person {
         return emptyDataStore;
     }
 
+    public void toXpn(Er7SegmentWriter segment, int field, int repetition) {
+        if (familyName != null) {
+            familyName.toFn(segment, field, repetition, 1);
+        }
+        segment.set(field, repetition, 2, 1, givenName);
+        segment.set(field, repetition, 3, 1, secondNameEtc);
+        segment.set(field, repetition, 4, 1, suffix);
+        segment.set(field, repetition, 5, 1, prefix);
+        segment.set(field, repetition, 6, 1, degree);
+        segment.set(field, repetition, 7, 1, nameTypeCode);
+        segment.set(field, repetition, 8, 1, nameRepresentationCode);
+        if (nameContext != null) {
+            nameContext.toCwe(segment, field, repetition, 9);
+        }
+        segment.set(field, repetition, 10, 1, nameValidityRange);
+        segment.set(field, repetition, 11, 1, nameAssemblyOrder);
+        segment.set(field, repetition, 12, 1, effectiveDate);
+        segment.set(field, repetition, 13, 1, expirationDate);
+        segment.set(field, repetition, 14, 1, professionalSuffix);
+        segment.set(field, repetition, 15, 1, calledBy);
+    }
+
+    public void toXcn(Er7SegmentWriter segment, int field, int repetition) {
+        segment.set(field, repetition, 1, 1, personIdentifier);
+        if (familyName != null) {
+            familyName.toFn(segment, field, repetition, 2);
+        }
+        segment.set(field, repetition, 3, 1, givenName);
+        segment.set(field, repetition, 4, 1, secondNameEtc);
+        segment.set(field, repetition, 5, 1, suffix);
+        segment.set(field, repetition, 6, 1, prefix);
+        segment.set(field, repetition, 7, 1, degree);
+        if (sourceTable != null) {
+            sourceTable.toCwe(segment, field, repetition, 8);
+        }
+        if (assigningAuthority != null) {
+            assigningAuthority.toHd(segment, field, repetition, 9);
+        }
+        segment.set(field, repetition, 10, 1, nameTypeCode);
+        segment.set(field, repetition, 11, 1, identifierCheckDigit);
+        segment.set(field, repetition, 12, 1, checkDigitScheme);
+        segment.set(field, repetition, 13, 1, identifierTypeCode);
+        if (assigningFacility != null) {
+            assigningFacility.toHd(segment, field, repetition, 14);
+        }
+        segment.set(field, repetition, 15, 1, nameRepresentationCode);
+        if (nameContext != null) {
+            nameContext.toCwe(segment, field, repetition, 16);
+        }
+        segment.set(field, repetition, 17, 1, nameValidityRange);
+        segment.set(field, repetition, 18, 1, nameAssemblyOrder);
+        segment.set(field, repetition, 19, 1, effectiveDate);
+        segment.set(field, repetition, 20, 1, expirationDate);
+        segment.set(field, repetition, 21, 1, professionalSuffix);
+        if (assigningJurisdiction != null) {
+            assigningJurisdiction.toCwe(segment, field, repetition, 22);
+        }
+        if (assigningAgencyOrDepartment != null) {
+            assigningAgencyOrDepartment.toCwe(segment, field, repetition, 23);
+        }
+        segment.set(field, repetition, 24, 1, securityCheck);
+        segment.set(field, repetition, 25, 1, securityCheckScheme);
+    }
+
+    /**
+     * Returns a deep copy.
+     */
+    Person copy() {
+        final Person copy = new Person();
+        copy.familyName = familyName == null ? null : familyName.copy();
+        copy.givenName = givenName;
+        copy.secondNameEtc = secondNameEtc;
+        copy.suffix = suffix;
+        copy.prefix = prefix;
+        copy.degree = degree;
+        copy.nameTypeCode = nameTypeCode;
+        copy.nameRepresentationCode = nameRepresentationCode;
+        copy.nameContext = nameContext == null ? null : nameContext.copy();
+        copy.nameValidityRange = nameValidityRange;
+        copy.nameAssemblyOrder = nameAssemblyOrder;
+        copy.effectiveDate = effectiveDate;
+        copy.expirationDate = expirationDate;
+        copy.professionalSuffix = professionalSuffix;
+        copy.calledBy = calledBy;
+        copy.personIdentifier = personIdentifier;
+        copy.sourceTable = sourceTable == null ? null : sourceTable.copy();
+        copy.assigningAuthority = assigningAuthority == null ? null : assigningAuthority.copy();
+        copy.identifierCheckDigit = identifierCheckDigit;
+        copy.checkDigitScheme = checkDigitScheme;
+        copy.identifierTypeCode = identifierTypeCode;
+        copy.assigningFacility = assigningFacility == null ? null : assigningFacility.copy();
+        copy.assigningJurisdiction = assigningJurisdiction == null ? null : assigningJurisdiction.copy();
+        copy.assigningAgencyOrDepartment = assigningAgencyOrDepartment == null
+            ? null
+            : assigningAgencyOrDepartment.copy();
+        copy.securityCheck = securityCheck;
+        copy.securityCheckScheme = securityCheckScheme;
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        final Person person = (Person) other;
+        return Objects.equals(familyName, person.familyName)
+            && Objects.equals(givenName, person.givenName)
+            && Objects.equals(secondNameEtc, person.secondNameEtc)
+            && Objects.equals(suffix, person.suffix)
+            && Objects.equals(prefix, person.prefix)
+            && Objects.equals(degree, person.degree)
+            && Objects.equals(nameTypeCode, person.nameTypeCode)
+            && Objects.equals(nameRepresentationCode, person.nameRepresentationCode)
+            && Objects.equals(nameContext, person.nameContext)
+            && Objects.equals(nameValidityRange, person.nameValidityRange)
+            && Objects.equals(nameAssemblyOrder, person.nameAssemblyOrder)
+            && Objects.equals(effectiveDate, person.effectiveDate)
+            && Objects.equals(expirationDate, person.expirationDate)
+            && Objects.equals(professionalSuffix, person.professionalSuffix)
+            && Objects.equals(calledBy, person.calledBy)
+            && Objects.equals(personIdentifier, person.personIdentifier)
+            && Objects.equals(sourceTable, person.sourceTable)
+            && Objects.equals(assigningAuthority, person.assigningAuthority)
+            && Objects.equals(identifierCheckDigit, person.identifierCheckDigit)
+            && Objects.equals(checkDigitScheme, person.checkDigitScheme)
+            && Objects.equals(identifierTypeCode, person.identifierTypeCode)
+            && Objects.equals(assigningFacility, person.assigningFacility)
+            && Objects.equals(assigningJurisdiction, person.assigningJurisdiction)
+            && Objects.equals(assigningAgencyOrDepartment, person.assigningAgencyOrDepartment)
+            && Objects.equals(securityCheck, person.securityCheck)
+            && Objects.equals(securityCheckScheme, person.securityCheckScheme);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+            familyName,
+            givenName,
+            secondNameEtc,
+            suffix,
+            prefix,
+            degree,
+            nameTypeCode,
+            nameRepresentationCode,
+            nameContext,
+            nameValidityRange,
+            nameAssemblyOrder,
+            effectiveDate,
+            expirationDate,
+            professionalSuffix,
+            calledBy,
+            personIdentifier,
+            sourceTable,
+            assigningAuthority,
+            identifierCheckDigit,
+            checkDigitScheme,
+            identifierTypeCode,
+            assigningFacility,
+            assigningJurisdiction,
+            assigningAgencyOrDepartment,
+            securityCheck,
+            securityCheckScheme
+        );
+    }
+
 }
@@ -0,0 +1,37 @@
+package edu.washu.tag.hl7.v2.population;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The demographics written to PID for one patient. {@code patientIds} holds one identifier per configured
+ * {@link edu.washu.tag.hl7.v2.model.PatientIdEncoder}, or is null when identifiers are drawn per message.
+ */
+public record Patient(
+    String familyName,
+    String givenName,
+    String middleInitial,
+    String sex,
+    LocalDate dateOfBirth,
+    String race,
+    String ethnicGroup,
+    String streetAddress,
+    String city,
+    String state,
+    String zipCode,
+    String county,
+    String phoneNumber,
+    String maritalStatus,
+    String ssn,
+    List<String> patientIds
+) {
+
+    /**
+     * The single fixed patient used when no {@link PatientPopulation} is configured.
+     */
+    public static final Patient DEFAULT = new Patient(
+        "SMITH", "JOHN", "J", "M", null, "WHITE", "CAU", "123 STREET", "CITY CITY", "MO", "61111", "COUNTY",
+        "(555)555-5555", "S", "111-11-1111", null
+    );
+
+}
@@ -0,0 +1,158 @@
+package edu.washu.tag.hl7.v2.population;
+
+import static edu.washu.tag.hl7.v2.population.PopulationTables.AGE_DECADE_WEIGHTS;
+import static edu.washu.tag.hl7.v2.population.PopulationTables.FAMILY_NAMES;
+import static edu.washu.tag.hl7.v2.population.PopulationTables.FEMALE_GIVEN_NAMES;
+import static edu.washu.tag.hl7.v2.population.PopulationTables.MALE_GIVEN_NAMES;
+import static edu.washu.tag.hl7.v2.population.PopulationTables.MARITAL_STATUSES;
+import static edu.washu.tag.hl7.v2.population.PopulationTables.PLACES;
+import static edu.washu.tag.hl7.v2.population.PopulationTables.PLACE_WEIGHTS;
+import static edu.washu.tag.hl7.v2.population.PopulationTables.RACES;
+import static edu.washu.tag.hl7.v2.population.PopulationTables.RACE_WEIGHTS;
+import static edu.washu.tag.hl7.v2.population.PopulationTables.STREET_NAMES;
+
+import edu.washu.tag.hl7.v2.model.PatientIdEncoder;
+import edu.washu.tag.util.RandomSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * A fixed pool of distinct synthetic patients, generated once from a seed and stored column-wise as small table
+ * indices (about 16 bytes per patient), so pools of millions stay cheap to hold. Patients are materialized into
+ * {@link Patient} records only when drawn. Draws follow a Zipf distribution over the pool, so a few patients account
+ * for many reports while most appear once or twice, as in production traffic. Identifiers, phone numbers and SSNs are
+ * derived from the patient's index rather than stored; identifiers and SSNs are unique within the pool.
+ */
+public class PatientPopulation {
+
+    public static final double DEFAULT_REVISIT_EXPONENT = 1.1;
+    private static final LocalDate REFERENCE_DATE = LocalDate.of(2024, 1, 1);
+    private static final int ADULT_AGE_DAYS = 18 * 365;
+    private static final long PATIENT_NUMBER_SPACE = 99_999_999L;
+    private static final long SSN_SPACE = 665L * 99 * 9_999; // areas 001-665, groups 01-99, serials 0001-9999
+    private static final long SCRAMBLE_MULTIPLIER = 73_939_133L; // coprime to both spaces, so scrambling is a bijection
+
+    private final long seed;
+    private final ZipfSampler revisitSampler;
+    private final short[] familyNames;
+    private final short[] givenNames;
+    private final byte[] middleInitials;
+    private final boolean[] male;
+    private final int[] birthEpochDays;
+    private final short[] streetNumbers;
+    private final byte[] streetNames;
+    private final byte[] places;
+    private final byte[] races;
+    private final byte[] maritalStatuses;
+
+    private PatientPopulation(int size, long seed, double revisitExponent) {
+        if (size > PATIENT_NUMBER_SPACE) {
+            throw new IllegalArgumentException("Population size " + size + " exceeds " + PATIENT_NUMBER_SPACE);
+        }
+        this.seed = seed;
+        revisitSampler = new ZipfSampler(size, revisitExponent);
+        familyNames = new short[size];
+        givenNames = new short[size];
+        middleInitials = new byte[size];
+        male = new boolean[size];
+        birthEpochDays = new int[size];
+        streetNumbers = new short[size];
+        streetNames = new byte[size];
+        places = new byte[size];
+        races = new byte[size];
+        maritalStatuses = new byte[size];
+
+        final SplittableRandom random = new SplittableRandom(seed);
+        final long referenceEpochDay = REFERENCE_DATE.toEpochDay();
+        for (int i = 0; i < size; i++) {
+            male[i] = random.nextBoolean();
+            familyNames[i] = (short) FAMILY_NAMES.sampleIndex(random);
+            givenNames[i] = (short) (male[i] ? MALE_GIVEN_NAMES : FEMALE_GIVEN_NAMES).sampleIndex(random);
+            middleInitials[i] = (byte) random.nextInt(26);
+            final int ageDays = AGE_DECADE_WEIGHTS.sampleIndex(random) * 3652 + random.nextInt(3652);
+            birthEpochDays[i] = (int) (referenceEpochDay - ageDays);
+            streetNumbers[i] = (short) random.nextInt(1, Short.MAX_VALUE);
+            streetNames[i] = (byte) random.nextInt(STREET_NAMES.length);
+            places[i] = (byte) PLACE_WEIGHTS.sampleIndex(random);
+            races[i] = (byte) RACE_WEIGHTS.sampleIndex(random);
+            maritalStatuses[i] = ageDays < ADULT_AGE_DAYS ? 0 : (byte) random.nextInt(MARITAL_STATUSES.length); // minors are S
+        }
+    }
+
+    public static PatientPopulation generate(int size, long seed) {
+        return generate(size, seed, DEFAULT_REVISIT_EXPONENT);
+    }
+
+    /**
+     * @param revisitExponent the Zipf exponent of {@link #sample(RandomGenerator)}; larger values concentrate more
+     *                        reports on the most frequent patients
+     */
+    public static PatientPopulation generate(int size, long seed, double revisitExponent) {
+        return new PatientPopulation(size, seed, revisitExponent);
+    }
+
+    public int size() {
+        return familyNames.length;
+    }
+
+    /**
+     * Draws the index of the patient a report is for.
+     */
+    public int sample(RandomGenerator random) {
+        return revisitSampler.sample(random) - 1;
+    }
+
+    public Patient getPatient(int index, List<PatientIdEncoder> patientIdEncoders) {
+        final String[] place = PLACES[places[index]];
+        final String[] race = RACES[races[index]];
+        final List<String> patientIds = new ArrayList<>(patientIdEncoders.size());
+        for (int i = 0; i < patientIdEncoders.size(); i++) {
+            patientIds.add(patientIdEncoders.get(i).formatId(patientNumber(index, i)));
+        }
+        return new Patient(
+            FAMILY_NAMES.get(familyNames[index]),
+            (male[index] ? MALE_GIVEN_NAMES : FEMALE_GIVEN_NAMES).get(givenNames[index]),
+            String.valueOf((char) ('A' + middleInitials[index])),
+            male[index] ? "M" : "F",
+            LocalDate.ofEpochDay(birthEpochDays[index]),
+            race[0],
+            race[1],
+            streetNumbers[index] + " " + STREET_NAMES[streetNames[index]],
+            place[0],
+            place[1],
+            place[2],
+            place[3],
+            phoneNumber(index, place[4]),
+            MARITAL_STATUSES[maritalStatuses[index]],
+            ssn(index),
+            patientIds
+        );
+    }
+
+    /**
+     * The patient's number under the {@code idIndex}-th identifier scheme, in [1, 10^8). Each scheme is a different
+     * permutation of the pool, so identifiers are unique per scheme and unrelated across schemes.
+     */
+    public long patientNumber(int index, int idIndex) {
+        return 1 + scramble(index, seed + idIndex, PATIENT_NUMBER_SPACE);
+    }
+
+    private String phoneNumber(int index, String areaCode) {
+        final long digits = Math.floorMod(RandomSource.mix(seed ^ 0x70686F6E65L ^ index), 10_000_000L);
+        return String.format("(%s)%03d-%04d", areaCode, 200 + digits / 10_000 % 800, digits % 10_000);
+    }
+
+    private String ssn(int index) {
+        final long number = scramble(index, ~seed, SSN_SPACE);
+        return String.format("%03d-%02d-%04d", 1 + number / (99 * 9_999), 1 + number / 9_999 % 99, 1 + number % 9_999);
+    }
+
+    private static long scramble(int index, long key, long space) {
+        final long offset = Math.floorMod(RandomSource.mix(key), space);
+        return Math.floorMod(index * SCRAMBLE_MULTIPLIER + offset, space);
+    }
+
+}
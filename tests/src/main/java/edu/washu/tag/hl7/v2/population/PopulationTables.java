@@ -0,0 +1,132 @@
+package edu.washu.tag.hl7.v2.population;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Value tables and weights behind {@link PatientPopulation}. Name weights are rough US census frequencies; places
+ * are weighted toward the St. Louis area the main hospital serves.
+ */
+final class PopulationTables {
+
+    static final WeightedTable FAMILY_NAMES = new WeightedTable(
+        new String[]{"SMITH", "JOHNSON", "WILLIAMS", "BROWN", "JONES", "GARCIA", "MILLER", "DAVIS", "RODRIGUEZ",
+            "MARTINEZ", "HERNANDEZ", "LOPEZ", "GONZALEZ", "WILSON", "ANDERSON", "THOMAS", "TAYLOR", "MOORE",
+            "JACKSON", "MARTIN", "LEE", "PEREZ", "THOMPSON", "WHITE", "HARRIS", "SANCHEZ", "CLARK", "RAMIREZ",
+            "LEWIS", "ROBINSON", "WALKER", "YOUNG", "ALLEN", "KING", "WRIGHT", "SCOTT", "TORRES", "NGUYEN", "HILL",
+            "FLORES", "GREEN", "ADAMS", "NELSON", "BAKER", "HALL", "RIVERA", "CAMPBELL", "MITCHELL", "CARTER",
+            "ROBERTS"},
+        new int[]{828, 655, 551, 487, 483, 468, 424, 394, 380, 367, 362, 301, 285, 282, 281, 273, 271, 247, 246, 246,
+            239, 222, 220, 219, 212, 209, 191, 190, 184, 183, 179, 169, 165, 164, 164, 155, 153, 151, 150, 149, 148,
+            145, 144, 143, 140, 136, 134, 133, 131, 130}
+    );
+
+    static final WeightedTable MALE_GIVEN_NAMES = new WeightedTable(
+        new String[]{"JAMES", "JOHN", "ROBERT", "MICHAEL", "WILLIAM", "DAVID", "RICHARD", "JOSEPH", "THOMAS",
+            "CHARLES", "CHRISTOPHER", "DANIEL", "MATTHEW", "ANTHONY", "MARK", "DONALD", "STEVEN", "PAUL", "ANDREW",
+            "JOSHUA", "KENNETH", "KEVIN", "BRIAN", "GEORGE", "TIMOTHY"},
+        new int[]{3318, 3271, 3143, 2560, 2454, 2428, 1703, 1570, 1464, 1439, 1434, 1406, 1157, 1025, 1021, 996,
+            990, 981, 878, 858, 837, 830, 827, 825, 799}
+    );
+
+    static final WeightedTable FEMALE_GIVEN_NAMES = new WeightedTable(
+        new String[]{"MARY", "PATRICIA", "JENNIFER", "LINDA", "ELIZABETH", "BARBARA", "SUSAN", "JESSICA", "SARAH",
+            "KAREN", "LISA", "NANCY", "BETTY", "MARGARET", "SANDRA", "ASHLEY", "KIMBERLY", "EMILY", "DONNA",
+            "MICHELLE", "CAROL", "AMANDA", "DOROTHY", "MELISSA", "DEBORAH"},
+        new int[]{3188, 1574, 1470, 1447, 1436, 1393, 1111, 1047, 995, 988, 963, 943, 937, 940, 875, 852, 837, 829,
+            825, 817, 815, 776, 770, 754, 740}
+    );
+
+    static final String[] STREET_NAMES = {"MAIN ST", "OAK ST", "PINE ST", "MAPLE AVE", "CEDAR ST", "ELM ST",
+        "WASHINGTON AVE", "LAKE ST", "HILL ST", "PARK AVE", "LINCOLN AVE", "FOREST AVE", "GRAND BLVD",
+        "KINGSHIGHWAY BLVD", "LINDELL BLVD", "DELMAR BLVD", "OLIVE ST", "LOCUST ST", "CHESTNUT ST", "MARKET ST",
+        "CLAYTON RD", "MANCHESTER RD", "GRAVOIS AVE", "FLORISSANT RD", "BIG BEND BLVD", "HAMPTON AVE",
+        "JEFFERSON AVE", "ARSENAL ST", "CHOUTEAU AVE", "NATURAL BRIDGE AVE"};
+
+    /**
+     * City, state, ZIP code, county and area code for each place.
+     */
+    static final String[][] PLACES = {
+        {"ST LOUIS", "MO", "63110", "ST LOUIS CITY", "314"},
+        {"FLORISSANT", "MO", "63031", "ST LOUIS", "314"},
+        {"CHESTERFIELD", "MO", "63017", "ST LOUIS", "636"},
+        {"KIRKWOOD", "MO", "63122", "ST LOUIS", "314"},
+        {"BALLWIN", "MO", "63011", "ST LOUIS", "636"},
+        {"WEBSTER GROVES", "MO", "63119", "ST LOUIS", "314"},
+        {"ST CHARLES", "MO", "63301", "ST CHARLES", "636"},
+        {"O FALLON", "MO", "63366", "ST CHARLES", "636"},
+        {"ARNOLD", "MO", "63010", "JEFFERSON", "636"},
+        {"WASHINGTON", "MO", "63090", "FRANKLIN", "636"},
+        {"BELLEVILLE", "IL", "62220", "ST CLAIR", "618"},
+        {"EDWARDSVILLE", "IL", "62025", "MADISON", "618"},
+        {"ALTON", "IL", "62002", "MADISON", "618"},
+        {"COLUMBIA", "MO", "65201", "BOONE", "573"},
+        {"JEFFERSON CITY", "MO", "65101", "COLE", "573"},
+        {"ROLLA", "MO", "65401", "PHELPS", "573"},
+        {"CAPE GIRARDEAU", "MO", "63701", "CAPE GIRARDEAU", "573"},
+        {"SPRINGFIELD", "MO", "65802", "GREENE", "417"},
+        {"KANSAS CITY", "MO", "64108", "JACKSON", "816"}
+    };
+    static final WeightedTable PLACE_WEIGHTS = WeightedTable.ofWeights(
+        30, 8, 7, 6, 6, 5, 7, 6, 5, 3, 5, 4, 3, 2, 1, 1, 1, 1, 1
+    );
+
+    /**
+     * Race (HL7 table 0005 text as used by the hospital) paired with its ethnic group code.
+     */
+    static final String[][] RACES = {{"WHITE", "CAU"}, {"BLACK", "AFA"}, {"ASIAN", "ASN"}, {"OTHER", "OTH"}};
+    static final WeightedTable RACE_WEIGHTS = WeightedTable.ofWeights(70, 22, 4, 4);
+
+    static final String[] MARITAL_STATUSES = {"S", "M", "D", "W"};
+
+    /**
+     * Relative frequency of each age decade (0-9, 10-19, ... 90-99) among imaged patients, which skews old.
+     */
+    static final WeightedTable AGE_DECADE_WEIGHTS = WeightedTable.ofWeights(4, 5, 8, 10, 12, 16, 18, 16, 9, 2);
+
+    private PopulationTables() {
+
+    }
+
+    static final class WeightedTable {
+        private final String[] values;
+        private final int[] cumulativeWeights;
+
+        private WeightedTable(String[] values, int[] weights) {
+            this.values = values;
+            cumulativeWeights = new int[weights.length];
+            int total = 0;
+            for (int i = 0; i < weights.length; i++) {
+                total += weights[i];
+                cumulativeWeights[i] = total;
+            }
+        }
+
+        static WeightedTable ofWeights(int... weights) {
+            return new WeightedTable(null, weights);
+        }
+
+        int size() {
+            return cumulativeWeights.length;
+        }
+
+        String get(int index) {
+            return values[index];
+        }
+
+        int sampleIndex(RandomGenerator random) {
+            final int target = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            int low = 0;
+            int high = cumulativeWeights.length - 1;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (cumulativeWeights[middle] > target) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package edu.washu.tag.hl7.v2.population;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Samples ranks 1..n with probability proportional to {@code 1 / rank^exponent} in constant time and memory, using
+ * Hormann and Derflinger's rejection-inversion method ("Rejection-inversion to generate variates from monotone
+ * discrete distributions", 1996). Suitable for populations far too large for a cumulative table.
+ */
+public class ZipfSampler {
+
+    private final int numberOfElements;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralNumberOfElements;
+    private final double s;
+
+    public ZipfSampler(int numberOfElements, double exponent) {
+        if (numberOfElements < 1) {
+            throw new IllegalArgumentException("numberOfElements must be positive: " + numberOfElements);
+        }
+        if (exponent <= 0) {
+            throw new IllegalArgumentException("exponent must be positive: " + exponent);
+        }
+        this.numberOfElements = numberOfElements;
+        this.exponent = exponent;
+        hIntegralX1 = hIntegral(1.5) - 1;
+        hIntegralNumberOfElements = hIntegral(numberOfElements + 0.5);
+        s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    public int getNumberOfElements() {
+        return numberOfElements;
+    }
+
+    public double getExponent() {
+        return exponent;
+    }
+
+    /**
+     * Returns a rank in [1, numberOfElements], rank 1 being the most likely.
+     */
+    public int sample(RandomGenerator random) {
+        while (true) {
+            final double u = hIntegralNumberOfElements + random.nextDouble() * (hIntegralX1 - hIntegralNumberOfElements);
+            final double x = hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > numberOfElements) {
+                k = numberOfElements;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    private double hIntegral(double x) {
+        final double logX = Math.log(x);
+        return helper2((1 - exponent) * logX) * logX;
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = x * (1 - exponent);
+        if (t < -1) {
+            t = -1; // limit rounding errors near the lower bound
+        }
+        return Math.exp(helper1(t) * x);
+    }
+
+    /**
+     * {@code log1p(x) / x}, continuous at 0.
+     */
+    private static double helper1(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+
+    /**
+     * {@code expm1(x) / x}, continuous at 0.
+     */
+    private static double helper2(double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+
+}
@@ -0,0 +1,136 @@
+package edu.washu.tag.hl7.v2.report;
+
+import edu.washu.tag.util.FileIOUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Report text parsed once into alternating literal and placeholder pieces, so rendering a report is a single pass of
+ * appends into a caller-supplied buffer. Placeholders are upper-case tokens wrapped in percent signs (for example
+ * {@code %AB1%}) and are resolved by their full token, percent signs included.
+ */
+public class ReportTemplate {
+
+    private static final char PLACEHOLDER_DELIMITER = '%';
+
+    private final String[] literals;
+    private final String[] placeholders;
+
+    private ReportTemplate(List<String> literals, List<String> placeholders) {
+        this.literals = literals.toArray(new String[0]);
+        this.placeholders = placeholders.toArray(new String[0]);
+    }
+
+    public static ReportTemplate fromResource(String resourceName) {
+        return compile(FileIOUtils.readResource(resourceName));
+    }
+
+    public static ReportTemplate compile(String text) {
+        final List<String> literals = new ArrayList<>();
+        final List<String> placeholders = new ArrayList<>();
+        int literalStart = 0;
+        int index = 0;
+        while (index < text.length()) {
+            final int placeholderEnd = placeholderEnd(text, index);
+            if (placeholderEnd > 0) {
+                literals.add(text.substring(literalStart, index));
+                placeholders.add(text.substring(index, placeholderEnd));
+                literalStart = placeholderEnd;
+                index = placeholderEnd;
+            } else {
+                index++;
+            }
+        }
+        literals.add(text.substring(literalStart));
+        return new ReportTemplate(literals, placeholders);
+    }
+
+    public List<String> getPlaceholders() {
+        return List.of(placeholders);
+    }
+
+    /**
+     * Clears {@code buffer}, renders the template into it with each placeholder replaced by
+     * {@code placeholderValues}, and returns it. A placeholder with no value (null) is rejected rather than rendered
+     * as the text "null".
+     */
+    public StringBuilder render(StringBuilder buffer, Function<String, ? extends CharSequence> placeholderValues) {
+        buffer.setLength(0);
+        for (int i = 0; i < placeholders.length; i++) {
+            final CharSequence value = placeholderValues.apply(placeholders[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("No value for report placeholder " + placeholders[i]);
+            }
+            buffer.append(literals[i]).append(value);
+        }
+        return buffer.append(literals[placeholders.length]);
+    }
+
+    /**
+     * Splits {@code text} into lines and wraps any line of {@code width} characters or more at its last space before
+     * {@code width}, trimming the wrapped pieces. A line with no such space is broken at exactly {@code width}. As with
+     * {@link String#split(String)}, trailing empty lines are dropped.
+     */
+    public static void wrapLines(CharSequence text, int width, Consumer<String> lineConsumer) {
+        int length = text.length();
+        while (length > 0 && text.charAt(length - 1) == '\n') {
+            length--;
+        }
+        int lineStart = 0;
+        while (lineStart <= length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && text.charAt(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            wrapLine(text, lineStart, lineEnd, width, lineConsumer);
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    private static void wrapLine(CharSequence text, int start, int end, int width, Consumer<String> lineConsumer) {
+        while (end - start >= width) {
+            int breakAt = start + width - 1;
+            while (breakAt >= start && text.charAt(breakAt) != ' ') {
+                breakAt--;
+            }
+            if (breakAt < start) {
+                lineConsumer.accept(text.subSequence(start, start + width).toString());
+                start += width;
+            } else {
+                lineConsumer.accept(trimmed(text, start, breakAt));
+                start = breakAt + 1;
+            }
+        }
+        lineConsumer.accept(text.subSequence(start, end).toString());
+    }
+
+    private static String trimmed(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return text.subSequence(start, end).toString();
+    }
+
+    private static int placeholderEnd(String text, int start) {
+        if (text.charAt(start) != PLACEHOLDER_DELIMITER) {
+            return -1;
+        }
+        int index = start + 1;
+        while (index < text.length() && isPlaceholderChar(text.charAt(index))) {
+            index++;
+        }
+        return index > start + 1 && index < text.length() && text.charAt(index) == PLACEHOLDER_DELIMITER
+            ? index + 1
+            : -1;
+    }
+
+    private static boolean isPlaceholderChar(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+}
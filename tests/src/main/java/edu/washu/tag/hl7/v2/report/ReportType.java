@@ -0,0 +1,104 @@
+package edu.washu.tag.hl7.v2.report;
+
+import java.util.List;
+
+public enum ReportType {
+
+    XR(
+        "/report_templates/xr_read.txt",
+        "EXAMINATION: 1 view chest radiograph",
+        new Procedure("IMG5595", "XR CHEST 1 VIEW", "XR CHEST 1 VW", "CR", "CHEST", "IMG XR PROCEDURES"),
+        List.of(
+            "arterial wall calcification",
+            "pericardial effusion",
+            "emphysema",
+            "atelectasis",
+            "lung nodules",
+            "pleural effusion",
+            "peribronchial thickening",
+            "bronchiectasis"
+        )
+    ),
+    CT(
+        "/report_templates/ct_read.txt",
+        "EXAMINATION: CT chest without contrast",
+        new Procedure("IMG1161", "CT CHEST WO CONTRAST", "CT CHEST WO", "CT", "CHEST", "IMG CT PROCEDURES"),
+        List.of(
+            "ground-glass opacity",
+            "pulmonary embolism",
+            "emphysema",
+            "mediastinal lymphadenopathy",
+            "lung nodules",
+            "pleural effusion",
+            "interstitial fibrosis",
+            "bronchiectasis"
+        )
+    ),
+    MR(
+        "/report_templates/mr_read.txt",
+        "EXAMINATION: MRI brain without contrast",
+        new Procedure("IMG3318", "MR BRAIN WO CONTRAST", "MR BRAIN WO", "MR", "HEAD", "IMG MR PROCEDURES"),
+        List.of(
+            "acute infarct",
+            "intracranial hemorrhage",
+            "mass effect",
+            "white matter hyperintensities",
+            "midline shift",
+            "hydrocephalus",
+            "cerebral atrophy",
+            "extra-axial collection"
+        )
+    ),
+    US(
+        "/report_templates/us_read.txt",
+        "EXAMINATION: US abdomen complete",
+        new Procedure("IMG7720", "US ABDOMEN COMPLETE", "US ABD COMP", "US", "ABDOMEN", "IMG US PROCEDURES"),
+        List.of(
+            "cholelithiasis",
+            "hepatic steatosis",
+            "splenomegaly",
+            "hydronephrosis",
+            "ascites",
+            "gallbladder wall thickening",
+            "renal cyst",
+            "biliary ductal dilatation"
+        )
+    );
+
+    private final ReportTemplate template;
+    private final String examination;
+    private final Procedure procedure;
+    private final List<String> abnormalities;
+
+    ReportType(String templateResource, String examination, Procedure procedure, List<String> abnormalities) {
+        this.template = ReportTemplate.fromResource(templateResource);
+        this.examination = examination;
+        this.procedure = procedure;
+        this.abnormalities = abnormalities;
+    }
+
+    public ReportTemplate getTemplate() {
+        return template;
+    }
+
+    public String getExamination() {
+        return examination;
+    }
+
+    public Procedure getProcedure() {
+        return procedure;
+    }
+
+    public List<String> getAbnormalities() {
+        return abnormalities;
+    }
+
+    /**
+     * Order-level codes for the exam, as written to OBR and ZPF.
+     */
+    public record Procedure(String code, String name, String abbreviation, String diagnosticServiceSection,
+        String bodyPart, String procedureGroup) {
+
+    }
+
+}
@@ -0,0 +1,96 @@
+package edu.washu.tag.hl7.v2.segment;
+
+import ca.uhn.hl7v2.HL7Exception;
+import ca.uhn.hl7v2.model.Segment;
+import ca.uhn.hl7v2.util.Terser;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A position within a segment written in the segment-relative part of {@link Terser} path syntax, such as
+ * {@code OBR-15(1)-4}, parsed once into field, repetition, component and subcomponent numbers. Setting through a
+ * compiled path goes straight to the segment it is given, where {@code terser.set("/.OBR-15(1)-4", value)} parses the
+ * path and searches the message for the first OBR on every call. Repetitions count from 0; components and
+ * subcomponents from 1 and default to 1.
+ */
+public class FieldPath {
+
+    private static final Pattern PATH_PATTERN = Pattern.compile(
+        "([A-Z][A-Z0-9]{2})-(\\d+)(?:\\((\\d+)\\))?(?:-(\\d+))?(?:-(\\d+))?"
+    );
+
+    private final String segmentName;
+    private final int field;
+    private final int repetition;
+    private final int component;
+    private final int subcomponent;
+
+    private FieldPath(String segmentName, int field, int repetition, int component, int subcomponent) {
+        this.segmentName = segmentName;
+        this.field = field;
+        this.repetition = repetition;
+        this.component = component;
+        this.subcomponent = subcomponent;
+    }
+
+    public static FieldPath compile(String path) {
+        final Matcher matcher = PATH_PATTERN.matcher(path);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a segment field path: " + path);
+        }
+        final FieldPath fieldPath = new FieldPath(
+            matcher.group(1),
+            Integer.parseInt(matcher.group(2)),
+            matcher.group(3) == null ? 0 : Integer.parseInt(matcher.group(3)),
+            matcher.group(4) == null ? 1 : Integer.parseInt(matcher.group(4)),
+            matcher.group(5) == null ? 1 : Integer.parseInt(matcher.group(5))
+        );
+        if (fieldPath.field < 1 || fieldPath.component < 1 || fieldPath.subcomponent < 1) {
+            throw new IllegalArgumentException("Field, component and subcomponent must be at least 1: " + path);
+        }
+        return fieldPath;
+    }
+
+    public String getSegmentName() {
+        return segmentName;
+    }
+
+    public int getField() {
+        return field;
+    }
+
+    public int getRepetition() {
+        return repetition;
+    }
+
+    public int getComponent() {
+        return component;
+    }
+
+    public int getSubcomponent() {
+        return subcomponent;
+    }
+
+    public void set(Segment segment, String value) throws HL7Exception {
+        if (!segmentName.equals(segment.getName())) {
+            throw new HL7Exception("Path " + this + " cannot be applied to a " + segment.getName() + " segment");
+        }
+        Terser.set(segment, field, repetition, component, subcomponent, value);
+    }
+
+    public void set(Er7SegmentWriter segment, String value) {
+        if (!segmentName.equals(segment.getSegmentName())) {
+            throw new IllegalArgumentException(
+                "Path " + this + " cannot be applied to a " + segment.getSegmentName() + " segment"
+            );
+        }
+        segment.set(field, repetition, component, subcomponent, value);
+    }
+
+    @Override
+    public String toString() {
+        return segmentName + "-" + field + "(" + repetition + ")-" + component + "-" + subcomponent;
+    }
+
+}
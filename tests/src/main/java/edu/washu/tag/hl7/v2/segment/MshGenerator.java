@@ -3,22 +3,44 @@ package edu.washu.tag.hl7.v2.segment;
 import ca.uhn.hl7v2.model.DataTypeException;
 import ca.uhn.hl7v2.model.v281.segment.MSH;
 import edu.washu.tag.hl7.v2.GenerationContext;
+import edu.washu.tag.hl7.v2.MessageValues;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
 import edu.washu.tag.util.TimeUtils;
 import java.io.IOException;
 
 public class MshGenerator extends SegmentGenerator<MSH> {
 
+    @Override
+    public String getSegmentName() {
+        return "MSH";
+    }
+
     @Override
     public void generateSegment(GenerationContext generationContext, MSH msh) throws DataTypeException, IOException {
+        final MessageValues messageValues = generationContext.getMessageValues();
         msh.getMsh1_FieldSeparator().setValue("|");
         msh.getMsh2_EncodingCharacters().setValue("^~\\&");
         msh.getMsh3_SendingApplication().getHd1_NamespaceID().setValue("SOMERIS");
         msh.getMsh4_SendingFacility().getHd1_NamespaceID().setValue("ABCHOSP");
         msh.getMsh5_ReceivingApplication().getHd1_NamespaceID().setValue("SOMEAPP");
         msh.getMsh6_ReceivingFacility().getHd1_NamespaceID().setValue("ABC_HOSP_DEPT_X");
-        msh.getMsh7_DateTimeOfMessage().setValue(TimeUtils.hl7DatetimeNow());
+        msh.getMsh7_DateTimeOfMessage().setValue(TimeUtils.toHl7(messageValues.getMessageDateTime()));
         msh.getMsh8_Security().setValue("TBD");
-        msh.getMsh10_MessageControlID().setValue(generationContext.getHapiContext().getParserConfiguration().getIdGenerator().getID());
+        msh.getMsh10_MessageControlID().setValue(messageValues.getMessageControlId());
+    }
+
+    @Override
+    protected void writeSegment(GenerationContext generationContext, Er7SegmentWriter msh) {
+        final MessageValues messageValues = generationContext.getMessageValues();
+        msh.set(1, "|");
+        msh.set(2, Er7SegmentWriter.ENCODING_CHARACTERS);
+        msh.set(3, "SOMERIS");
+        msh.set(4, "ABCHOSP");
+        msh.set(5, "SOMEAPP");
+        msh.set(6, "ABC_HOSP_DEPT_X");
+        msh.set(7, TimeUtils.toHl7(messageValues.getMessageDateTime()));
+        msh.set(8, "TBD");
+        msh.set(10, messageValues.getMessageControlId());
     }
 
 }
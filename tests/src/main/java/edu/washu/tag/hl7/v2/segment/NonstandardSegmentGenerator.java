@@ -25,8 +25,6 @@ public abstract class NonstandardSegmentGenerator<T extends Message> extends Seg
         return position.getNames().length;
     }
 
-    public abstract String getSegmentName();
-
     public abstract AbstractGroup positionForSegment(T baseMessage);
 
 }
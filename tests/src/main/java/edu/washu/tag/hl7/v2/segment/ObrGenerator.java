@@ -1,101 +1,190 @@
 package edu.washu.tag.hl7.v2.segment;
 
 import ca.uhn.hl7v2.HL7Exception;
-import ca.uhn.hl7v2.model.v281.datatype.CWE;
 import ca.uhn.hl7v2.model.v281.segment.OBR;
 import ca.uhn.hl7v2.model.v281.segment.ORC;
 import ca.uhn.hl7v2.util.DeepCopy;
 import ca.uhn.hl7v2.util.Terser;
 import edu.washu.tag.hl7.v2.GenerationContext;
 import edu.washu.tag.hl7.v2.GeneratorConstants;
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.MessageValues;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
 import edu.washu.tag.hl7.v2.model.AbcEncoder;
+import edu.washu.tag.hl7.v2.model.CodedValue;
+import edu.washu.tag.hl7.v2.model.EncodedCodedValue;
+import edu.washu.tag.hl7.v2.model.EncodedPerson;
 import edu.washu.tag.hl7.v2.model.Person;
+import edu.washu.tag.hl7.v2.report.ReportType;
+import edu.washu.tag.hl7.v2.report.ReportType.Procedure;
 import edu.washu.tag.util.RandomGenUtils;
 import edu.washu.tag.util.TimeUtils;
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
 
 public class ObrGenerator extends SegmentGenerator<OBR> {
 
-    private static final Person radiologist = new Person()
-        .setPersonIdentifier("D" + RandomGenUtils.randomId())
+    private static final EncodedPerson radiologist = EncodedPerson.of(new Person()
+        .setPersonIdentifier("D" + RandomGenUtils.stableId("ObrGenerator.radiologist"))
         .setFamilyName("DOC")
         .setGivenName("THAT")
         .setSecondNameEtc("Q")
-        .setAssigningAuthority(AbcEncoder.assigningAuthority);
-    
+        .setAssigningAuthority(AbcEncoder.assigningAuthority));
+    private static final Map<ReportType, EncodedCodedValue> universalServiceIdentifiers = universalServiceIdentifiers();
+    private static final FieldPath SPECIMEN_SOURCE_TYPE = FieldPath.compile("OBR-15-4");
+    private static final FieldPath SPECIMEN_BODY_PART = FieldPath.compile("OBR-15(1)-4");
+    private static final FieldPath PLACER_FIELD_2_FACILITY = FieldPath.compile("OBR-19-4");
+
+    @Override
+    public String getSegmentName() {
+        return "OBR";
+    }
+
     @Override
     public void generateSegment(GenerationContext generationContext, OBR baseSegment)
         throws HL7Exception, IOException {
         final ORC orcSegment = generationContext.lookupSegment(ORC.class);
+        final MessageValues messageValues = generationContext.getMessageValues();
+        final Procedure procedure = messageValues.getReportType().getProcedure();
+        final String now = TimeUtils.toHl7(messageValues.getMessageDateTime());
         baseSegment.getObr1_SetIDOBR().setValue("1");
         DeepCopy.copy(orcSegment.getOrc2_PlacerOrderNumber(), baseSegment.getObr2_PlacerOrderNumber());
         DeepCopy.copy(orcSegment.getOrc3_FillerOrderNumber(), baseSegment.getObr3_FillerOrderNumber());
 
-        final CWE universalServiceIdentifier = baseSegment.getObr4_UniversalServiceIdentifier();
-        universalServiceIdentifier.getCwe1_Identifier().setValue("IMG5595");
-        universalServiceIdentifier.getCwe2_Text().setValue("XR CHEST 1 VIEW");
-        universalServiceIdentifier.getCwe3_NameOfCodingSystem().setValue("RISPACS");
-        universalServiceIdentifier.getCwe5_AlternateText().setValue("XR CHEST 1 VW");
-        
+        final EncodedCodedValue universalServiceIdentifier = universalServiceIdentifiers.get(messageValues.getReportType());
+        universalServiceIdentifier.toCwe(baseSegment.getObr4_UniversalServiceIdentifier());
+
         baseSegment.getObr5_DeliverToLocation().setValue("O");
-        baseSegment.getObr6_DeliverToLocationNumber2().setValue(TimeUtils.hl7DatetimeNow());
+        baseSegment.getObr6_DeliverToLocationNumber2().setValue(now);
         baseSegment.getObr11_SpecimenActionCode().setValue("Hosp Perf");
 
-        final Terser terser = new Terser(baseSegment.getMessage());
-        terser.set("/.OBR-15-4", "BODY");
-        terser.set("/.OBR-15(1)-4", "CHEST");
+        SPECIMEN_SOURCE_TYPE.set(baseSegment, "BODY");
+        SPECIMEN_BODY_PART.set(baseSegment, procedure.bodyPart());
 
         DeepCopy.copy(orcSegment.getOrc12_OrderingProvider(0), baseSegment.getObr16_OrderingProvider(0));
         baseSegment.getObr17_OrderCallbackPhoneNumber(0).getXtn1_TelephoneNumber().setValue("(555)555-5555");
-        baseSegment.getObr18_PlacerField1().setValue("CHEST");
+        baseSegment.getObr18_PlacerField1().setValue(procedure.bodyPart());
 
         baseSegment.getObr19_PlacerField2().setValue(GeneratorConstants.MAIN_HOSPITAL + " RAD DX");
-        terser.set("/.OBR-19-4", GeneratorConstants.MAIN_HOSPITAL);
+        PLACER_FIELD_2_FACILITY.set(baseSegment, GeneratorConstants.MAIN_HOSPITAL);
 
         baseSegment.getObr20_FillerField1().setValue("GEXR5");
-        baseSegment.getObr22_ResultsRptStatusChngDateTime().setValue(TimeUtils.hl7DatetimeNow());
-        baseSegment.getObr24_DiagnosticServSectID().setValue("CR");
-        baseSegment.getObr25_ResultStatus().setValue(generationContext.getMessageRequirements().getOrcStatus());
+        baseSegment.getObr22_ResultsRptStatusChngDateTime().setValue(now);
+        baseSegment.getObr24_DiagnosticServSectID().setValue(procedure.diagnosticServiceSection());
+        baseSegment.getObr25_ResultStatus().setValue(messageValues.getResultStatus());
 
         DeepCopy.copy(orcSegment.getOrc7_DeliverToLocation(0), baseSegment.getObr27_DeliverToLocationNumber5(0));
         baseSegment.getObr31_ReasonForStudy(0).getCwe2_Text().setValue(generationContext.getMessageRequirements().getReasonForStudy());
 
-        final NameEncoder nameEncoder = new NameEncoder(baseSegment, generationContext.getMessageRequirements().isMalformObrInterpretersAndTech());
-        nameEncoder.encodeAssistantResultInterpreter(1, radiologist.getPersonIdentifier());
-        nameEncoder.encodeAssistantResultInterpreter(2, radiologist.getFamilyName().getSurname());
-        nameEncoder.encodeAssistantResultInterpreter(3, radiologist.getGivenName());
-        nameEncoder.encodeAssistantResultInterpreter(4, radiologist.getSecondNameEtc());
-        nameEncoder.encodeAssistantResultInterpreter(9, radiologist.getAssigningAuthority().getNamespaceId());
+        encodeNames(
+            generationContext,
+            (fieldId, componentId, subcomponentId, value) ->
+                Terser.set(baseSegment, fieldId, 0, componentId, subcomponentId, value)
+        );
+
+        baseSegment.getObr36_ScheduledDateTime().setValue(now);
+        universalServiceIdentifier.toCwe(baseSegment.getObr44_ProcedureCode());
+    }
+
+    @Override
+    protected void writeSegment(GenerationContext generationContext, Er7SegmentWriter obr) {
+        final MessageRequirements messageRequirements = generationContext.getMessageRequirements();
+        final MessageValues messageValues = generationContext.getMessageValues();
+        final Procedure procedure = messageValues.getReportType().getProcedure();
+        final String now = TimeUtils.toHl7(messageValues.getMessageDateTime());
+        obr.set(1, "1");
+        obr.set(2, 0, 1, 1, messageValues.getPlacerOrderNumber());
+        obr.set(2, 0, 2, 1, OrcGenerator.PLACER_NAMESPACE);
+        obr.set(3, messageValues.getFillerOrderNumber());
+
+        final EncodedCodedValue universalServiceIdentifier = universalServiceIdentifiers.get(messageValues.getReportType());
+        universalServiceIdentifier.toCwe(obr, 4, 0);
+
+        obr.set(5, "O");
+        obr.set(6, now);
+        obr.set(11, "Hosp Perf");
+
+        SPECIMEN_SOURCE_TYPE.set(obr, "BODY");
+        SPECIMEN_BODY_PART.set(obr, procedure.bodyPart());
+
+        OrcGenerator.orderingProvider.toXcn(obr, 16, 0);
+        obr.set(17, "(555)555-5555");
+        obr.set(18, procedure.bodyPart());
+
+        obr.set(19, GeneratorConstants.MAIN_HOSPITAL + " RAD DX");
+        PLACER_FIELD_2_FACILITY.set(obr, GeneratorConstants.MAIN_HOSPITAL);
+
+        obr.set(20, "GEXR5");
+        obr.set(22, now);
+        obr.set(24, procedure.diagnosticServiceSection());
+        obr.set(25, messageValues.getResultStatus());
+
+        OrcGenerator.writeQuantityTiming(obr, 27, messageValues);
+        obr.set(31, 0, 2, 1, messageRequirements.getReasonForStudy());
+
+        encodeNames(
+            generationContext,
+            (fieldId, componentId, subcomponentId, value) ->
+                obr.set(fieldId, 0, componentId, subcomponentId, value)
+        );
+
+        obr.set(36, now);
+        universalServiceIdentifier.toCwe(obr, 44, 0);
+    }
+
+    private static Map<ReportType, EncodedCodedValue> universalServiceIdentifiers() {
+        final Map<ReportType, EncodedCodedValue> identifiers = new EnumMap<>(ReportType.class);
+        for (ReportType reportType : ReportType.values()) {
+            final Procedure procedure = reportType.getProcedure();
+            identifiers.put(reportType, EncodedCodedValue.of(new CodedValue()
+                .setIdentifier(procedure.code())
+                .setText(procedure.name())
+                .setNameOfCodingSystem("RISPACS")
+                .setAlternateText(procedure.abbreviation())));
+        }
+        return identifiers;
+    }
+
+    private <E extends Exception> void encodeNames(GenerationContext generationContext, ValueEncoder<E> valueEncoder)
+        throws E {
+        final NameEncoder<E> nameEncoder = new NameEncoder<>(
+            valueEncoder,
+            generationContext.getMessageRequirements().isMalformObrInterpretersAndTech()
+        );
+        final Person interpreter = radiologist.getPerson();
+        nameEncoder.encodeAssistantResultInterpreter(1, interpreter.getPersonIdentifier());
+        nameEncoder.encodeAssistantResultInterpreter(2, interpreter.getFamilyName().getSurname());
+        nameEncoder.encodeAssistantResultInterpreter(3, interpreter.getGivenName());
+        nameEncoder.encodeAssistantResultInterpreter(4, interpreter.getSecondNameEtc());
+        nameEncoder.encodeAssistantResultInterpreter(9, interpreter.getAssigningAuthority().getNamespaceId());
         if (generationContext.getMessageRequirements().isMalformObrInterpretersAndTech()) {
             nameEncoder.encodeAssistantResultInterpreter(13, "HOSP");
         }
         generationContext.setInterpreter(radiologist);
 
-        final Person tech = generationContext.getTechnician();
+        final Person tech = generationContext.getTechnician().getPerson();
         nameEncoder.encodeTechnician(1, tech.getPersonIdentifier());
         nameEncoder.encodeTechnician(2, tech.getFamilyName().getSurname());
         nameEncoder.encodeTechnician(3, tech.getGivenName());
+    }
 
-        baseSegment.getObr36_ScheduledDateTime().setValue(TimeUtils.hl7DatetimeNow());
-        DeepCopy.copy(universalServiceIdentifier, baseSegment.getObr44_ProcedureCode());
+    @FunctionalInterface
+    private interface ValueEncoder<E extends Exception> {
+        void encodeValue(int fieldId, int componentId, int subcomponentId, String value) throws E;
     }
 
-    private class NameEncoder {
-        private final OBR obr;
+    private static class NameEncoder<E extends Exception> {
+        private final ValueEncoder<E> valueEncoder;
         private final boolean malform;
 
-        private NameEncoder(OBR obr, boolean malform) {
-            this.obr = obr;
+        private NameEncoder(ValueEncoder<E> valueEncoder, boolean malform) {
+            this.valueEncoder = valueEncoder;
             this.malform = malform;
         }
 
-        private void encodeValue(int fieldId, int componentId, int subcomponentId, String value)
-            throws HL7Exception {
-            Terser.set(obr, fieldId, 0, componentId, subcomponentId, value);
-        }
-
-        private void encodeValue(int fieldId, int pieceId, String value) throws HL7Exception {
-            encodeValue(
+        private void encodeValue(int fieldId, int pieceId, String value) throws E {
+            valueEncoder.encodeValue(
                 fieldId,
                 malform ? pieceId : 1,
                 malform ? 1 : pieceId,
@@ -103,11 +192,11 @@ public class ObrGenerator extends SegmentGenerator<OBR> {
             );
         }
 
-        private void encodeAssistantResultInterpreter(int pieceId, String value) throws HL7Exception {
+        private void encodeAssistantResultInterpreter(int pieceId, String value) throws E {
             encodeValue(33, pieceId, value);
         }
 
-        private void encodeTechnician(int pieceId, String value) throws HL7Exception {
+        private void encodeTechnician(int pieceId, String value) throws E {
             encodeValue(34, pieceId, value);
         }
     }
@@ -5,6 +5,7 @@ import ca.uhn.hl7v2.model.v281.datatype.ST;
 import ca.uhn.hl7v2.model.v281.segment.OBX;
 import ca.uhn.hl7v2.util.Terser;
 import edu.washu.tag.hl7.v2.GenerationContext;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
 import java.io.IOException;
 
 public class ObxGenerator extends SegmentGenerator<OBX> {
@@ -30,6 +31,11 @@ public class ObxGenerator extends SegmentGenerator<OBX> {
         return this;
     }
 
+    @Override
+    public String getSegmentName() {
+        return "OBX";
+    }
+
     @Override
     public void generateSegment(GenerationContext generationContext, OBX baseSegment)
         throws HL7Exception, IOException {
@@ -40,8 +46,19 @@ public class ObxGenerator extends SegmentGenerator<OBX> {
         final ST st = new ST(baseSegment.getMessage());
         st.setValue(content);
         baseSegment.getObx5_ObservationValue(0).setData(st);
-        baseSegment.getObx11_ObservationResultStatus().setValue(generationContext.getMessageRequirements().getOrcStatus()); // is this what we want?
+        baseSegment.getObx11_ObservationResultStatus().setValue(generationContext.getMessageValues().getResultStatus()); // is this what we want?
         generationContext.getTechnician().toXcn(baseSegment.getObx16_ResponsibleObserver(0));
     }
 
+    @Override
+    protected void writeSegment(GenerationContext generationContext, Er7SegmentWriter obx) {
+        obx.set(1, setId);
+        obx.set(2, "ST");
+        obx.set(3, 0, 1, 2, observationId);
+        obx.set(4, observationSubId);
+        obx.set(5, content);
+        obx.set(11, generationContext.getMessageValues().getResultStatus());
+        generationContext.getTechnician().toXcn(obx, 16, 0);
+    }
+
 }
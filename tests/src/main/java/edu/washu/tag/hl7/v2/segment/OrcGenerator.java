@@ -4,51 +4,59 @@ import ca.uhn.hl7v2.HL7Exception;
 import ca.uhn.hl7v2.model.v281.datatype.EI;
 import ca.uhn.hl7v2.model.v281.datatype.PL;
 import ca.uhn.hl7v2.model.v281.segment.ORC;
-import ca.uhn.hl7v2.util.Terser;
 import edu.washu.tag.hl7.v2.GenerationContext;
 import edu.washu.tag.hl7.v2.GeneratorConstants;
-import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.MessageValues;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
 import edu.washu.tag.hl7.v2.model.AbcEncoder;
+import edu.washu.tag.hl7.v2.model.EncodedPerson;
 import edu.washu.tag.hl7.v2.model.Person;
 import edu.washu.tag.util.RandomGenUtils;
 import edu.washu.tag.util.TimeUtils;
-import java.time.LocalDateTime;
 
 public class OrcGenerator extends SegmentGenerator<ORC> {
 
-    private static final Person enteredBy = new Person()
-        .setPersonIdentifier("T" + RandomGenUtils.randomId())
+    static final String PLACER_NAMESPACE = "SYS";
+    private static final String QUANTITY_TIMING_PRIORITY = "O";
+    private static final FieldPath QUANTITY_TIMING_START = FieldPath.compile("ORC-7-4");
+    private static final FieldPath QUANTITY_TIMING_END = FieldPath.compile("ORC-7-5");
+    private static final FieldPath QUANTITY_TIMING_PRIORITY_PATH = FieldPath.compile("ORC-7-6");
+    private static final EncodedPerson enteredBy = EncodedPerson.of(new Person()
+        .setPersonIdentifier("T" + RandomGenUtils.stableId("OrcGenerator.enteredBy"))
         .setFamilyName("EXAMPLE")
         .setGivenName("PERSON")
-        .setSecondNameEtc("O.");
-    private static final Person orderingProvider = new Person()
-        .setPersonIdentifier("D" + RandomGenUtils.randomId())
+        .setSecondNameEtc("O."));
+    static final EncodedPerson orderingProvider = EncodedPerson.of(new Person()
+        .setPersonIdentifier("D" + RandomGenUtils.stableId("OrcGenerator.orderingProvider"))
         .setFamilyName("HOUNSFIELD")
         .setGivenName("GODFREY")
         .setSecondNameEtc("N")
         .setAssigningAuthority(AbcEncoder.assigningAuthority)
-        .setIdentifierTypeCode("HOSP");
+        .setIdentifierTypeCode("HOSP"));
+
+    @Override
+    public String getSegmentName() {
+        return "ORC";
+    }
 
     @Override
     public void generateSegment(GenerationContext generationContext, ORC baseSegment)
         throws HL7Exception {
-        final MessageRequirements messageRequirements = generationContext.getMessageRequirements();
+        final MessageValues messageValues = generationContext.getMessageValues();
 
         baseSegment.getOrc1_OrderControl().setValue("RE"); // "Observations/Performed Service to follow"
         final EI placerOrderNumber = baseSegment.getOrc2_PlacerOrderNumber();
-        placerOrderNumber.getEi1_EntityIdentifier().setValue(RandomGenUtils.randomIdStr());
-        placerOrderNumber.getEi2_NamespaceID().setValue("SYS");
-        baseSegment.getOrc3_FillerOrderNumber().getEi1_EntityIdentifier().setValue(RandomGenUtils.randomIdStr());
+        placerOrderNumber.getEi1_EntityIdentifier().setValue(messageValues.getPlacerOrderNumber());
+        placerOrderNumber.getEi2_NamespaceID().setValue(PLACER_NAMESPACE);
+        baseSegment.getOrc3_FillerOrderNumber().getEi1_EntityIdentifier().setValue(messageValues.getFillerOrderNumber());
 
-        baseSegment.getOrc5_OrderStatus().setValue(messageRequirements.getOrcStatus());
+        baseSegment.getOrc5_OrderStatus().setValue(messageValues.getResultStatus());
 
-        final LocalDateTime now = LocalDateTime.now();
-        final Terser terser = new Terser(baseSegment.getMessage());
-        terser.set("/.ORC-7-4", TimeUtils.toHl7(now.minusSeconds(1)));
-        terser.set("/.ORC-7-5", TimeUtils.toHl7(now));
-        terser.set("/.ORC-7-6", "O");
+        QUANTITY_TIMING_START.set(baseSegment, TimeUtils.toHl7(messageValues.getQuantityTimingStart()));
+        QUANTITY_TIMING_END.set(baseSegment, TimeUtils.toHl7(messageValues.getQuantityTimingEnd()));
+        QUANTITY_TIMING_PRIORITY_PATH.set(baseSegment, QUANTITY_TIMING_PRIORITY);
 
-        baseSegment.getOrc9_DateTimeOfTransaction().setValue(TimeUtils.toHl7(now));
+        baseSegment.getOrc9_DateTimeOfTransaction().setValue(TimeUtils.toHl7(messageValues.getMessageDateTime()));
 
         enteredBy.toXcn(baseSegment.getOrc10_EnteredBy(0));
         generationContext.setTechnician(enteredBy);
@@ -64,4 +72,44 @@ public class OrcGenerator extends SegmentGenerator<ORC> {
         baseSegment.getOrc30_EntererAuthorizationMode().getCne1_Identifier().setValue("Electr");
     }
 
+    @Override
+    protected void writeSegment(GenerationContext generationContext, Er7SegmentWriter orc) {
+        final MessageValues messageValues = generationContext.getMessageValues();
+
+        orc.set(1, "RE");
+        orc.set(2, 0, 1, 1, messageValues.getPlacerOrderNumber());
+        orc.set(2, 0, 2, 1, PLACER_NAMESPACE);
+        orc.set(3, messageValues.getFillerOrderNumber());
+
+        orc.set(5, messageValues.getResultStatus());
+
+        writeQuantityTiming(orc, QUANTITY_TIMING_START.getField(), messageValues);
+
+        orc.set(9, TimeUtils.toHl7(messageValues.getMessageDateTime()));
+
+        enteredBy.toXcn(orc, 10, 0);
+        generationContext.setTechnician(enteredBy);
+        orderingProvider.toXcn(orc, 12, 0);
+
+        orc.set(13, 0, 1, 1, GeneratorConstants.MAIN_HOSPITAL + "_R");
+        orc.set(13, 0, 4, 1, "RS50");
+        orc.set(13, 0, 9, 1, "RAD5");
+
+        orc.set(14, "(555)555-5555");
+        orc.set(29, "O");
+        orc.set(30, "Electr");
+    }
+
+    /**
+     * Writes the ORC-7 quantity/timing value at {@code field} of {@code segment}, so that OBR-27, which repeats it,
+     * is written from the same values.
+     */
+    static void writeQuantityTiming(Er7SegmentWriter segment, int field, MessageValues messageValues) {
+        segment.set(field, 0, QUANTITY_TIMING_START.getComponent(), 1,
+            TimeUtils.toHl7(messageValues.getQuantityTimingStart()));
+        segment.set(field, 0, QUANTITY_TIMING_END.getComponent(), 1,
+            TimeUtils.toHl7(messageValues.getQuantityTimingEnd()));
+        segment.set(field, 0, QUANTITY_TIMING_PRIORITY_PATH.getComponent(), 1, QUANTITY_TIMING_PRIORITY);
+    }
+
 }
@@ -6,60 +6,56 @@ import ca.uhn.hl7v2.model.v281.datatype.XTN;
 import ca.uhn.hl7v2.model.v281.segment.PID;
 import edu.washu.tag.hl7.v2.GenerationContext;
 import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.MessageValues;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
 import edu.washu.tag.hl7.v2.model.AbcEncoder;
 import edu.washu.tag.hl7.v2.model.EpicEncoder;
 import edu.washu.tag.hl7.v2.model.PatientIdEncoder;
 import edu.washu.tag.hl7.v2.model.Person;
+import edu.washu.tag.hl7.v2.population.Patient;
 import edu.washu.tag.util.TimeUtils;
-import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
-import org.apache.commons.lang3.RandomUtils;
 
 public class PidGenerator extends SegmentGenerator<PID> {
 
-    private static final List<PatientIdEncoder> patientIdEncoders = Arrays.asList(
+    public static final List<PatientIdEncoder> patientIdEncoders = Arrays.asList(
         new EpicEncoder(), new AbcEncoder()
     );
 
+    @Override
+    public String getSegmentName() {
+        return "PID";
+    }
+
     @Override
     public void generateSegment(GenerationContext generationContext, PID baseSegment) throws DataTypeException {
         final MessageRequirements messageRequirements = generationContext.getMessageRequirements();
+        final MessageValues messageValues = generationContext.getMessageValues();
+        final Patient patient = messageValues.getPatient();
         baseSegment.getPid1_SetIDPID().setValue("1");
 
         for (int i = 0; i < messageRequirements.getNumPatientIds(); i++) {
-            patientIdEncoders.get(i).generateAndEncodeId(baseSegment.getPid3_PatientIdentifierList(i));
+            patientIdEncoders.get(i).encodeId(baseSegment.getPid3_PatientIdentifierList(i), messageValues.getPatientIds().get(i));
         }
 
-        final Person patientName = new Person();
-        patientName.setFamilyName("SMITH");
-        patientName.setGivenName("JOHN");
-        patientName.setSecondNameEtc("J");
-        patientName.setNameTypeCode("D"); // code for "customary name"
-
-        patientName.toXpn(baseSegment.getPid5_PatientName(0));
+        patientName(patient).toXpn(baseSegment.getPid5_PatientName(0));
 
-        baseSegment.getPid7_DateTimeOfBirth().setValue(
-            TimeUtils.toHl7(
-                LocalDate.of(1900, 1, 1).plusDays(
-                    RandomUtils.nextInt(0, 36525) // 100 years
-                )
-            )
-        );
+        baseSegment.getPid7_DateTimeOfBirth().setValue(TimeUtils.toHl7(messageValues.getDateOfBirth()));
 
-        baseSegment.getPid8_AdministrativeSex().getCwe1_Identifier().setValue("M");
+        baseSegment.getPid8_AdministrativeSex().getCwe1_Identifier().setValue(patient.sex());
         if (messageRequirements.isIncludePatientAlias()) {
-            baseSegment.getPid9_PatientAlias().setValue("SMITH^JOHN");
+            baseSegment.getPid9_PatientAlias().setValue(patient.familyName() + "^" + patient.givenName());
         }
-        baseSegment.getPid10_Race(0).getCwe1_Identifier().setValue("WHITE");
+        baseSegment.getPid10_Race(0).getCwe1_Identifier().setValue(patient.race());
 
         final XAD patientAddress = baseSegment.getPid11_PatientAddress(0);
         if (messageRequirements.isSpecifyAddress()) {
-            patientAddress.getXad1_StreetAddress().getSad1_StreetOrMailingAddress().setValue("123 STREET");
-            patientAddress.getXad3_City().setValue("CITY CITY");
-            patientAddress.getXad4_StateOrProvince().setValue("MO");
-            patientAddress.getXad5_ZipOrPostalCode().setValue("61111");
-            patientAddress.getXad9_CountyParishCode().getCwe1_Identifier().setValue("COUNTY");
+            patientAddress.getXad1_StreetAddress().getSad1_StreetOrMailingAddress().setValue(patient.streetAddress());
+            patientAddress.getXad3_City().setValue(patient.city());
+            patientAddress.getXad4_StateOrProvince().setValue(patient.state());
+            patientAddress.getXad5_ZipOrPostalCode().setValue(patient.zipCode());
+            patientAddress.getXad9_CountyParishCode().getCwe1_Identifier().setValue(patient.county());
         }
         patientAddress.getXad6_Country().setValue("USA");
         patientAddress.getXad7_AddressType().setValue("L");
@@ -68,20 +64,75 @@ public class PidGenerator extends SegmentGenerator<PID> {
             return;
         }
 
-        baseSegment.getPid12_CountyCode().setValue("COUNTY");
-        final String phoneNumber = "(555)555-5555";
+        baseSegment.getPid12_CountyCode().setValue(patient.county());
         final XTN phone1 = baseSegment.getPid13_PhoneNumberHome(0);
-        phone1.getXtn1_TelephoneNumber().setValue(phoneNumber);
+        phone1.getXtn1_TelephoneNumber().setValue(patient.phoneNumber());
         phone1.getXtn2_TelecommunicationUseCode().setValue("P");
         phone1.getXtn3_TelecommunicationEquipmentType().setValue("H");
         final XTN phone2 = baseSegment.getPid13_PhoneNumberHome(1);
-        phone2.getXtn1_TelephoneNumber().setValue(phoneNumber);
+        phone2.getXtn1_TelephoneNumber().setValue(patient.phoneNumber());
         phone2.getXtn2_TelecommunicationUseCode().setValue("P");
         phone2.getXtn3_TelecommunicationEquipmentType().setValue("M");
 
-        baseSegment.getPid16_MaritalStatus().getCwe1_Identifier().setValue("S");
-        baseSegment.getPid19_SSNNumberPatient().setValue("111-11-1111");
-        baseSegment.getPid22_EthnicGroup(0).getCwe1_Identifier().setValue("CAU");
+        baseSegment.getPid16_MaritalStatus().getCwe1_Identifier().setValue(patient.maritalStatus());
+        baseSegment.getPid19_SSNNumberPatient().setValue(patient.ssn());
+        baseSegment.getPid22_EthnicGroup(0).getCwe1_Identifier().setValue(patient.ethnicGroup());
+    }
+
+    @Override
+    protected void writeSegment(GenerationContext generationContext, Er7SegmentWriter pid) {
+        final MessageRequirements messageRequirements = generationContext.getMessageRequirements();
+        final MessageValues messageValues = generationContext.getMessageValues();
+        final Patient patient = messageValues.getPatient();
+        pid.set(1, "1");
+
+        for (int i = 0; i < messageRequirements.getNumPatientIds(); i++) {
+            patientIdEncoders.get(i).encodeId(pid, 3, i, messageValues.getPatientIds().get(i));
+        }
+
+        patientName(patient).toXpn(pid, 5, 0);
+
+        pid.set(7, TimeUtils.toHl7(messageValues.getDateOfBirth()));
+
+        pid.set(8, patient.sex());
+        if (messageRequirements.isIncludePatientAlias()) {
+            pid.set(9, patient.familyName() + "^" + patient.givenName());
+        }
+        pid.set(10, patient.race());
+
+        if (messageRequirements.isSpecifyAddress()) {
+            pid.set(11, 0, 1, 1, patient.streetAddress());
+            pid.set(11, 0, 3, 1, patient.city());
+            pid.set(11, 0, 4, 1, patient.state());
+            pid.set(11, 0, 5, 1, patient.zipCode());
+            pid.set(11, 0, 9, 1, patient.county());
+        }
+        pid.set(11, 0, 6, 1, "USA");
+        pid.set(11, 0, 7, 1, "L");
+
+        if (!messageRequirements.isExtendedPid()) {
+            return;
+        }
+
+        pid.set(12, patient.county());
+        pid.set(13, 0, 1, 1, patient.phoneNumber());
+        pid.set(13, 0, 2, 1, "P");
+        pid.set(13, 0, 3, 1, "H");
+        pid.set(13, 1, 1, 1, patient.phoneNumber());
+        pid.set(13, 1, 2, 1, "P");
+        pid.set(13, 1, 3, 1, "M");
+
+        pid.set(16, patient.maritalStatus());
+        pid.set(19, patient.ssn());
+        pid.set(22, patient.ethnicGroup());
+    }
+
+    private static Person patientName(Patient patient) {
+        return new Person()
+            .setFamilyName(patient.familyName())
+            .setGivenName(patient.givenName())
+            .setSecondNameEtc(patient.middleInitial())
+            .setNameTypeCode("D"); // code for "customary name"
     }
 
 }
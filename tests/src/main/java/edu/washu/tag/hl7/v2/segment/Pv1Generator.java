@@ -4,7 +4,10 @@ import ca.uhn.hl7v2.model.DataTypeException;
 import ca.uhn.hl7v2.model.v281.datatype.PL;
 import ca.uhn.hl7v2.model.v281.segment.PV1;
 import edu.washu.tag.hl7.v2.GenerationContext;
+import edu.washu.tag.hl7.v2.MessageValues;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
 import edu.washu.tag.hl7.v2.model.AbcEncoder;
+import edu.washu.tag.hl7.v2.model.EncodedPerson;
 import edu.washu.tag.hl7.v2.model.Person;
 import edu.washu.tag.util.RandomGenUtils;
 import edu.washu.tag.util.TimeUtils;
@@ -15,10 +18,16 @@ import java.util.List;
 public class Pv1Generator extends SegmentGenerator<PV1> {
 
     private static final String HOSP = "HOSP";
-    private static final List<Person> availableAttendingDoctors = generateAttending();
+    private static final List<EncodedPerson> availableAttendingDoctors = generateAttending();
+
+    @Override
+    public String getSegmentName() {
+        return "PV1";
+    }
 
     @Override
     public void generateSegment(GenerationContext generationContext, PV1 baseSegment) throws DataTypeException, IOException {
+        final MessageValues messageValues = generationContext.getMessageValues();
         baseSegment.getPv12_PatientClass().getCwe1_Identifier().setValue("O");
         final PL patientLocation = baseSegment.getPv13_AssignedPatientLocation();
         patientLocation.getPl1_PointOfCare().getHd1_NamespaceID().setValue("ABC RAD5");
@@ -31,14 +40,33 @@ public class Pv1Generator extends SegmentGenerator<PV1> {
         }
 
         baseSegment.getPv110_HospitalService().getCwe1_Identifier().setValue("RAD");
-        baseSegment.getPv119_VisitNumber().getCx1_IDNumber().setValue("V" + RandomGenUtils.randomId(8));
-        baseSegment.getPv144_AdmitDateTime().setValue(TimeUtils.hl7DatetimeNow());
+        baseSegment.getPv119_VisitNumber().getCx1_IDNumber().setValue(messageValues.getVisitNumber());
+        baseSegment.getPv144_AdmitDateTime().setValue(TimeUtils.toHl7(messageValues.getMessageDateTime()));
         baseSegment.getPv151_VisitIndicator().getCwe1_Identifier().setValue("V");
     }
 
-    private static List<Person> generateAttending() {
+    @Override
+    protected void writeSegment(GenerationContext generationContext, Er7SegmentWriter pv1) {
+        final MessageValues messageValues = generationContext.getMessageValues();
+        pv1.set(2, "O");
+        pv1.set(3, 0, 1, 1, "ABC RAD5");
+        pv1.set(3, 0, 2, 1, "ABC RAD5 R-5005");
+        pv1.set(3, 0, 3, 1, "ABC RAD5 R-5005");
+        pv1.set(3, 0, 4, 1, "ABC");
+
+        for (int i = 0; i < generationContext.getMessageRequirements().getNumAttendingDoctors(); i++) {
+            availableAttendingDoctors.get(i).toXcn(pv1, 7, i);
+        }
+
+        pv1.set(10, "RAD");
+        pv1.set(19, messageValues.getVisitNumber());
+        pv1.set(44, TimeUtils.toHl7(messageValues.getMessageDateTime()));
+        pv1.set(51, "V");
+    }
+
+    private static List<EncodedPerson> generateAttending() {
         final Person doctor1 = new Person();
-        doctor1.setPersonIdentifier("D" + RandomGenUtils.randomId());
+        doctor1.setPersonIdentifier("D" + RandomGenUtils.stableId("Pv1Generator.doctor1"));
         doctor1.setFamilyName("CURIE");
         doctor1.setGivenName("MARIE");
         doctor1.setSecondNameEtc("S");
@@ -46,14 +74,14 @@ public class Pv1Generator extends SegmentGenerator<PV1> {
         doctor1.setIdentifierTypeCode(HOSP);
 
         final Person doctor2 = new Person();
-        doctor2.setPersonIdentifier("D" + RandomGenUtils.randomId());
+        doctor2.setPersonIdentifier("D" + RandomGenUtils.stableId("Pv1Generator.doctor2"));
         doctor2.setFamilyName("ROENTGEN");
         doctor2.setGivenName("WILHELM");
         doctor2.setSecondNameEtc("CONRAD");
         doctor2.setAssigningAuthority(AbcEncoder.assigningAuthority);
         doctor2.setIdentifierTypeCode(HOSP);
 
-        return Arrays.asList(doctor1, doctor2);
+        return Arrays.asList(EncodedPerson.of(doctor1), EncodedPerson.of(doctor2));
     }
 
 }
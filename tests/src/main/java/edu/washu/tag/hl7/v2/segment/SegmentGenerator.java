@@ -3,17 +3,33 @@ package edu.washu.tag.hl7.v2.segment;
 import ca.uhn.hl7v2.HL7Exception;
 import ca.uhn.hl7v2.model.Segment;
 import edu.washu.tag.hl7.v2.GenerationContext;
+import edu.washu.tag.hl7.v2.er7.Er7MessageWriter;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
 import java.io.IOException;
 
 public abstract class SegmentGenerator<T extends Segment> {
 
+    public abstract String getSegmentName();
+
     protected abstract void generateSegment(GenerationContext generationContext, T baseSegment)
         throws HL7Exception, IOException;
 
+    /**
+     * Writes the same content as {@link #generateSegment(GenerationContext, Segment)} directly as ER7, without going
+     * through the HAPI object model.
+     */
+    protected abstract void writeSegment(GenerationContext generationContext, Er7SegmentWriter segment);
+
     public void generate(GenerationContext generationContext, T baseSegment)
         throws HL7Exception, IOException {
         generateSegment(generationContext, baseSegment);
-        generationContext.getSegments().add(baseSegment);
+        generationContext.addSegment(baseSegment);
+    }
+
+    public Er7SegmentWriter write(GenerationContext generationContext, Er7MessageWriter messageWriter) {
+        final Er7SegmentWriter segment = messageWriter.startSegment(getSegmentName());
+        writeSegment(generationContext, segment);
+        return segment;
     }
 
 }
@@ -6,7 +6,7 @@ import ca.uhn.hl7v2.model.GenericSegment;
 import ca.uhn.hl7v2.model.v281.message.ORU_R01;
 import ca.uhn.hl7v2.util.Terser;
 import edu.washu.tag.hl7.v2.GenerationContext;
-import org.dcm4che3.util.UIDUtils;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
 
 public class ZdsGenerator extends NonstandardSegmentGenerator<ORU_R01> {
 
@@ -19,12 +19,20 @@ public class ZdsGenerator extends NonstandardSegmentGenerator<ORU_R01> {
     protected void generateSegment(GenerationContext generationContext, GenericSegment baseSegment)
         throws HL7Exception {
 
-        Terser.set(baseSegment, 1, 0, 1, 1, UIDUtils.createUID());
+        Terser.set(baseSegment, 1, 0, 1, 1, generationContext.getMessageValues().getStudyInstanceUid());
         Terser.set(baseSegment, 1, 0, 2, 1, "EPIC");
         Terser.set(baseSegment, 1, 0, 3, 1, "APPLICATION");
         Terser.set(baseSegment, 1, 0, 4, 1, "DICOM");
     }
 
+    @Override
+    protected void writeSegment(GenerationContext generationContext, Er7SegmentWriter zds) {
+        zds.set(1, 0, 1, 1, generationContext.getMessageValues().getStudyInstanceUid());
+        zds.set(1, 0, 2, 1, "EPIC");
+        zds.set(1, 0, 3, 1, "APPLICATION");
+        zds.set(1, 0, 4, 1, "DICOM");
+    }
+
     @Override
     public AbstractGroup positionForSegment(ORU_R01 baseMessage) {
         return baseMessage.getPATIENT_RESULT().getORDER_OBSERVATION();
@@ -6,6 +6,7 @@ import ca.uhn.hl7v2.model.GenericSegment;
 import ca.uhn.hl7v2.model.v281.message.ORU_R01;
 import ca.uhn.hl7v2.util.Terser;
 import edu.washu.tag.hl7.v2.GenerationContext;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
 
 public class ZpfGenerator extends NonstandardSegmentGenerator<ORU_R01> {
 
@@ -19,7 +20,18 @@ public class ZpfGenerator extends NonstandardSegmentGenerator<ORU_R01> {
         throws HL7Exception {
         Terser.set(baseSegment, 1, 0, 1, 1, "1");
         Terser.set(baseSegment, 2, 0, 1, 1, "10");
-        Terser.set(baseSegment, 2, 0, 2, 1, "IMG XR PROCEDURES");
+        Terser.set(baseSegment, 2, 0, 2, 1, procedureGroup(generationContext));
+    }
+
+    @Override
+    protected void writeSegment(GenerationContext generationContext, Er7SegmentWriter zpf) {
+        zpf.set(1, 0, 1, 1, "1");
+        zpf.set(2, 0, 1, 1, "10");
+        zpf.set(2, 0, 2, 1, procedureGroup(generationContext));
+    }
+
+    private String procedureGroup(GenerationContext generationContext) {
+        return generationContext.getMessageValues().getReportType().getProcedure().procedureGroup();
     }
 
     @Override
@@ -0,0 +1,25 @@
+package edu.washu.tag.hl7.v2.simulation;
+
+/**
+ * The stages of a radiology report's lifecycle, in the order they are sent for a single order.
+ */
+public enum ReportStatus {
+
+    PRELIMINARY("Prelim"),
+    FINAL("Final"),
+    CORRECTED("Corrected");
+
+    private final String code;
+
+    ReportStatus(String code) {
+        this.code = code;
+    }
+
+    /**
+     * The value written to ORC-5, OBR-25 and OBX-11.
+     */
+    public String getCode() {
+        return code;
+    }
+
+}
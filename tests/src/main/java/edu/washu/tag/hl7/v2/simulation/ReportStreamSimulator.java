@@ -0,0 +1,292 @@
+package edu.washu.tag.hl7.v2.simulation;
+
+import ca.uhn.hl7v2.model.Message;
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.MessageValues;
+import edu.washu.tag.hl7.v2.triggerevents.MessageGenerator;
+import edu.washu.tag.util.RandomGenUtils;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Simulates a window of hospital radiology traffic on a simulated clock. Orders arrive as a Poisson process whose rate
+ * follows a typical day's hourly volume, and each order is reported over time: optionally a preliminary report, then
+ * the final report, and occasionally a correction. Every message about an order carries the same ORC-2/ORC-3, patient,
+ * visit and study, so the stream exercises the update patterns a downstream merge/upsert sees. Reports are produced
+ * lazily in timestamp order, holding only orders still in flight, and reports falling after the end of the window are
+ * dropped. Order contents come from {@link MessageGenerator#drawValues(MessageRequirements, long)} with the order's
+ * index, so seeding both the generator and the simulator reproduces the stream exactly.
+ */
+public class ReportStreamSimulator<X extends Message> {
+
+    /**
+     * Relative order volume for each hour of the day, peaking through the working day.
+     */
+    private static final int[] HOURLY_ORDER_WEIGHTS = {
+        2, 2, 1, 1, 1, 2, 4, 8, 12, 13, 13, 12, 10, 12, 13, 12, 10, 8, 6, 5, 4, 3, 3, 2
+    };
+    private static final long NANOS_PER_HOUR = TimeUnit.HOURS.toNanos(1);
+
+    private final MessageGenerator<X> messageGenerator;
+    private final MessageRequirements messageRequirements;
+    private LocalDateTime start = LocalDate.now().atStartOfDay();
+    private Duration duration = Duration.ofDays(1);
+    private int ordersPerDay = 2000;
+    private long seed = ThreadLocalRandom.current().nextLong();
+    private double preliminaryFraction = 0.6;
+    private double correctionFraction = 0.03;
+    private Duration meanPreliminaryDelay = Duration.ofMinutes(40);
+    private Duration meanFinalDelay = Duration.ofHours(3);
+    private Duration meanCorrectionDelay = Duration.ofHours(12);
+
+    public ReportStreamSimulator(MessageGenerator<X> messageGenerator, MessageRequirements messageRequirements) {
+        this.messageGenerator = messageGenerator;
+        this.messageRequirements = messageRequirements;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public ReportStreamSimulator<X> setStart(LocalDateTime start) {
+        this.start = start;
+        return this;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public ReportStreamSimulator<X> setDuration(Duration duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    public int getOrdersPerDay() {
+        return ordersPerDay;
+    }
+
+    public ReportStreamSimulator<X> setOrdersPerDay(int ordersPerDay) {
+        if (ordersPerDay < 0) {
+            throw new IllegalArgumentException("Orders per day must not be negative: " + ordersPerDay);
+        }
+        this.ordersPerDay = ordersPerDay;
+        return this;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Seeds arrivals, report delays and everything drawn after an order's initial values.
+     */
+    public ReportStreamSimulator<X> setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public double getPreliminaryFraction() {
+        return preliminaryFraction;
+    }
+
+    public ReportStreamSimulator<X> setPreliminaryFraction(double preliminaryFraction) {
+        this.preliminaryFraction = requireFraction(preliminaryFraction);
+        return this;
+    }
+
+    public double getCorrectionFraction() {
+        return correctionFraction;
+    }
+
+    public ReportStreamSimulator<X> setCorrectionFraction(double correctionFraction) {
+        this.correctionFraction = requireFraction(correctionFraction);
+        return this;
+    }
+
+    public Duration getMeanPreliminaryDelay() {
+        return meanPreliminaryDelay;
+    }
+
+    /**
+     * Mean time from an order to its first report, preliminary or final.
+     */
+    public ReportStreamSimulator<X> setMeanPreliminaryDelay(Duration meanPreliminaryDelay) {
+        this.meanPreliminaryDelay = meanPreliminaryDelay;
+        return this;
+    }
+
+    public Duration getMeanFinalDelay() {
+        return meanFinalDelay;
+    }
+
+    /**
+     * Mean time from a preliminary report to the final one.
+     */
+    public ReportStreamSimulator<X> setMeanFinalDelay(Duration meanFinalDelay) {
+        this.meanFinalDelay = meanFinalDelay;
+        return this;
+    }
+
+    public Duration getMeanCorrectionDelay() {
+        return meanCorrectionDelay;
+    }
+
+    public ReportStreamSimulator<X> setMeanCorrectionDelay(Duration meanCorrectionDelay) {
+        this.meanCorrectionDelay = meanCorrectionDelay;
+        return this;
+    }
+
+    public Stream<SimulatedReport> stream() {
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(new ReportIterator(), Spliterator.ORDERED | Spliterator.NONNULL),
+            false
+        );
+    }
+
+    public Stream<X> messages() {
+        return stream().map(report -> messageGenerator.generate(messageRequirements, report.messageValues()));
+    }
+
+    /**
+     * Hands each report to {@code consumer} at the wall-clock moment matching its simulated timestamp, with simulated
+     * time running {@code speedup} times faster than real time. {@link Double#POSITIVE_INFINITY} replays without
+     * pausing. If {@code consumer} falls behind, later reports are delivered as soon as it catches up.
+     */
+    public void replay(double speedup, Consumer<SimulatedReport> consumer) {
+        if (!(speedup > 0)) {
+            throw new IllegalArgumentException("Replay speedup must be positive: " + speedup);
+        }
+        final long wallStart = System.nanoTime();
+        stream().forEach(report -> {
+            final long simulatedNanos = Duration.between(start, report.timestamp()).toNanos();
+            final long remaining = wallStart + (long) (simulatedNanos / speedup) - System.nanoTime();
+            if (remaining > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+            consumer.accept(report);
+        });
+    }
+
+    private static double requireFraction(double fraction) {
+        if (!(fraction >= 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("Fraction must be between 0 and 1: " + fraction);
+        }
+        return fraction;
+    }
+
+    private record ScheduledReport(long offsetNanos, long sequence, SimulatedReport report) {
+
+    }
+
+    private class ReportIterator implements Iterator<SimulatedReport> {
+
+        private final SplittableRandom random = new SplittableRandom(seed);
+        private final PriorityQueue<ScheduledReport> pending = new PriorityQueue<>(
+            Comparator.comparingLong(ScheduledReport::offsetNanos).thenComparingLong(ScheduledReport::sequence)
+        );
+        private final long endNanos = duration.toNanos();
+        private final long startNanoOfDay = start.toLocalTime().toNanoOfDay();
+        private final int peakWeight = Arrays.stream(HOURLY_ORDER_WEIGHTS).max().orElseThrow();
+        private final double meanPeakInterarrivalNanos = (double) NANOS_PER_HOUR
+            * Arrays.stream(HOURLY_ORDER_WEIGHTS).sum() / peakWeight / ordersPerDay;
+        private long nextArrivalNanos = nextArrival(0);
+        private long orderIndex;
+        private long sequence;
+
+        @Override
+        public boolean hasNext() {
+            while (nextArrivalNanos < endNanos
+                && (pending.isEmpty() || nextArrivalNanos <= pending.peek().offsetNanos())) {
+                scheduleOrder(nextArrivalNanos);
+                nextArrivalNanos = nextArrival(nextArrivalNanos);
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public SimulatedReport next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pending.poll().report();
+        }
+
+        /**
+         * Thins a Poisson process at the peak hourly rate down to the rate of the hour each candidate falls in.
+         */
+        private long nextArrival(long fromNanos) {
+            double candidate = fromNanos;
+            while (true) {
+                candidate += random.nextExponential() * meanPeakInterarrivalNanos;
+                if (!(candidate < endNanos)) { // NaN too, when no orders make the interarrival infinite
+                    return endNanos;
+                }
+                final int hour = (int) ((startNanoOfDay + (long) candidate) / NANOS_PER_HOUR % 24);
+                if (random.nextInt(peakWeight) < HOURLY_ORDER_WEIGHTS[hour]) {
+                    return (long) candidate;
+                }
+            }
+        }
+
+        private void scheduleOrder(long arrivalNanos) {
+            final MessageValues orderValues = messageGenerator.drawValues(messageRequirements, orderIndex);
+            long reportNanos = arrivalNanos + delay(meanPreliminaryDelay);
+            if (random.nextDouble() < preliminaryFraction) {
+                schedule(ReportStatus.PRELIMINARY, reportNanos, orderValues.copy());
+                reportNanos += delay(meanFinalDelay);
+            }
+            schedule(ReportStatus.FINAL, reportNanos, orderValues.copy());
+            if (random.nextDouble() < correctionFraction) {
+                reportNanos += delay(meanCorrectionDelay);
+                schedule(ReportStatus.CORRECTED, reportNanos, orderValues.copy().setAbnormalities(
+                    RandomGenUtils.randomSubset(random, orderValues.getReportType().getAbnormalities(), 4)
+                ));
+            }
+            orderIndex++;
+        }
+
+        private void schedule(ReportStatus status, long offsetNanos, MessageValues messageValues) {
+            final String messageControlId = RandomGenUtils.randomUuid(random).toString();
+            if (offsetNanos >= endNanos) {
+                return;
+            }
+            final LocalDateTime timestamp = start.plusNanos(offsetNanos).truncatedTo(ChronoUnit.SECONDS);
+            messageValues
+                .setMessageControlId(messageControlId)
+                .setMessageDateTime(timestamp)
+                .setResultStatus(status.getCode());
+            pending.add(new ScheduledReport(
+                offsetNanos,
+                sequence++,
+                new SimulatedReport(timestamp, orderIndex, status, messageValues)
+            ));
+        }
+
+        private long delay(Duration mean) {
+            return (long) (random.nextExponential() * mean.toNanos());
+        }
+
+    }
+
+}
@@ -0,0 +1,17 @@
+package edu.washu.tag.hl7.v2.simulation;
+
+import edu.washu.tag.hl7.v2.MessageValues;
+import java.time.LocalDateTime;
+
+/**
+ * One message of an order's lifecycle. {@code orderIndex} identifies the order: every report with the same index
+ * shares the placer and filler order numbers, patient, visit and study.
+ */
+public record SimulatedReport(
+    LocalDateTime timestamp,
+    long orderIndex,
+    ReportStatus status,
+    MessageValues messageValues
+) {
+
+}
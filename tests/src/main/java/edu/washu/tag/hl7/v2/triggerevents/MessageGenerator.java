@@ -1,28 +1,178 @@
 package edu.washu.tag.hl7.v2.triggerevents;
 
-import ca.uhn.hl7v2.DefaultHapiContext;
 import ca.uhn.hl7v2.HL7Exception;
 import ca.uhn.hl7v2.HapiContext;
 import ca.uhn.hl7v2.model.Message;
-import ca.uhn.hl7v2.util.idgenerator.UUIDGenerator;
-import ca.uhn.hl7v2.validation.impl.ValidationContextFactory;
 import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.MessageValues;
+import edu.washu.tag.hl7.v2.context.HapiContextProvider;
+import edu.washu.tag.hl7.v2.er7.Er7MessageWriter;
+import edu.washu.tag.util.RandomSource;
 import java.io.IOException;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+import java.util.stream.LongStream;
 
-public abstract class MessageGenerator<X extends Message> {
+public abstract class MessageGenerator<X extends Message> implements AutoCloseable {
+
+    private HapiContextProvider hapiContextProvider = HapiContextProvider.fresh();
+    private RandomSource randomSource = RandomSource.unseeded();
+    private Clock clock = Clock.systemDefaultZone();
+    private final AtomicLong nextMessageIndex = new AtomicLong();
+
+    public HapiContextProvider getHapiContextProvider() {
+        return hapiContextProvider;
+    }
+
+    public MessageGenerator<X> setHapiContextProvider(HapiContextProvider hapiContextProvider) {
+        this.hapiContextProvider = hapiContextProvider;
+        return this;
+    }
+
+    public RandomSource getRandomSource() {
+        return randomSource;
+    }
+
+    /**
+     * Sets where message values are drawn from and restarts message numbering at 0, so that with a
+     * {@link RandomSource#seeded(long) seeded} source the same sequence of calls reproduces the same messages.
+     */
+    public MessageGenerator<X> setRandomSource(RandomSource randomSource) {
+        this.randomSource = randomSource;
+        nextMessageIndex.set(0);
+        return this;
+    }
+
+    public MessageGenerator<X> setSeed(long seed) {
+        return setRandomSource(RandomSource.seeded(seed));
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Sets where message timestamps come from. Together with a seed, a {@link Clock#fixed fixed} clock makes
+     * generated messages reproducible byte for byte, and an {@link Clock#offset offset} or
+     * {@link edu.washu.tag.util.SimulatedClock simulated} clock produces a corpus dated away from the present.
+     */
+    public MessageGenerator<X> setClock(Clock clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    public MessageValues drawValues(MessageRequirements messageRequirements) {
+        return drawValues(messageRequirements, nextMessageIndex.getAndIncrement());
+    }
+
+    public MessageValues drawValues(MessageRequirements messageRequirements, long messageIndex) {
+        return drawValues(messageRequirements, randomSource.forMessage(messageIndex));
+    }
 
     public X generate(MessageRequirements messageRequirements) {
-        final HapiContext context = new DefaultHapiContext();
-        context.getParserConfiguration().setIdGenerator(new UUIDGenerator());
-        context.setValidationContext(ValidationContextFactory.noValidation());
+        return generate(messageRequirements, drawValues(messageRequirements));
+    }
+
+    public X generate(MessageRequirements messageRequirements, MessageValues messageValues) {
+        final HapiContext context = hapiContextProvider.acquire();
         try {
-            return generateMessage(context, messageRequirements);
+            return generateMessage(context, messageRequirements, messageValues);
         } catch (IOException | HL7Exception e) {
             throw new RuntimeException(e);
+        } finally {
+            hapiContextProvider.release(context);
+        }
+    }
+
+    public String generateEr7(MessageRequirements messageRequirements) {
+        return generateEr7(messageRequirements, drawValues(messageRequirements), new Er7MessageWriter()).toString();
+    }
+
+    /**
+     * Fast path that writes the message as ER7 straight into {@code messageWriter} without building the HAPI model.
+     * The output is identical to {@code generate(messageRequirements, messageValues).encode()}. The returned sequence
+     * is the writer's buffer, so it is only valid until the writer is next used.
+     */
+    public CharSequence generateEr7(MessageRequirements messageRequirements, MessageValues messageValues,
+        Er7MessageWriter messageWriter) {
+        messageWriter.reset();
+        writeMessage(messageRequirements, messageValues, messageWriter);
+        return messageWriter.finish();
+    }
+
+    public List<X> generateBatch(int count, MessageRequirements messageRequirements, int parallelism) {
+        validateBatch(count, parallelism, 1);
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return generateRange(pool, nextMessageIndex.getAndAdd(count), count, messageRequirements);
+        } finally {
+            pool.shutdown();
         }
     }
 
-    protected abstract X generateMessage(HapiContext hapiContext, MessageRequirements messageRequirements)
-        throws HL7Exception, IOException;
+    /**
+     * Generates {@code count} messages across {@code parallelism} threads, handing them to {@code chunkConsumer} on the
+     * calling thread in generation order, at most {@code chunkSize} at a time. Only one chunk is held in memory at once,
+     * so this is the entry point for corpora too large to collect into a single list. Pair with
+     * {@link HapiContextProvider#perThread()} to avoid building a HapiContext per message. Each message's values
+     * depend only on its index in the batch, so a seeded batch is identical for any {@code parallelism}.
+     */
+    public void generateBatch(int count, MessageRequirements messageRequirements, int parallelism, int chunkSize,
+        Consumer<List<X>> chunkConsumer) {
+        validateBatch(count, parallelism, chunkSize);
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final long firstIndex = nextMessageIndex.getAndAdd(count);
+            for (int chunkStart = 0; chunkStart < count; chunkStart += chunkSize) {
+                final int chunkLength = Math.min(count - chunkStart, chunkSize);
+                chunkConsumer.accept(generateRange(pool, firstIndex + chunkStart, chunkLength, messageRequirements));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public List<X> generateBatch(int count, MessageRequirements messageRequirements) {
+        return generateBatch(count, messageRequirements, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public void close() {
+        hapiContextProvider.close();
+    }
+
+    private static void validateBatch(int count, int parallelism, int chunkSize) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative: " + count);
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+    }
+
+    private List<X> generateRange(ForkJoinPool pool, long firstIndex, int count,
+        MessageRequirements messageRequirements) {
+        return pool.submit(() -> LongStream
+            .range(firstIndex, firstIndex + count)
+            .parallel()
+            .mapToObj(index -> generate(messageRequirements, drawValues(messageRequirements, index)))
+            .toList()
+        ).join();
+    }
+
+    protected abstract MessageValues drawValues(MessageRequirements messageRequirements, RandomGenerator random);
+
+    protected abstract X generateMessage(HapiContext hapiContext, MessageRequirements messageRequirements,
+        MessageValues messageValues) throws HL7Exception, IOException;
+
+    protected abstract void writeMessage(MessageRequirements messageRequirements, MessageValues messageValues,
+        Er7MessageWriter messageWriter);
 
 }
@@ -8,7 +8,18 @@ import ca.uhn.hl7v2.model.v281.segment.MSH;
 import edu.washu.tag.hl7.v2.GenerationContext;
 import edu.washu.tag.hl7.v2.GeneratorConstants;
 import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.MessageValues;
+import edu.washu.tag.hl7.v2.er7.Er7MessageWriter;
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
+import edu.washu.tag.hl7.v2.id.DicomUidAllocator;
+import edu.washu.tag.hl7.v2.id.IdAllocators;
+import edu.washu.tag.hl7.v2.id.IdNamespace;
+import edu.washu.tag.hl7.v2.model.PatientIdEncoder;
 import edu.washu.tag.hl7.v2.model.Person;
+import edu.washu.tag.hl7.v2.population.Patient;
+import edu.washu.tag.hl7.v2.population.PatientPopulation;
+import edu.washu.tag.hl7.v2.report.ReportTemplate;
+import edu.washu.tag.hl7.v2.report.ReportType;
 import edu.washu.tag.hl7.v2.segment.MshGenerator;
 import edu.washu.tag.hl7.v2.segment.ObrGenerator;
 import edu.washu.tag.hl7.v2.segment.ObxGenerator;
@@ -17,63 +28,138 @@ import edu.washu.tag.hl7.v2.segment.PidGenerator;
 import edu.washu.tag.hl7.v2.segment.Pv1Generator;
 import edu.washu.tag.hl7.v2.segment.ZdsGenerator;
 import edu.washu.tag.hl7.v2.segment.ZpfGenerator;
-import edu.washu.tag.util.FileIOUtils;
 import edu.washu.tag.util.RandomGenUtils;
 import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
+import java.util.random.RandomGenerator;
 
 public class UnsolicitedObservationTransmissionGenerator extends MessageGenerator<ORU_R01> {
 
-    private static final String SAMPLE_READ = FileIOUtils.readResource("/sample_read.txt");
-    private static final List<String> abnormalities = Arrays.asList(
-        "arterial wall calcification",
-        "pericardial effusion",
-        "emphysema",
-        "atelectasis",
-        "lung nodules",
-        "pleural effusion",
-        "peribronchial thickening",
-        "bronchiectasis"
-    );
     private static final int LINE_LENGTH_WRAP = 70;
+    /**
+     * Reused across messages on each thread to keep the segment index, and cleared once each message is built so
+     * idle threads do not hold on to the last message.
+     */
+    private static final ThreadLocal<GenerationContext> generationContexts = ThreadLocal.withInitial(
+        () -> new GenerationContext(null, null, null)
+    );
+    private static final ThreadLocal<StringBuilder> reportBuffer = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+    private static final MshGenerator mshGenerator = new MshGenerator();
+    private static final PidGenerator pidGenerator = new PidGenerator();
+    private static final Pv1Generator pv1Generator = new Pv1Generator();
+    private static final OrcGenerator orcGenerator = new OrcGenerator();
+    private static final ObrGenerator obrGenerator = new ObrGenerator();
+    private static final ZpfGenerator zpfGenerator = new ZpfGenerator();
+    private static final ZdsGenerator zdsGenerator = new ZdsGenerator();
 
     @Override
-    public ORU_R01 generateMessage(HapiContext hapiContext, MessageRequirements messageRequirements)
-        throws HL7Exception, IOException {
+    protected MessageValues drawValues(MessageRequirements messageRequirements, RandomGenerator random) {
+        final MessageValues messageValues = new MessageValues();
+        final PatientPopulation patientPopulation = messageRequirements.getPatientPopulation();
+        final IdAllocators idAllocators = messageRequirements.getIdAllocators();
+        if (patientPopulation != null) {
+            final Patient patient = patientPopulation.getPatient(
+                patientPopulation.sample(random),
+                PidGenerator.patientIdEncoders
+            );
+            messageValues
+                .setPatient(patient)
+                .setPatientIds(patient.patientIds().subList(0, messageRequirements.getNumPatientIds()))
+                .setDateOfBirth(patient.dateOfBirth());
+        } else {
+            final List<String> patientIds = new ArrayList<>();
+            for (int i = 0; i < messageRequirements.getNumPatientIds(); i++) {
+                final PatientIdEncoder patientIdEncoder = PidGenerator.patientIdEncoders.get(i);
+                patientIds.add(idAllocators == null
+                    ? patientIdEncoder.generateId(random)
+                    : patientIdEncoder.allocateId(idAllocators));
+            }
+            messageValues
+                .setPatient(Patient.DEFAULT)
+                .setPatientIds(patientIds)
+                .setDateOfBirth(LocalDate.of(1900, 1, 1).plusDays(
+                    random.nextInt(36525) // 100 years
+                ));
+        }
+        messageValues
+            .setMessageControlId(RandomGenUtils.randomUuid(random).toString())
+            .setMessageDateTime(LocalDateTime.now(getClock()));
+        if (idAllocators == null) {
+            messageValues
+                .setVisitNumber("V" + RandomGenUtils.randomId(random, 8))
+                .setPlacerOrderNumber(RandomGenUtils.randomIdStr(random))
+                .setFillerOrderNumber(RandomGenUtils.randomIdStr(random));
+        } else {
+            messageValues
+                .setVisitNumber("V" + idAllocators.nextId(IdNamespace.VISIT_NUMBER))
+                .setPlacerOrderNumber(idAllocators.nextId(IdNamespace.PLACER_ORDER_NUMBER))
+                .setFillerOrderNumber(idAllocators.nextId(IdNamespace.FILLER_ORDER_NUMBER));
+        }
+        final List<ReportType> reportTypes = messageRequirements.getReportTypes();
+        final ReportType reportType = reportTypes.get(random.nextInt(reportTypes.size()));
+        messageValues
+            .setResultStatus(messageRequirements.getOrcStatus())
+            .setReportType(reportType)
+            .setAbnormalities(RandomGenUtils.randomSubset(random, reportType.getAbnormalities(), 4));
+        final DicomUidAllocator dicomUidAllocator = messageRequirements.getDicomUidAllocator();
+        return messageValues.setStudyInstanceUid(dicomUidAllocator == null
+            ? toDicomUid(RandomGenUtils.randomUuid(random))
+            : dicomUidAllocator.studyInstanceUid(messageValues));
+    }
+
+    @Override
+    public ORU_R01 generateMessage(HapiContext hapiContext, MessageRequirements messageRequirements,
+        MessageValues messageValues) throws HL7Exception, IOException {
         final ORU_R01 radReport = hapiContext.newMessage(ORU_R01.class);
-        final GenerationContext generationContext = new GenerationContext(hapiContext, radReport, messageRequirements);
+        final GenerationContext generationContext = generationContexts.get()
+            .reset(hapiContext, radReport, messageRequirements)
+            .setMessageValues(messageValues);
+        try {
+            generateSegments(generationContext, radReport);
+        } finally {
+            generationContext.clear();
+        }
+        return radReport;
+    }
+
+    @Override
+    protected void writeMessage(MessageRequirements messageRequirements, MessageValues messageValues,
+        Er7MessageWriter messageWriter) {
+        final GenerationContext generationContext = generationContexts.get()
+            .reset(null, null, messageRequirements)
+            .setMessageValues(messageValues);
+        try {
+            writeSegments(generationContext, messageWriter);
+        } finally {
+            generationContext.clear();
+        }
+    }
 
+    private void generateSegments(GenerationContext generationContext, ORU_R01 radReport)
+        throws HL7Exception, IOException {
         final MSH msh = radReport.getMSH();
-        new MshGenerator().generate(generationContext, msh);
+        mshGenerator.generate(generationContext, msh);
         msh.getMsh9_MessageType().getMessageCode().setValue("ORU");
         msh.getMsh9_MessageType().getTriggerEvent().setValue("R01"); // intentionally skipping MSH-9.3
         msh.getMsh11_ProcessingID().getPt1_ProcessingID().setValue("P");
         msh.getMsh12_VersionID().getVid1_VersionID().setValue("2.7");
 
         final ORU_R01_PATIENT patientObj = radReport.getPATIENT_RESULT().getPATIENT();
-        new PidGenerator().generate(generationContext, patientObj.getPID());
-        new Pv1Generator().generate(generationContext, patientObj.getVISIT().getPV1());
-        new OrcGenerator().generate(generationContext, radReport.getPATIENT_RESULT()
+        pidGenerator.generate(generationContext, patientObj.getPID());
+        pv1Generator.generate(generationContext, patientObj.getVISIT().getPV1());
+        orcGenerator.generate(generationContext, radReport.getPATIENT_RESULT()
             .getORDER_OBSERVATION().getCOMMON_ORDER().getORC());
-        new ObrGenerator().generate(generationContext, radReport.getPATIENT_RESULT()
+        obrGenerator.generate(generationContext, radReport.getPATIENT_RESULT()
             .getORDER_OBSERVATION().getOBR());
-        new ZpfGenerator().generateSegment(generationContext);
-
-        final List<ObxGenerator> obxGenerators = new ArrayList<>();
-        obxGenerators.add(new ObxGenerator(false, "EXAMINATION: 1 view chest radiograph"));
-        obxGenerators.add(new ObxGenerator(false, ""));
-
-        final List<String> randomAbnormalities = RandomGenUtils.randomSubset(abnormalities, 4);
-        final String fullReport = addValues(generationContext, randomAbnormalities);
-
-        for (String line : fullReport.split("\n")) {
-            for (String splitLine : splitLongLines(line)) {
-                obxGenerators.add(new ObxGenerator(true, splitLine));
-            }
-        }
+        zpfGenerator.generateSegment(generationContext);
 
+        final List<ObxGenerator> obxGenerators = obxGenerators(generationContext);
         for (int i = 0; i < obxGenerators.size(); i++) {
             obxGenerators
                 .get(i)
@@ -82,34 +168,72 @@ public class UnsolicitedObservationTransmissionGenerator extends MessageGenerato
                     .getOBX());
         }
 
-        new ZdsGenerator().generateSegment(generationContext);
+        zdsGenerator.generateSegment(generationContext);
+    }
+
+    private void writeSegments(GenerationContext generationContext, Er7MessageWriter messageWriter) {
+        final Er7SegmentWriter msh = mshGenerator.write(generationContext, messageWriter);
+        msh.set(9, 0, 1, 1, "ORU");
+        msh.set(9, 0, 2, 1, "R01"); // intentionally skipping MSH-9.3
+        msh.set(11, "P");
+        msh.set(12, "2.7");
 
-        return radReport;
+        pidGenerator.write(generationContext, messageWriter);
+        pv1Generator.write(generationContext, messageWriter);
+        orcGenerator.write(generationContext, messageWriter);
+        obrGenerator.write(generationContext, messageWriter);
+        zpfGenerator.write(generationContext, messageWriter);
+
+        final List<ObxGenerator> obxGenerators = obxGenerators(generationContext);
+        for (int i = 0; i < obxGenerators.size(); i++) {
+            obxGenerators
+                .get(i)
+                .setSetId(i)
+                .write(generationContext, messageWriter);
+        }
+
+        zdsGenerator.write(generationContext, messageWriter);
     }
 
-    private List<String> splitLongLines(String line) {
-        return splitLongLines(new ArrayList<>(), line);
+    /**
+     * The UUID-derived "2.25." form that {@link org.dcm4che3.util.UIDUtils#createUID()} produces, but from a UUID
+     * drawn from the message's random source.
+     */
+    private static String toDicomUid(UUID uuid) {
+        final byte[] bytes = ByteBuffer.allocate(16)
+            .putLong(uuid.getMostSignificantBits())
+            .putLong(uuid.getLeastSignificantBits())
+            .array();
+        return "2.25." + new BigInteger(1, bytes);
     }
 
-    private List<String> splitLongLines(List<String> split, String remainingString) {
-        if (remainingString.length() < LINE_LENGTH_WRAP) {
-            split.add(remainingString);
-            return split;
-        }
-        final int lastSpace = remainingString.substring(0, LINE_LENGTH_WRAP).lastIndexOf(" ");
-        split.add(remainingString.substring(0, lastSpace).trim());
-        return splitLongLines(split, remainingString.substring(lastSpace + 1));
+    private List<ObxGenerator> obxGenerators(GenerationContext generationContext) {
+        final ReportType reportType = generationContext.getMessageValues().getReportType();
+        final List<ObxGenerator> obxGenerators = new ArrayList<>();
+        obxGenerators.add(new ObxGenerator(false, reportType.getExamination()));
+        obxGenerators.add(new ObxGenerator(false, ""));
+
+        final StringBuilder fullReport = reportType.getTemplate().render(
+            reportBuffer.get(),
+            placeholder -> placeholderValue(generationContext, placeholder)
+        );
+        ReportTemplate.wrapLines(fullReport, LINE_LENGTH_WRAP, line -> obxGenerators.add(new ObxGenerator(true, line)));
+        return obxGenerators;
     }
 
-    private static String addValues(GenerationContext generationContext,
-        List<String> randomAbnormalities) {
-        final Person interpreter = generationContext.getInterpreter();
-        return SAMPLE_READ
-            .replace(GeneratorConstants.ABNORMALITY_1_PLACEHOLDER, randomAbnormalities.get(0))
-            .replace(GeneratorConstants.ABNORMALITY_2_PLACEHOLDER, randomAbnormalities.get(1))
-            .replace(GeneratorConstants.ABNORMALITY_3_PLACEHOLDER, randomAbnormalities.get(2))
-            .replace(GeneratorConstants.ABNORMALITY_4_PLACEHOLDER, randomAbnormalities.get(3))
-            .replace(GeneratorConstants.INTERPRETER_PLACEHOLDER, interpreter.getGivenName() + " " + interpreter.getFamilyName().getSurname());
+    private static String placeholderValue(GenerationContext generationContext, String placeholder) {
+        final List<String> abnormalities = generationContext.getMessageValues().getAbnormalities();
+        return switch (placeholder) {
+            case GeneratorConstants.ABNORMALITY_1_PLACEHOLDER -> abnormalities.get(0);
+            case GeneratorConstants.ABNORMALITY_2_PLACEHOLDER -> abnormalities.get(1);
+            case GeneratorConstants.ABNORMALITY_3_PLACEHOLDER -> abnormalities.get(2);
+            case GeneratorConstants.ABNORMALITY_4_PLACEHOLDER -> abnormalities.get(3);
+            case GeneratorConstants.INTERPRETER_PLACEHOLDER -> {
+                final Person interpreter = generationContext.getInterpreter().getPerson();
+                yield interpreter.getGivenName() + " " + interpreter.getFamilyName().getSurname();
+            }
+            default -> throw new IllegalArgumentException("Unknown report placeholder " + placeholder);
+        };
     }
 
 }
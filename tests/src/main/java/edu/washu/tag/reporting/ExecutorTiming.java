@@ -0,0 +1,53 @@
+package edu.washu.tag.reporting;
+
+/**
+ * Accumulates when one executor's tests ran. Wall time spans from the first test starting to the last one finishing,
+ * while busy time sums the tests' own durations, so the two differ by setup, teardown and idle time, or overlap when
+ * tests run in parallel. Only instances with a recorded start time are counted.
+ */
+public class ExecutorTiming {
+
+    private long firstStartMillis = Long.MAX_VALUE;
+    private long lastEndMillis = Long.MIN_VALUE;
+    private long busyMillis;
+    private long cpuTimeNanos;
+    private int timedTests;
+
+    public ExecutorTiming add(TestInstance testInstance) {
+        if (testInstance.startMillis() <= 0) {
+            return this;
+        }
+        firstStartMillis = Math.min(firstStartMillis, testInstance.startMillis());
+        lastEndMillis = Math.max(lastEndMillis, testInstance.startMillis() + testInstance.durationMillis());
+        busyMillis += testInstance.durationMillis();
+        cpuTimeNanos += Math.max(0, testInstance.cpuTimeNanos());
+        timedTests++;
+        return this;
+    }
+
+    public ExecutorTiming addAll(ExecutorTiming other) {
+        firstStartMillis = Math.min(firstStartMillis, other.firstStartMillis);
+        lastEndMillis = Math.max(lastEndMillis, other.lastEndMillis);
+        busyMillis += other.busyMillis;
+        cpuTimeNanos += other.cpuTimeNanos;
+        timedTests += other.timedTests;
+        return this;
+    }
+
+    public long getWallTimeMillis() {
+        return timedTests == 0 ? 0 : lastEndMillis - firstStartMillis;
+    }
+
+    public long getBusyMillis() {
+        return busyMillis;
+    }
+
+    public long getCpuTimeNanos() {
+        return cpuTimeNanos;
+    }
+
+    public int getTimedTests() {
+        return timedTests;
+    }
+
+}
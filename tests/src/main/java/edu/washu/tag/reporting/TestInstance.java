@@ -3,10 +3,30 @@ package edu.washu.tag.reporting;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.List;
 
-public record TestInstance(TestResult testResult, List<String> parameters) {
+/**
+ * One invocation of a test. Timings are 0 in results recorded before they were tracked, and {@code cpuTimeNanos} and
+ * {@code allocatedBytes} are -1 where the JVM cannot measure them. Both are measured on the thread running the test,
+ * so work it hands to other threads is not included.
+ */
+public record TestInstance(
+        TestResult testResult,
+        List<String> parameters,
+        long startMillis,
+        long durationMillis,
+        String threadName,
+        long cpuTimeNanos,
+        long allocatedBytes) {
 
     public enum TestResult { PASSED, FAILED, SKIPPED }
 
+    public TestInstance(TestResult testResult, List<String> parameters) {
+        this(testResult, parameters, 0);
+    }
+
+    public TestInstance(TestResult testResult, List<String> parameters, long durationMillis) {
+        this(testResult, parameters, 0, durationMillis, null, -1, -1);
+    }
+
     @JsonIgnore
     public String represent(String testName) {
         return testName + serializeParams() + ": " + testResult;
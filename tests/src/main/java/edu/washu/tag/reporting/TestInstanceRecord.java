@@ -0,0 +1,9 @@
+package edu.washu.tag.reporting;
+
+/**
+ * One line of an incremental results file: a single test invocation together with the test it belongs to and the
+ * executor that ran it.
+ */
+public record TestInstanceRecord(int executorId, String testClassName, String testName, TestInstance testInstance) {
+
+}
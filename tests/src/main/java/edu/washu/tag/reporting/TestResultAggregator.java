@@ -1,11 +1,20 @@
 package edu.washu.tag.reporting;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Comparator;
 import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Stream;
 import org.apache.commons.lang3.StringUtils;
@@ -15,52 +24,191 @@ import org.slf4j.LoggerFactory;
 public class TestResultAggregator {
 
     private static final Logger log = LoggerFactory.getLogger(TestResultAggregator.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int SLOWEST_TESTS_REPORTED = 10;
+    private static final ObjectReader testClassReader = objectMapper.readerFor(TestClassRepresentation.class);
 
     public static void main(String[] args) {
         final File resultDirectory = new File(args[0]);
-        final ObjectMapper objectMapper = new ObjectMapper();
-        final List<TestSuiteRepresentation> partialSuites;
 
         System.out.println("Running test aggregator...");
 
-        try (Stream<Path> stream = Files.walk(resultDirectory.toPath())) {
-            partialSuites = stream
-                    .filter(path -> path.toFile().isFile() && path.toFile().getName().endsWith(".json"))
-                    .map(jsonFile -> {
-                        try {
-                            return objectMapper.readValue(jsonFile.toFile(), TestSuiteRepresentation.class);
-                        } catch (IOException e) {
-                            throw new RuntimeException(e);
-                        }
-                    }).toList();
+        final TestSuiteMerger merger;
+        try {
+            merger = aggregate(resultDirectory.toPath());
         } catch (IOException e) {
             log.warn("Failed to read suite logs", e);
             return;
         }
 
-        final TestSuiteRepresentation aggregated = new TestSuiteRepresentation(
-                0,
-                partialSuites
-                        .stream()
-                        .map(TestSuiteRepresentation::testClasses)
-                        .flatMap(List::stream)
-                        .toList()
-        );
-        final int overallPassing = aggregated.countTestInstances(TestInstance.TestResult.PASSED);
-        final int overallFailing = aggregated.countTestInstances(TestInstance.TestResult.FAILED);
-        final int overallSkipped = aggregated.countTestInstances(TestInstance.TestResult.SKIPPED);
+        final TestSuiteRepresentation aggregated = merger.toSuiteRepresentation(0);
+        final int overallPassing = merger.countTestInstances(TestInstance.TestResult.PASSED);
+        final int overallFailing = merger.countTestInstances(TestInstance.TestResult.FAILED);
+        final int overallSkipped = merger.countTestInstances(TestInstance.TestResult.SKIPPED);
         final int countWidth = Stream.of(overallPassing, overallFailing, overallSkipped)
                 .mapToInt(count -> String.valueOf(count).length()) // number of digits in count
                 .max()
                 .getAsInt();
         Function<Integer, String> pad = (testCount) -> StringUtils.leftPad(Integer.toString(testCount), countWidth, ' ');
 
-        System.out.printf("Test Suite completed distributed across %d nodes. Overall results:%n", partialSuites.size());
+        System.out.printf("Test Suite completed distributed across %d nodes. Overall results:%n", merger.getSuitesMerged());
         System.out.println("  " + pad.apply(overallPassing) + " PASSING");
         System.out.println("  " + pad.apply(overallFailing) + " FAILING");
         System.out.println("  " + pad.apply(overallSkipped) + " SKIPPED\n");
 
+        System.out.println(summarizeTimings(merger, aggregated, SLOWEST_TESTS_REPORTED));
+
         System.out.println(aggregated);
     }
 
+    /**
+     * Reads every JSON partial suite and every incremental JSON lines result file under {@code resultDirectory},
+     * parsing files in parallel and each one incrementally, then merges them in path order so the result does not
+     * depend on scheduling.
+     */
+    public static TestSuiteMerger aggregate(Path resultDirectory) throws IOException {
+        final List<Path> suiteFiles;
+        try (Stream<Path> stream = Files.walk(resultDirectory)) {
+            suiteFiles = stream
+                    .filter(path -> Files.isRegularFile(path) && isResultFile(path))
+                    .sorted()
+                    .toList();
+        }
+        return suiteFiles
+                .parallelStream()
+                .map(TestResultAggregator::readSuite)
+                .collect(TestSuiteMerger::new, TestSuiteMerger::addAll, TestSuiteMerger::addAll);
+    }
+
+    static TestSuiteMerger readSuite(Path suiteFile) {
+        if (suiteFile.getFileName().toString().endsWith(".jsonl")) {
+            return readIncrementalResults(suiteFile);
+        }
+        final TestSuiteMerger merger = new TestSuiteMerger().markSuiteMerged();
+        final ExecutorTiming timing = new ExecutorTiming();
+        int executorId = 0;
+        try (JsonParser parser = objectMapper.createParser(suiteFile.toFile())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a test suite object in " + suiteFile);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String fieldName = parser.currentName();
+                final JsonToken valueToken = parser.nextToken();
+                if ("testClasses".equals(fieldName) && valueToken == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        final TestClassRepresentation testClass = testClassReader.readValue(parser);
+                        merger.add(testClass);
+                        for (TestRepresentation test : testClass.tests()) {
+                            test.testResults().forEach(timing::add);
+                        }
+                    }
+                } else if ("executorId".equals(fieldName) && valueToken == JsonToken.VALUE_NUMBER_INT) {
+                    executorId = parser.getIntValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return merger.addExecutorTiming(executorId, timing);
+    }
+
+    /**
+     * Reads results written one per line by {@link TestSuiteExporter} in incremental mode. An executor killed mid-write
+     * may leave a truncated last line, so reading stops at the first line that does not parse.
+     */
+    static TestSuiteMerger readIncrementalResults(Path resultsFile) {
+        final TestSuiteMerger merger = new TestSuiteMerger().markSuiteMerged();
+        try (BufferedReader reader = Files.newBufferedReader(resultsFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                final TestInstanceRecord record;
+                try {
+                    record = objectMapper.readValue(line, TestInstanceRecord.class);
+                } catch (JsonProcessingException e) {
+                    log.warn("Ignoring unreadable test results in {} from: {}", resultsFile, line, e);
+                    break;
+                }
+                merger.add(record.testClassName(), record.testName(), record.testInstance());
+                merger.addExecutorTiming(record.executorId(), new ExecutorTiming().add(record.testInstance()));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return merger;
+    }
+
+    /**
+     * Lists the slowest test invocations and each executor's wall time, with the skew between executors: how much
+     * longer the slowest executor ran than the mean, and how far behind the fastest it finished.
+     */
+    public static String summarizeTimings(
+            TestSuiteMerger merger,
+            TestSuiteRepresentation aggregated,
+            int slowestCount) {
+        final StringBuilder summary = new StringBuilder("Slowest tests:\n");
+        aggregated.testClasses()
+                .stream()
+                .flatMap(testClass -> testClass.tests()
+                        .stream()
+                        .flatMap(test -> {
+                            final String name = testClass.testClassName() + "." + test.testName();
+                            return test.testResults().stream().map(instance -> new TimedTest(name, instance));
+                        })
+                )
+                .sorted(Comparator.comparingLong(TimedTest::durationMillis).reversed())
+                .limit(slowestCount)
+                .forEach(timedTest -> summary.append(String.format(
+                        "  %9.3fs  cpu %s  alloc %s  %s%n",
+                        timedTest.instance().durationMillis() / 1e3,
+                        timedTest.instance().cpuTimeNanos() < 0
+                                ? "n/a"
+                                : String.format("%.3fs", timedTest.instance().cpuTimeNanos() / 1e9),
+                        timedTest.instance().allocatedBytes() < 0
+                                ? "n/a"
+                                : String.format("%.1fMB", timedTest.instance().allocatedBytes() / 1e6),
+                        timedTest.instance().represent(timedTest.name())
+                )));
+
+        final Map<Integer, ExecutorTiming> executorTimings = merger.getExecutorTimings();
+        summary.append("\nExecutor timings:\n");
+        executorTimings.forEach((executorId, timing) -> summary.append(String.format(
+                "  executor %d: %.1fs wall, %.1fs in tests, %.1fs CPU over %d timed tests%n",
+                executorId,
+                timing.getWallTimeMillis() / 1e3,
+                timing.getBusyMillis() / 1e3,
+                timing.getCpuTimeNanos() / 1e9,
+                timing.getTimedTests()
+        )));
+        final LongSummaryStatistics wallTimes = executorTimings.values()
+                .stream()
+                .mapToLong(ExecutorTiming::getWallTimeMillis)
+                .summaryStatistics();
+        if (wallTimes.getCount() > 1 && wallTimes.getAverage() > 0) {
+            summary.append(String.format(
+                    "Skew: slowest executor ran %.2fx the mean and finished %.1fs after the fastest%n",
+                    wallTimes.getMax() / wallTimes.getAverage(),
+                    (wallTimes.getMax() - wallTimes.getMin()) / 1e3
+            ));
+        }
+        return summary.toString();
+    }
+
+    private record TimedTest(String name, TestInstance instance) {
+
+        long durationMillis() {
+            return instance.durationMillis();
+        }
+
+    }
+
+    private static boolean isResultFile(Path path) {
+        final String fileName = path.getFileName().toString();
+        return Files.isRegularFile(path) && (fileName.endsWith(".json") || fileName.endsWith(".jsonl"));
+    }
+
 }
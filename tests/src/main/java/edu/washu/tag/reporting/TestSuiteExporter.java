@@ -2,12 +2,21 @@ package edu.washu.tag.reporting;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.washu.tag.TestSettings;
+import edu.washu.tag.testcontrol.WorkStealingHook;
 import groovy.lang.Tuple2;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.IReporter;
@@ -15,16 +24,43 @@ import org.testng.IResultMap;
 import org.testng.ISuite;
 import org.testng.ISuiteResult;
 import org.testng.ITestContext;
+import org.testng.ITestListener;
 import org.testng.ITestResult;
 import org.testng.xml.XmlSuite;
 
-public class TestSuiteExporter implements IReporter {
+/**
+ * Records this executor's test results for {@link TestResultAggregator}. By default the whole suite is written as one
+ * JSON file once it finishes. With {@link TestSettings#INCREMENTAL_RESULTS}, each result is instead appended to a JSON
+ * lines file of {@link TestInstanceRecord}s as soon as the test completes, so results survive an executor that never
+ * reaches the end of the suite.
+ */
+public class TestSuiteExporter implements IReporter, ITestListener {
 
     private static final Logger log = LoggerFactory.getLogger(TestSuiteExporter.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean allocationMxBean =
+            threadMxBean instanceof com.sun.management.ThreadMXBean sunThreadMxBean
+                    && sunThreadMxBean.isThreadAllocatedMemorySupported()
+                    ? sunThreadMxBean
+                    : null;
+    private static final String CPU_TIME_ATTRIBUTE = "metrics.cpuTimeNanos";
+    private static final String ALLOCATED_BYTES_ATTRIBUTE = "metrics.allocatedBytes";
+    private static final String THREAD_NAME_ATTRIBUTE = "metrics.threadName";
+    /**
+     * Results files already opened by this run. The first open truncates whatever an earlier run in the same output
+     * directory left behind; later tests in the suite append to it.
+     */
+    private static final Set<Path> startedResultFiles = ConcurrentHashMap.newKeySet();
+
+    private BufferedWriter incrementalWriter;
 
     @Override
     public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
-        final List<TestClassRepresentation> testClasses = new ArrayList<>();
+        if (TestSettings.INCREMENTAL_RESULTS) {
+            return;
+        }
+        final TestSuiteMerger merger = new TestSuiteMerger();
 
         for (ISuite suite : suites) {
             for (ISuiteResult result : suite.getResults().values()) {
@@ -35,54 +71,158 @@ public class TestSuiteExporter implements IReporter {
                         new Tuple2<>(testContext.getSkippedTests(), TestInstance.TestResult.SKIPPED))) {
 
                     for (ITestResult testResult : testSubset.getV1().getAllResults()) {
-                        final String testClassName = testResult.getTestClass().getName();
-                        final String testName = testResult.getName();
-                        final TestClassRepresentation testClassRepresentation = testClasses
-                                .stream()
-                                .filter(rep -> rep.testClassName().equals(testClassName))
-                                .findAny()
-                                .orElseGet(() -> {
-                                    final TestClassRepresentation classRep = new TestClassRepresentation(testClassName, new ArrayList<>());
-                                    testClasses.add(classRep);
-                                    return classRep;
-                                });
-
-                        final TestRepresentation testRepresentation = testClassRepresentation
-                                .tests()
-                                .stream()
-                                .filter(rep -> rep.testName().equals(testName))
-                                .findAny()
-                                .orElseGet(() -> {
-                                    final TestRepresentation testRep = new TestRepresentation(testName, new ArrayList<>());
-                                    testClassRepresentation.tests().add(testRep);
-                                    return testRep;
-                                });
-
-                        testRepresentation.testResults().add(
-                                new TestInstance(
-                                        testSubset.getV2(),
-                                        Arrays.stream(testResult.getParameters())
-                                                .map(Object::toString)
-                                                .toList()
-                                )
+                        if (WorkStealingHook.isClaimedElsewhere(testResult)) {
+                            continue;
+                        }
+                        merger.add(
+                                testResult.getTestClass().getName(),
+                                testResult.getName(),
+                                toTestInstance(testResult, testSubset.getV2())
                         );
                     }
                 }
             }
         }
 
-        final TestSuiteRepresentation suiteRepresentation = new TestSuiteRepresentation(
-                TestSettings.EXECUTOR_ID,
-                testClasses
-        );
         try {
-            new ObjectMapper().writeValue(
+            objectMapper.writeValue(
                     Paths.get(outputDirectory, "test_executions_" + TestSettings.EXECUTOR_ID + ".json").toFile(),
-                    suiteRepresentation
+                    merger.toSuiteRepresentation(TestSettings.EXECUTOR_ID)
             );
         } catch (IOException e) {
             log.warn("Failed to record test executions", e);
         }
     }
 
+    @Override
+    public synchronized void onStart(ITestContext context) {
+        if (!TestSettings.INCREMENTAL_RESULTS || incrementalWriter != null) {
+            return;
+        }
+        final Path resultsFile = Paths.get(
+                context.getSuite().getOutputDirectory(),
+                "test_executions_" + TestSettings.EXECUTOR_ID + ".jsonl"
+        );
+        try {
+            Files.createDirectories(resultsFile.getParent());
+            incrementalWriter = Files.newBufferedWriter(
+                    resultsFile,
+                    StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    startedResultFiles.add(resultsFile.toAbsolutePath())
+                            ? StandardOpenOption.TRUNCATE_EXISTING
+                            : StandardOpenOption.APPEND
+            );
+        } catch (IOException e) {
+            log.warn("Failed to open incremental test results", e);
+        }
+    }
+
+    /**
+     * Starts measuring the test's CPU time and allocations. TestNG calls this and the completion callbacks on the
+     * thread running the test, so the difference at completion belongs to the test.
+     */
+    @Override
+    public void onTestStart(ITestResult result) {
+        result.setAttribute(THREAD_NAME_ATTRIBUTE, Thread.currentThread().getName());
+        result.setAttribute(CPU_TIME_ATTRIBUTE, currentThreadCpuTime());
+        result.setAttribute(ALLOCATED_BYTES_ATTRIBUTE, currentThreadAllocatedBytes());
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        finishMeasuring(result);
+        recordIncrementally(result, TestInstance.TestResult.PASSED);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        finishMeasuring(result);
+        recordIncrementally(result, TestInstance.TestResult.FAILED);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        finishMeasuring(result);
+        recordIncrementally(result, TestInstance.TestResult.SKIPPED);
+    }
+
+    @Override
+    public void onTestFailedWithTimeout(ITestResult result) {
+        onTestFailure(result);
+    }
+
+    @Override
+    public synchronized void onFinish(ITestContext context) {
+        if (incrementalWriter == null) {
+            return;
+        }
+        try {
+            incrementalWriter.close();
+        } catch (IOException e) {
+            log.warn("Failed to close incremental test results", e);
+        }
+        incrementalWriter = null;
+    }
+
+    private synchronized void recordIncrementally(ITestResult testResult, TestInstance.TestResult outcome) {
+        if (incrementalWriter == null || WorkStealingHook.isClaimedElsewhere(testResult)) {
+            return;
+        }
+        try {
+            incrementalWriter.write(objectMapper.writeValueAsString(new TestInstanceRecord(
+                    TestSettings.EXECUTOR_ID,
+                    testResult.getTestClass().getName(),
+                    testResult.getName(),
+                    toTestInstance(testResult, outcome)
+            )));
+            incrementalWriter.newLine();
+            incrementalWriter.flush();
+        } catch (IOException e) {
+            log.warn("Failed to record test execution", e);
+        }
+    }
+
+    private static TestInstance toTestInstance(ITestResult testResult, TestInstance.TestResult outcome) {
+        return new TestInstance(
+                outcome,
+                Arrays.stream(testResult.getParameters())
+                        .map(Object::toString)
+                        .toList(),
+                testResult.getStartMillis(),
+                Math.max(0, testResult.getEndMillis() - testResult.getStartMillis()),
+                (String) testResult.getAttribute(THREAD_NAME_ATTRIBUTE),
+                measured(testResult, CPU_TIME_ATTRIBUTE),
+                measured(testResult, ALLOCATED_BYTES_ATTRIBUTE)
+        );
+    }
+
+    private static void finishMeasuring(ITestResult testResult) {
+        updateDelta(testResult, CPU_TIME_ATTRIBUTE, currentThreadCpuTime());
+        updateDelta(testResult, ALLOCATED_BYTES_ATTRIBUTE, currentThreadAllocatedBytes());
+    }
+
+    /**
+     * Replaces the starting reading stored on the result with the amount used since, leaving -1 where either reading
+     * was unavailable. Results that never started, like skips from a failed configuration, get no attribute.
+     */
+    private static void updateDelta(ITestResult testResult, String attribute, long current) {
+        if (testResult.getAttribute(attribute) instanceof Long start) {
+            testResult.setAttribute(attribute, start < 0 || current < 0 ? -1L : current - start);
+        }
+    }
+
+    private static long measured(ITestResult testResult, String attribute) {
+        return testResult.getAttribute(attribute) instanceof Long measured ? measured : -1;
+    }
+
+    private static long currentThreadCpuTime() {
+        return threadMxBean.isCurrentThreadCpuTimeSupported() ? threadMxBean.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        return allocationMxBean == null ? -1 : allocationMxBean.getCurrentThreadAllocatedBytes();
+    }
+
 }
@@ -0,0 +1,101 @@
+package edu.washu.tag.reporting;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Merges test classes reported by any number of executors into one suite, combining a class or test that appears in
+ * several partial suites into a single entry, and counts results by outcome as they are added so no further traversal
+ * is needed. Classes and tests keep the order in which they are first seen. Not thread-safe; merge per-thread instances
+ * with {@link #addAll(TestSuiteMerger)}.
+ */
+public class TestSuiteMerger {
+
+    private final Map<String, Map<String, List<TestInstance>>> testClasses = new LinkedHashMap<>();
+    private final Map<TestInstance.TestResult, Integer> resultCounts = new EnumMap<>(TestInstance.TestResult.class);
+    private final Map<Integer, ExecutorTiming> executorTimings = new TreeMap<>();
+    private int suitesMerged;
+
+    public TestSuiteMerger add(TestClassRepresentation testClass) {
+        final Map<String, List<TestInstance>> tests = testClasses.computeIfAbsent(
+                testClass.testClassName(),
+                className -> new LinkedHashMap<>()
+        );
+        for (TestRepresentation test : testClass.tests()) {
+            addInstances(tests, test.testName(), test.testResults());
+        }
+        return this;
+    }
+
+    public TestSuiteMerger add(String testClassName, String testName, TestInstance testInstance) {
+        addInstances(
+                testClasses.computeIfAbsent(testClassName, className -> new LinkedHashMap<>()),
+                testName,
+                List.of(testInstance)
+        );
+        return this;
+    }
+
+    public TestSuiteMerger addAll(TestSuiteMerger other) {
+        other.testClasses.forEach((className, otherTests) -> {
+            final Map<String, List<TestInstance>> tests = testClasses.computeIfAbsent(
+                    className,
+                    key -> new LinkedHashMap<>()
+            );
+            otherTests.forEach((testName, instances) -> addInstances(tests, testName, instances));
+        });
+        other.executorTimings.forEach(this::addExecutorTiming);
+        suitesMerged += other.suitesMerged;
+        return this;
+    }
+
+    public TestSuiteMerger addExecutorTiming(int executorId, ExecutorTiming timing) {
+        executorTimings.computeIfAbsent(executorId, id -> new ExecutorTiming()).addAll(timing);
+        return this;
+    }
+
+    /**
+     * Returns the timing of each executor seen, by executor ID.
+     */
+    public Map<Integer, ExecutorTiming> getExecutorTimings() {
+        return executorTimings;
+    }
+
+    /**
+     * Records that one more partial suite has been added, for reporting how many executors contributed.
+     */
+    public TestSuiteMerger markSuiteMerged() {
+        suitesMerged++;
+        return this;
+    }
+
+    public int getSuitesMerged() {
+        return suitesMerged;
+    }
+
+    public int countTestInstances(TestInstance.TestResult testResult) {
+        return resultCounts.getOrDefault(testResult, 0);
+    }
+
+    public TestSuiteRepresentation toSuiteRepresentation(int executorId) {
+        final List<TestClassRepresentation> classRepresentations = new ArrayList<>(testClasses.size());
+        testClasses.forEach((className, tests) -> {
+            final List<TestRepresentation> testRepresentations = new ArrayList<>(tests.size());
+            tests.forEach((testName, instances) -> testRepresentations.add(new TestRepresentation(testName, instances)));
+            classRepresentations.add(new TestClassRepresentation(className, testRepresentations));
+        });
+        return new TestSuiteRepresentation(executorId, classRepresentations);
+    }
+
+    private void addInstances(Map<String, List<TestInstance>> tests, String testName, List<TestInstance> instances) {
+        tests.computeIfAbsent(testName, name -> new ArrayList<>()).addAll(instances);
+        for (TestInstance instance : instances) {
+            resultCounts.merge(instance.testResult(), 1, Integer::sum);
+        }
+    }
+
+}
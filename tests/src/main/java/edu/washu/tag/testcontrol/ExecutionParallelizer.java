@@ -1,17 +1,34 @@
 package edu.washu.tag.testcontrol;
 
 import edu.washu.tag.TestSettings;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.testng.IMethodInstance;
 import org.testng.IMethodInterceptor;
 import org.testng.ITestContext;
 
+/**
+ * Splits the test classes between {@code totalNodes} executors. When {@code testHistory} names a directory of results
+ * from a previous run, classes are balanced by their recorded durations; otherwise they are dealt out round-robin by
+ * name. Every executor computes the same assignment, so they must all see the same history. When {@code workQueue}
+ * is set, no static split is made and {@link WorkStealingHook} hands out individual invocations instead.
+ */
 public class ExecutionParallelizer implements IMethodInterceptor {
 
     @Override
     public List<IMethodInstance> intercept(List<IMethodInstance> list, ITestContext testContext) {
+        if (TestSettings.WORK_QUEUE != null) {
+            System.out.println("Claiming tests from work queue as executor " + TestSettings.EXECUTOR_ID);
+            return orderForWorkQueue(list);
+        }
         final String totalExecutionNodesProp = System.getProperty("totalNodes");
         if (totalExecutionNodesProp == null || totalExecutionNodesProp.isEmpty()) {
             System.out.println("Executing tests on single node...");
@@ -21,24 +38,120 @@ public class ExecutionParallelizer implements IMethodInterceptor {
         final int executorId = TestSettings.EXECUTOR_ID;
         System.out.println("Executing test suite as executor " + executorId);
 
-        final List<? extends Class<?>> allTestClasses = list
+        final List<Class<?>> allTestClasses = list
                 .stream()
-                .map(this::extractClass)
+                .<Class<?>>map(this::extractClass)
                 .distinct()
                 .sorted(Comparator.comparing(Class::getCanonicalName))
                 .toList();
 
-        final List<? extends Class<?>> classesHandledOnExecutor = IntStream.range(executorId, allTestClasses.size())
-                .filter(index -> index % executorsSize == executorId)
-                .mapToObj(allTestClasses::get)
+        final TestDurationHistory history = loadHistory();
+        final Set<String> classesHandledOnExecutor;
+        if (history == null || history.isEmpty()) {
+            classesHandledOnExecutor = IntStream.range(executorId, allTestClasses.size())
+                    .filter(index -> index % executorsSize == executorId)
+                    .mapToObj(index -> allTestClasses.get(index).getName())
+                    .collect(Collectors.toSet());
+        } else {
+            final List<List<String>> shards = assignByDuration(estimateDurations(list, history), executorsSize);
+            classesHandledOnExecutor = Set.copyOf(shards.get(executorId));
+        }
+
+        return list
+                .stream()
+                .filter(test -> classesHandledOnExecutor.contains(extractClass(test).getName()))
                 .toList();
+    }
+
+    /**
+     * Packs test classes onto {@code executors} shards, longest first, each going to the shard with the least total
+     * duration so far (lowest index on ties). Classes of equal duration are placed in name order, so the result only
+     * depends on the durations.
+     */
+    public static List<List<String>> assignByDuration(Map<String, Long> classDurations, int executors) {
+        final List<List<String>> shards = new ArrayList<>(executors);
+        final long[] loads = new long[executors];
+        final PriorityQueue<Integer> leastLoaded = new PriorityQueue<>(
+                Comparator.<Integer>comparingLong(shard -> loads[shard]).thenComparingInt(shard -> shard)
+        );
+        for (int shard = 0; shard < executors; shard++) {
+            shards.add(new ArrayList<>());
+            leastLoaded.add(shard);
+        }
+        classDurations.entrySet()
+                .stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .forEach(entry -> {
+                    final int shard = leastLoaded.poll();
+                    shards.get(shard).add(entry.getKey());
+                    loads[shard] += entry.getValue();
+                    leastLoaded.add(shard);
+                });
+        return shards;
+    }
 
+    /**
+     * In work queue mode every executor runs through the whole suite, so with history, methods are put in decreasing
+     * order of recorded duration to keep long work from landing at the end. Methods without history go first, since
+     * they may be long.
+     */
+    private List<IMethodInstance> orderForWorkQueue(List<IMethodInstance> list) {
+        final TestDurationHistory history = loadHistory();
+        if (history == null || history.isEmpty()) {
+            return list;
+        }
         return list
                 .stream()
-                .filter(test -> classesHandledOnExecutor.contains(extractClass(test)))
+                .sorted(Comparator.comparingLong((IMethodInstance method) -> {
+                    final long duration = history.getMethodDuration(
+                            extractClass(method).getName(),
+                            method.getMethod().getMethodName()
+                    );
+                    return duration < 0 ? Long.MAX_VALUE : duration;
+                }).reversed())
                 .toList();
     }
 
+    private static TestDurationHistory loadHistory() {
+        return TestSettings.TEST_HISTORY == null
+                ? null
+                : TestDurationHistory.load(Paths.get(TestSettings.TEST_HISTORY));
+    }
+
+    /**
+     * Estimates each class as the sum of its methods' recorded durations. Methods without history are assumed to take
+     * the mean recorded method time of their class, and classes without any history the mean recorded class time.
+     */
+    private Map<String, Long> estimateDurations(List<IMethodInstance> methods, TestDurationHistory history) {
+        final long meanClassDuration = (long) history.getClassDurations()
+                .values()
+                .stream()
+                .mapToLong(Long::longValue)
+                .average()
+                .orElse(0);
+        final Map<String, List<String>> methodsByClass = new LinkedHashMap<>();
+        for (IMethodInstance method : methods) {
+            methodsByClass.computeIfAbsent(extractClass(method).getName(), className -> new ArrayList<>())
+                    .add(method.getMethod().getMethodName());
+        }
+
+        final Map<String, Long> estimates = new LinkedHashMap<>();
+        methodsByClass.forEach((className, methodNames) -> {
+            final List<Long> known = methodNames.stream()
+                    .map(methodName -> history.getMethodDuration(className, methodName))
+                    .filter(duration -> duration >= 0)
+                    .toList();
+            if (known.isEmpty()) {
+                final long classDuration = history.getClassDuration(className);
+                estimates.put(className, classDuration >= 0 ? classDuration : meanClassDuration);
+            } else {
+                final long knownTotal = known.stream().mapToLong(Long::longValue).sum();
+                estimates.put(className, knownTotal + knownTotal / known.size() * (methodNames.size() - known.size()));
+            }
+        });
+        return estimates;
+    }
+
     private Class<?> extractClass(IMethodInstance methodInstance) {
         return methodInstance.getMethod().getRealClass();
     }
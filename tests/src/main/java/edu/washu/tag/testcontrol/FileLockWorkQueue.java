@@ -0,0 +1,122 @@
+package edu.washu.tag.testcontrol;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A work queue shared by executors on one host, or on hosts sharing a file system with working locks. Claims are
+ * appended to a ledger file under an exclusive {@link FileLock}, so each work item is handed to exactly one claimant.
+ * Each instance remembers how far into the ledger it has read, so a claim only reads what others appended since. The
+ * directory must start out empty for every run, which is why {@link WorkStealingHook} scopes it by run ID.
+ * <p>
+ * File locks are held per process, so instances in the same JVM sharing a ledger also take a common monitor first.
+ */
+public class FileLockWorkQueue {
+
+    private static final String LEDGER_FILE = "claims.log";
+    private static final Map<Path, Object> ledgerMonitors = new ConcurrentHashMap<>();
+
+    private final Path ledger;
+    private final Object ledgerMonitor;
+    private final String owner;
+    private final Set<String> claimed = new HashSet<>();
+    private long readPosition;
+
+    public FileLockWorkQueue(Path directory, String owner) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        this.ledger = directory.resolve(LEDGER_FILE).toAbsolutePath().normalize();
+        this.ledgerMonitor = ledgerMonitors.computeIfAbsent(ledger, path -> new Object());
+        this.owner = owner;
+    }
+
+    /**
+     * Returns true if the caller is the first to claim {@code workItem} and should therefore run it.
+     */
+    public boolean claim(String workItem) {
+        synchronized (ledgerMonitor) {
+            return claimLocked(escape(workItem));
+        }
+    }
+
+    /**
+     * Returns true if anyone, including this instance, has claimed {@code workItem}.
+     */
+    public boolean isClaimed(String workItem) {
+        final String item = escape(workItem);
+        synchronized (ledgerMonitor) {
+            if (claimed.contains(item)) {
+                return true;
+            }
+            try (FileChannel channel = openLedger(); FileLock ignored = channel.lock()) {
+                readNewClaims(channel);
+                return claimed.contains(item);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private FileChannel openLedger() throws IOException {
+        return FileChannel.open(
+                ledger,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+        );
+    }
+
+    private boolean claimLocked(String item) {
+        try (FileChannel channel = openLedger(); FileLock ignored = channel.lock()) {
+            readNewClaims(channel);
+            if (!claimed.add(item)) {
+                return false;
+            }
+            final ByteBuffer line = StandardCharsets.UTF_8.encode(item + "\t" + escape(owner) + "\n");
+            channel.position(readPosition);
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+            readPosition = channel.position();
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void readNewClaims(FileChannel channel) throws IOException {
+        final long size = channel.size();
+        if (size <= readPosition) {
+            return;
+        }
+        final ByteBuffer appended = ByteBuffer.allocate(Math.toIntExact(size - readPosition));
+        while (appended.hasRemaining() && channel.read(appended, readPosition + appended.position()) >= 0) {
+            // keep reading until the buffer is full
+        }
+        appended.flip();
+        for (String line : StandardCharsets.UTF_8.decode(appended).toString().split("\n")) {
+            if (!line.isEmpty()) {
+                claimed.add(line.substring(0, line.indexOf('\t')));
+            }
+        }
+        readPosition = size;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+}
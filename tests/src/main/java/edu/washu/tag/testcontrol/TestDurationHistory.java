@@ -0,0 +1,80 @@
+package edu.washu.tag.testcontrol;
+
+import edu.washu.tag.reporting.TestClassRepresentation;
+import edu.washu.tag.reporting.TestInstance;
+import edu.washu.tag.reporting.TestRepresentation;
+import edu.washu.tag.reporting.TestResultAggregator;
+import edu.washu.tag.reporting.TestSuiteRepresentation;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-class and per-method running times taken from a previous run's {@code test_executions_*} output. A method's
+ * duration is the total over all of its invocations, and a class's is the total over its methods.
+ */
+public class TestDurationHistory {
+
+    private final Map<String, Long> classDurations = new HashMap<>();
+    private final Map<String, Long> methodDurations = new HashMap<>();
+
+    public TestDurationHistory(TestSuiteRepresentation previousRun) {
+        for (TestClassRepresentation testClass : previousRun.testClasses()) {
+            for (TestRepresentation test : testClass.tests()) {
+                final long testDuration = test.testResults()
+                        .stream()
+                        .mapToLong(TestInstance::durationMillis)
+                        .sum();
+                methodDurations.merge(methodKey(testClass.testClassName(), test.testName()), testDuration, Long::sum);
+                classDurations.merge(testClass.testClassName(), testDuration, Long::sum);
+            }
+        }
+        classDurations.values().removeIf(duration -> duration == 0);
+        methodDurations.values().removeIf(duration -> duration == 0);
+    }
+
+    /**
+     * Reads the history from a directory of results as consumed by {@link TestResultAggregator}, returning an empty
+     * history if {@code resultDirectory} does not exist.
+     */
+    public static TestDurationHistory load(Path resultDirectory) {
+        if (!Files.isDirectory(resultDirectory)) {
+            return new TestDurationHistory(new TestSuiteRepresentation(0, List.of()));
+        }
+        try {
+            return new TestDurationHistory(TestResultAggregator.aggregate(resultDirectory).toSuiteRepresentation(0));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public boolean isEmpty() {
+        return classDurations.isEmpty();
+    }
+
+    public Map<String, Long> getClassDurations() {
+        return classDurations;
+    }
+
+    /**
+     * Returns the recorded duration of a test class, or -1 if the history has no timing for it.
+     */
+    public long getClassDuration(String testClassName) {
+        return classDurations.getOrDefault(testClassName, -1L);
+    }
+
+    /**
+     * Returns the recorded duration of a test method, or -1 if the history has no timing for it.
+     */
+    public long getMethodDuration(String testClassName, String testName) {
+        return methodDurations.getOrDefault(methodKey(testClassName, testName), -1L);
+    }
+
+    private static String methodKey(String testClassName, String testName) {
+        return testClassName + "#" + testName;
+    }
+
+}
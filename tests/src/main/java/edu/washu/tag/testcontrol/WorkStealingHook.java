@@ -0,0 +1,148 @@
+package edu.washu.tag.testcontrol;
+
+import edu.washu.tag.TestSettings;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.IConfigurable;
+import org.testng.IConfigureCallBack;
+import org.testng.IHookCallBack;
+import org.testng.IHookable;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.SkipException;
+
+/**
+ * In the dynamic mode enabled by {@code workQueue}, every executor is given the whole suite and claims each test
+ * invocation, down to individual data provider rows, from a shared {@link FileLockWorkQueue} just before running it.
+ * Invocations another executor has already claimed are skipped and marked with {@link #CLAIMED_ELSEWHERE} so they
+ * are left out of exported results. Faster executors therefore keep taking work until none is left.
+ * <p>
+ * The queue lives in a subdirectory of {@code workQueue} named by {@code runId}, so claims left over from an earlier
+ * run are never mistaken for this one's. A class's {@code @BeforeClass} methods are skipped once every invocation of
+ * the class has been claimed elsewhere; suite and test level configuration still runs on every executor.
+ * <p>
+ * TestNG creates the hook through its no-argument constructor, and all such instances share the queue configured
+ * by {@code workQueue}. The other constructor gives a hook its own queue, so several executors can be simulated in
+ * one JVM.
+ */
+public class WorkStealingHook implements IHookable, IConfigurable {
+
+    public static final String CLAIMED_ELSEWHERE = "workQueue.claimedElsewhere";
+
+    private static final FileLockWorkQueue settingsWorkQueue = createWorkQueue();
+    private static final Map<String, AtomicInteger> settingsOccurrences = new ConcurrentHashMap<>();
+    private static final WorkStealingHook fromSettings = new WorkStealingHook();
+
+    private final FileLockWorkQueue workQueue;
+    private final Map<String, AtomicInteger> occurrences;
+
+    public WorkStealingHook() {
+        this(settingsWorkQueue, settingsOccurrences);
+    }
+
+    public WorkStealingHook(FileLockWorkQueue workQueue) {
+        this(workQueue, new ConcurrentHashMap<>());
+    }
+
+    private WorkStealingHook(FileLockWorkQueue workQueue, Map<String, AtomicInteger> occurrences) {
+        this.workQueue = workQueue;
+        this.occurrences = occurrences;
+    }
+
+    @Override
+    public void run(IHookCallBack callBack, ITestResult testResult) {
+        final boolean claimed = workQueue == null || workQueue.claim(workItem(testResult));
+        testResult.setAttribute(CLAIMED_ELSEWHERE, !claimed);
+        if (claimed) {
+            callBack.runTestMethod(testResult);
+            return;
+        }
+        throw new SkipException("Claimed by another executor");
+    }
+
+    @Override
+    public void run(IConfigureCallBack callBack, ITestResult testResult) {
+        final ITestNGMethod configuration = testResult.getMethod();
+        if (workQueue != null
+                && configuration.isBeforeClassConfiguration()
+                && allClaimedElsewhere(testResult.getTestClass().getTestMethods())) {
+            throw new SkipException("Every test in the class was claimed by another executor");
+        }
+        callBack.runConfigurationMethod(testResult);
+    }
+
+    /**
+     * Returns true if the invocation behind {@code testResult} belongs to another executor. Skips caused by a failed or
+     * skipped configuration method never reach {@link #run(IHookCallBack, ITestResult)}, so those are claimed on the
+     * first call here, letting exactly one executor report them.
+     */
+    public static boolean isClaimedElsewhere(ITestResult testResult) {
+        return fromSettings.claimedElsewhere(testResult);
+    }
+
+    private boolean claimedElsewhere(ITestResult testResult) {
+        if (testResult.getAttribute(CLAIMED_ELSEWHERE) instanceof Boolean claimedElsewhere) {
+            return claimedElsewhere;
+        }
+        if (workQueue == null || testResult.getStatus() != ITestResult.SKIP) {
+            return false;
+        }
+        synchronized (testResult) {
+            if (!(testResult.getAttribute(CLAIMED_ELSEWHERE) instanceof Boolean)) {
+                testResult.setAttribute(CLAIMED_ELSEWHERE, !workQueue.claim(workItem(testResult)));
+            }
+            return (Boolean) testResult.getAttribute(CLAIMED_ELSEWHERE);
+        }
+    }
+
+    private static FileLockWorkQueue createWorkQueue() {
+        if (TestSettings.WORK_QUEUE == null) {
+            return null;
+        }
+        if (TestSettings.RUN_ID == null || TestSettings.RUN_ID.isBlank()) {
+            throw new IllegalStateException("workQueue requires a runId shared by all executors of the run");
+        }
+        return new FileLockWorkQueue(
+                Paths.get(TestSettings.WORK_QUEUE, TestSettings.RUN_ID),
+                "executor-" + TestSettings.EXECUTOR_ID
+        );
+    }
+
+    /**
+     * Methods taking parameters have data provider rows that are not known up front, so a class containing one is
+     * never considered fully claimed.
+     */
+    private boolean allClaimedElsewhere(ITestNGMethod[] testMethods) {
+        for (ITestNGMethod testMethod : testMethods) {
+            if (testMethod.getConstructorOrMethod().getParameterTypes().length > 0) {
+                return false;
+            }
+            final String key = workItemKey(testMethod, 0);
+            for (int occurrence = 0; occurrence < testMethod.getInvocationCount(); occurrence++) {
+                if (!workQueue.isClaimed(key + "#" + occurrence)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Identifies an invocation by class, method and data provider row index. Parameter values are left out because
+     * their {@code toString} need not agree between JVMs, as with lambdas. The occurrence suffix only counts repeated
+     * invocations of the same row, such as those of {@code invocationCount}, which every executor makes in turn.
+     */
+    private String workItem(ITestResult testResult) {
+        final String key = workItemKey(testResult.getMethod(), testResult.getParameterIndex());
+        return key + "#" + occurrences.computeIfAbsent(key, ignored -> new AtomicInteger()).getAndIncrement();
+    }
+
+    private static String workItemKey(ITestNGMethod testMethod, int parameterIndex) {
+        return testMethod.getRealClass().getName()
+                + "#" + testMethod.getMethodName()
+                + "[" + parameterIndex + "]";
+    }
+
+}
@@ -0,0 +1,151 @@
+package edu.washu.tag.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size, log-linear histogram of non-negative latencies in nanoseconds. Every power of two is split into
+ * 32 equal buckets, so any recorded value is reported within about 3% of its true value, and recording is a single
+ * atomic increment that may happen from any number of threads.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int NUM_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long latencyNanos) {
+        final long value = Math.max(0, latencyNanos);
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            final long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.add(other.getCount());
+        sum.add(other.sum.sum());
+        max.accumulate(other.getMax());
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        final long count = getCount();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * Returns the smallest bucket bound at or below which {@code percentile} percent of recorded values fall.
+     */
+    public long getValueAtPercentile(double percentile) {
+        final long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        final long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    public String summarize() {
+        return String.format(
+            "n=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+            getCount(),
+            getMean() / 1e3,
+            getValueAtPercentile(50) / 1e3,
+            getValueAtPercentile(90) / 1e3,
+            getValueAtPercentile(99) / 1e3,
+            getValueAtPercentile(99.9) / 1e3,
+            getMax() / 1e3
+        );
+    }
+
+    /**
+     * Formats the distribution as HdrHistogram's percentile distribution table, so the usual HdrHistogram plotting
+     * tools can read it. Values are divided by {@code unitNanos}, e.g. 1000 to report microseconds.
+     */
+    public String percentileDistribution(double unitNanos) {
+        final StringBuilder table = new StringBuilder(String.format(
+            "%12s %14s %10s %14s%n%n", "Value", "Percentile", "TotalCount", "1/(1-Percentile)"
+        ));
+        final long count = getCount();
+        if (count > 0) {
+            int bucket = -1;
+            long seen = 0;
+            double percentile = 0;
+            while (true) {
+                final long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+                while (seen < target && bucket < NUM_BUCKETS - 1) {
+                    seen += counts.get(++bucket);
+                }
+                final double value = Math.min(bucketUpperBound(bucket), getMax()) / unitNanos;
+                if (seen >= count) {
+                    table.append(String.format("%12.3f %14.12f %10d%n", getMax() / unitNanos, 1.0, seen));
+                    break;
+                }
+                table.append(String.format(
+                    "%12.3f %14.12f %10d %14.2f%n", value, percentile / 100, seen, 1 / (1 - percentile / 100)
+                ));
+                // like HdrHistogram, report 5 levels in each halving of the distance to 100%
+                final int halvings = (int) Math.floor(Math.log(100 / (100 - percentile)) / Math.log(2));
+                percentile += 100 / (5 * Math.pow(2, halvings + 1));
+            }
+        }
+        return table.append(String.format(
+            "#[Mean    = %12.3f, Max            = %12.3f]%n#[Total count    = %12d]%n",
+            getMean() / unitNanos,
+            getMax() / unitNanos,
+            count
+        )).toString();
+    }
+
+    @Override
+    public String toString() {
+        return summarize();
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int shift = index / SUB_BUCKET_COUNT - 1;
+        final long subBucket = index % SUB_BUCKET_COUNT;
+        return ((SUB_BUCKET_COUNT + subBucket + 1) << shift) - 1;
+    }
+
+}
@@ -1,30 +1,91 @@
 package edu.washu.tag.util;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
-import org.apache.commons.lang3.RandomUtils;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 public class RandomGenUtils {
 
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000,
+        100_000_000, 1_000_000_000};
+
     public static int randomId() {
-        return randomId(7);
+        return randomId(ThreadLocalRandom.current());
     }
 
     public static int randomId(int maxDigits) {
-        return RandomUtils.nextInt(1, (int) Math.pow(10, maxDigits));
+        return randomId(ThreadLocalRandom.current(), maxDigits);
     }
 
     public static String randomIdStr() {
-        return String.valueOf(randomId());
+        return randomIdStr(ThreadLocalRandom.current());
     }
 
     public static <X> List<X> randomSubset(List<X> inputList, int size) {
-        return new Random()
-            .ints(0, inputList.size())
-            .distinct()
-            .limit(size)
-            .mapToObj(inputList::get)
-            .toList();
+        return randomSubset(ThreadLocalRandom.current(), inputList, size);
+    }
+
+    public static int randomId(RandomGenerator random) {
+        return randomId(random, 7);
+    }
+
+    public static int randomId(RandomGenerator random, int maxDigits) {
+        return random.nextInt(1, POWERS_OF_TEN[maxDigits]);
+    }
+
+    public static String randomIdStr(RandomGenerator random) {
+        return String.valueOf(randomId(random));
+    }
+
+    /**
+     * Returns {@code size} distinct elements of {@code inputList} in random order (a partial Fisher-Yates shuffle).
+     */
+    public static <X> List<X> randomSubset(RandomGenerator random, List<X> inputList, int size) {
+        final int[] indices = new int[inputList.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        final List<X> subset = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final int swap = random.nextInt(i, indices.length);
+            final int chosen = indices[swap];
+            indices[swap] = indices[i];
+            indices[i] = chosen;
+            subset.add(inputList.get(chosen));
+        }
+        return subset;
+    }
+
+    /**
+     * A version 4 UUID drawn from {@code random} rather than from {@link UUID#randomUUID()}'s SecureRandom, so it is
+     * reproducible under a seeded source.
+     */
+    public static UUID randomUuid(RandomGenerator random) {
+        final long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+        final long leastSigBits = (random.nextLong() & ~(0xC000000000000000L)) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * A 7-digit ID (the same range as {@link #randomId()}) that depends only on {@code key}, for fixed people and
+     * entities that must keep the same identifier in every run.
+     */
+    public static int stableId(String key) {
+        return 1 + (int) Math.floorMod(RandomSource.mix(key.hashCode()), POWERS_OF_TEN[7] - 1L);
+    }
+
+    /**
+     * A 64-bit value that depends only on {@code key}, spread well enough that distinct keys collide no more often
+     * than random values would.
+     */
+    public static long stableLongId(String key) {
+        long hash = 0xCBF29CE484222325L; // FNV-1a
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        return RandomSource.mix(hash);
     }
 
 }
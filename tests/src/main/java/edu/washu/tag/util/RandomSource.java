@@ -0,0 +1,35 @@
+package edu.washu.tag.util;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Supplies the random generator used to draw the values of each generated message. A seeded source derives an
+ * independent {@link SplittableRandom} from the seed and the message's index alone, so a corpus is reproduced exactly
+ * regardless of how many threads generate it or in which order messages are built.
+ */
+@FunctionalInterface
+public interface RandomSource {
+
+    RandomGenerator forMessage(long messageIndex);
+
+    static RandomSource unseeded() {
+        return messageIndex -> ThreadLocalRandom.current();
+    }
+
+    static RandomSource seeded(long seed) {
+        return messageIndex -> new SplittableRandom(mix(seed + (messageIndex + 1) * 0x9E3779B97F4A7C15L));
+    }
+
+    /**
+     * The SplitMix64 finalizer: scrambles {@code value} so that nearby inputs produce unrelated outputs.
+     */
+    static long mix(long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
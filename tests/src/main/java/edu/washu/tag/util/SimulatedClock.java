@@ -0,0 +1,61 @@
+package edu.washu.tag.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A clock that only moves when told to: it starts at a given instant and advances by {@code tick} each time it is
+ * read, plus whatever is passed to {@link #advance(Duration)}. Handing one to a generator produces messages spaced
+ * {@code tick} apart from {@code start}, e.g. to backfill a corpus over past dates. Reads from several threads each
+ * get a distinct instant, but which thread gets which depends on scheduling, so use {@link Clock#fixed} instead where
+ * a parallel batch must be reproducible.
+ */
+public class SimulatedClock extends Clock {
+
+    private final Instant start;
+    private final long tickNanos;
+    private final ZoneId zone;
+    private final AtomicLong elapsedNanos;
+
+    public SimulatedClock(Instant start, Duration tick, ZoneId zone) {
+        this(start, tick.toNanos(), zone, new AtomicLong());
+    }
+
+    public SimulatedClock(Instant start, Duration tick) {
+        this(start, tick, ZoneId.systemDefault());
+    }
+
+    private SimulatedClock(Instant start, long tickNanos, ZoneId zone, AtomicLong elapsedNanos) {
+        this.start = start;
+        this.tickNanos = tickNanos;
+        this.zone = zone;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public SimulatedClock advance(Duration duration) {
+        elapsedNanos.addAndGet(duration.toNanos());
+        return this;
+    }
+
+    @Override
+    public Instant instant() {
+        return start.plusNanos(elapsedNanos.getAndAdd(tickNanos));
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * The returned clock shares this clock's position, so reading either advances both.
+     */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return zone.equals(this.zone) ? this : new SimulatedClock(start, tickNanos, zone, elapsedNanos);
+    }
+
+}
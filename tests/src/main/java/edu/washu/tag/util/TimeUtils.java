@@ -1,5 +1,6 @@
 package edu.washu.tag.util;
 
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -8,17 +9,81 @@ public class TimeUtils {
 
     public static final DateTimeFormatter HL7_FORMATTER_DATETIME = DateTimeFormatter.ofPattern("uuuuMMddHHmmss");
     public static final DateTimeFormatter HL7_FORMATTER_DATE = DateTimeFormatter.ofPattern("uuuuMMdd");
+    private static final long SECONDS_PER_DAY = 86400;
 
+    /**
+     * The last timestamps formatted on each thread, one slot for even and one for odd seconds, so that alternating
+     * between a message time and the second before it (as ORC and OBR do) keeps hitting the cache.
+     */
+    private static final ThreadLocal<FormattedSecond[]> recentlyFormatted =
+        ThreadLocal.withInitial(() -> new FormattedSecond[2]);
+
+    /**
+     * Formats as {@link #HL7_FORMATTER_DATETIME} would, but writes the digits directly and reuses the result for
+     * further timestamps in the same second.
+     */
     public static String toHl7(LocalDateTime timestamp) {
-        return HL7_FORMATTER_DATETIME.format(timestamp);
+        final long second = timestamp.toLocalDate().toEpochDay() * SECONDS_PER_DAY
+            + timestamp.toLocalTime().toSecondOfDay();
+        final FormattedSecond[] cache = recentlyFormatted.get();
+        final int slot = (int) (second & 1);
+        final FormattedSecond cached = cache[slot];
+        if (cached != null && cached.second() == second) {
+            return cached.formatted();
+        }
+        final String formatted = formatDatetime(timestamp);
+        cache[slot] = new FormattedSecond(second, formatted);
+        return formatted;
     }
 
     public static String toHl7(LocalDate timestamp) {
-        return HL7_FORMATTER_DATE.format(timestamp);
+        if (!hasFourDigitYear(timestamp)) {
+            return HL7_FORMATTER_DATE.format(timestamp);
+        }
+        final char[] digits = new char[8];
+        writeDate(digits, timestamp);
+        return new String(digits);
     }
 
     public static String hl7DatetimeNow() {
         return toHl7(LocalDateTime.now());
     }
 
+    public static String hl7DatetimeNow(Clock clock) {
+        return toHl7(LocalDateTime.now(clock));
+    }
+
+    private static String formatDatetime(LocalDateTime timestamp) {
+        if (!hasFourDigitYear(timestamp.toLocalDate())) {
+            return HL7_FORMATTER_DATETIME.format(timestamp);
+        }
+        final char[] digits = new char[14];
+        writeDate(digits, timestamp.toLocalDate());
+        writeTwoDigits(digits, 8, timestamp.getHour());
+        writeTwoDigits(digits, 10, timestamp.getMinute());
+        writeTwoDigits(digits, 12, timestamp.getSecond());
+        return new String(digits);
+    }
+
+    /**
+     * Years outside 0-9999 get a sign or an extra digit from the formatter, so those are left to it.
+     */
+    private static boolean hasFourDigitYear(LocalDate date) {
+        return date.getYear() >= 0 && date.getYear() <= 9999;
+    }
+
+    private static void writeDate(char[] digits, LocalDate date) {
+        writeTwoDigits(digits, 0, date.getYear() / 100);
+        writeTwoDigits(digits, 2, date.getYear() % 100);
+        writeTwoDigits(digits, 4, date.getMonthValue());
+        writeTwoDigits(digits, 6, date.getDayOfMonth());
+    }
+
+    private static void writeTwoDigits(char[] digits, int offset, int value) {
+        digits[offset] = (char) ('0' + value / 10);
+        digits[offset + 1] = (char) ('0' + value % 10);
+    }
+
+    private record FormattedSecond(long second, String formatted) {}
+
 }
@@ -0,0 +1,85 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.fail;
+
+import ca.uhn.hl7v2.HL7Exception;
+import ca.uhn.hl7v2.model.v281.message.ORU_R01;
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.context.HapiContextProvider;
+import edu.washu.tag.hl7.v2.er7.Er7Fields;
+import edu.washu.tag.hl7.v2.triggerevents.UnsolicitedObservationTransmissionGenerator;
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class TestBatchGeneration extends BaseTestCase {
+
+    private static final String CHUNKS_PROVIDER_ID = "chunks";
+    private static final String INVALID_PROVIDER_ID = "invalid";
+    private static final long SEED = 1234L;
+
+    @DataProvider(name = CHUNKS_PROVIDER_ID)
+    public Object[][] chunks() {
+        return new Object[][]{
+            new Object[]{ 10, 4, List.of(4, 4, 2) },
+            new Object[]{ 8, 4, List.of(4, 4) },
+            new Object[]{ 3, 10, List.of(3) },
+            new Object[]{ 0, 4, List.of() }
+        };
+    }
+
+    @DataProvider(name = INVALID_PROVIDER_ID)
+    public Object[][] invalid() {
+        return new Object[][]{
+            new Object[]{ -1, 2, 4 },
+            new Object[]{ 10, 0, 4 },
+            new Object[]{ 10, -2, 4 },
+            new Object[]{ 10, 2, 0 },
+            new Object[]{ 10, 2, -4 }
+        };
+    }
+
+    @Test(dataProvider = CHUNKS_PROVIDER_ID)
+    public void testChunkBoundaries(int count, int chunkSize, List<Integer> expectedChunkSizes) throws HL7Exception {
+        final List<Integer> chunkSizes = new ArrayList<>();
+        final List<ORU_R01> chunked = new ArrayList<>();
+        try (UnsolicitedObservationTransmissionGenerator generator = newGenerator()) {
+            generator.generateBatch(count, new MessageRequirements(), 2, chunkSize, chunk -> {
+                chunkSizes.add(chunk.size());
+                chunked.addAll(chunk);
+            });
+        }
+        assertEquals(expectedChunkSizes, chunkSizes);
+
+        final List<ORU_R01> unchunked;
+        try (UnsolicitedObservationTransmissionGenerator generator = newGenerator()) {
+            unchunked = generator.generateBatch(count, new MessageRequirements(), 2);
+        }
+        assertEquals(count, unchunked.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(
+                Er7Fields.get(unchunked.get(i).encode(), "MSH", 10),
+                Er7Fields.get(chunked.get(i).encode(), "MSH", 10)
+            );
+        }
+    }
+
+    @Test(dataProvider = INVALID_PROVIDER_ID, expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsInvalidArguments(int count, int parallelism, int chunkSize) {
+        try (UnsolicitedObservationTransmissionGenerator generator = newGenerator()) {
+            generator.generateBatch(count, new MessageRequirements(), parallelism, chunkSize, chunk -> {
+                fail("No chunk expected");
+            });
+        }
+    }
+
+    private UnsolicitedObservationTransmissionGenerator newGenerator() {
+        final UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator();
+        generator.setHapiContextProvider(HapiContextProvider.perThread());
+        generator.setSeed(SEED);
+        return generator;
+    }
+
+}
@@ -0,0 +1,95 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import edu.washu.tag.dicom.DicomStoreReceiver;
+import edu.washu.tag.dicom.DicomStoreResult;
+import edu.washu.tag.dicom.DicomStoreSender;
+import edu.washu.tag.dicom.DicomStudyGenerator;
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.MessageValues;
+import edu.washu.tag.hl7.v2.id.DicomUidAllocator;
+import edu.washu.tag.hl7.v2.id.IdAllocators;
+import edu.washu.tag.hl7.v2.report.ReportType;
+import edu.washu.tag.hl7.v2.triggerevents.UnsolicitedObservationTransmissionGenerator;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class TestDicomStore extends BaseTestCase {
+
+    private static final int NUM_REPORTS = 40;
+    private static final String MODALITY_PROVIDER = "modalities";
+
+    @Test
+    public void testStudiesMatchTheirReports() {
+        final MessageRequirements messageRequirements = new MessageRequirements()
+            .setReportTypes(Arrays.asList(ReportType.values()))
+            .setIdAllocators(IdAllocators.blockSequences(64))
+            .setDicomUidAllocator(DicomUidAllocator.fromOrderNumber("1.2.826.0.1.3680043.10.1234"));
+        final DicomStudyGenerator studyGenerator = new DicomStudyGenerator()
+            .setSeriesPerStudy(2)
+            .setInstancesPerSeries(3);
+
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator();
+             DicomStoreReceiver receiver = new DicomStoreReceiver().start();
+             DicomStoreSender sender = new DicomStoreSender("localhost", receiver.getPort(), "PACS")
+                 .setAssociations(2)
+                 .setMaxOpsInvoked(4)) {
+            final List<MessageValues> reports = LongStream.range(0, NUM_REPORTS)
+                .mapToObj(index -> generator.drawValues(messageRequirements, index))
+                .toList();
+            final DicomStoreResult result = sender.send(reports.stream()
+                .flatMap(report -> studyGenerator.generateStudy(report).stream()));
+
+            assertEquals(NUM_REPORTS * 6, result.stored());
+            assertEquals(0, result.failed());
+            assertEquals(NUM_REPORTS * 6, receiver.getInstancesReceived());
+            final Map<String, DicomStoreReceiver.ReceivedStudy> studies = receiver.getStudies();
+            assertEquals(NUM_REPORTS, studies.size());
+            for (MessageValues report : reports) {
+                final DicomStoreReceiver.ReceivedStudy study = studies.get(report.getStudyInstanceUid());
+                assertEquals(report.getFillerOrderNumber(), study.accessionNumber());
+                assertEquals(report.getPatientIds().get(0), study.patientId());
+                assertEquals(6, study.instances());
+            }
+        }
+    }
+
+    @DataProvider(name = MODALITY_PROVIDER)
+    public Object[][] modalities() {
+        return new Object[][]{
+            { ReportType.XR, "CR" },
+            { ReportType.CT, "CT" },
+            { ReportType.MR, "MR" },
+            { ReportType.US, "US" }
+        };
+    }
+
+    @Test(dataProvider = MODALITY_PROVIDER)
+    public void testModalityMatchesReportType(ReportType reportType, String modality) {
+        final MessageRequirements messageRequirements = new MessageRequirements().setReportTypes(List.of(reportType));
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator()) {
+            final MessageValues report = generator.drawValues(messageRequirements, 0);
+            final List<Attributes> study = new DicomStudyGenerator().generateStudy(report);
+            assertEquals(modality, study.get(0).getString(Tag.Modality));
+        }
+    }
+
+    @Test
+    public void testModalityMapping() {
+        assertEquals("CR", DicomStudyGenerator.modalityFor("RX"));
+        assertEquals("RF", DicomStudyGenerator.modalityFor("XRC"));
+        assertEquals("MR", DicomStudyGenerator.modalityFor("NMR"));
+        assertEquals("US", DicomStudyGenerator.modalityFor("CUS"));
+        assertEquals("NM", DicomStudyGenerator.modalityFor("NMS"));
+        assertEquals("OT", DicomStudyGenerator.modalityFor("LAB"));
+        assertEquals("OT", DicomStudyGenerator.modalityFor(null));
+    }
+
+}
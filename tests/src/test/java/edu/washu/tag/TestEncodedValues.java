@@ -0,0 +1,167 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+import edu.washu.tag.hl7.v2.er7.Er7SegmentWriter;
+import edu.washu.tag.hl7.v2.model.CodedValue;
+import edu.washu.tag.hl7.v2.model.EncodedCodedValue;
+import edu.washu.tag.hl7.v2.model.EncodedPerson;
+import edu.washu.tag.hl7.v2.model.HierarchicDesignator;
+import edu.washu.tag.hl7.v2.model.Person;
+import org.testng.annotations.Test;
+
+public class TestEncodedValues extends BaseTestCase {
+
+    private static final String XCN = "D123^O'BRIEN\\T\\SONS^ANNE\\S\\MARIE^J^^^^^ABC&1.2.3&ISO^^^^HOSP";
+    private static final String XPN = "O'BRIEN\\T\\SONS^ANNE\\S\\MARIE^J";
+    private static final String CWE = "CT\\S\\HEAD^CT HEAD W/O^RISPACS^^CTH";
+
+    @Test
+    public void testEncodedPersonLayout() {
+        final EncodedPerson encodedPerson = EncodedPerson.of(person());
+        assertEquals(XCN, encodedPerson.getXcn());
+        assertEquals(XPN, encodedPerson.getXpn());
+        assertSame(encodedPerson, EncodedPerson.of(person()));
+
+        final Er7SegmentWriter segment = new Er7SegmentWriter().reset("ZZZ");
+        encodedPerson.toXcn(segment, 2, 1);
+        encodedPerson.toXpn(segment, 4, 0);
+        segment.set(5, "END");
+        assertEquals("ZZZ||~" + XCN + "||" + XPN + "|END", write(segment));
+    }
+
+    @Test
+    public void testEncodedCodedValueLayout() {
+        final EncodedCodedValue encodedCodedValue = EncodedCodedValue.of(codedValue());
+        assertEquals(CWE, encodedCodedValue.getCwe());
+        assertSame(encodedCodedValue, EncodedCodedValue.of(codedValue()));
+
+        final Er7SegmentWriter segment = new Er7SegmentWriter().reset("OBR");
+        encodedCodedValue.toCwe(segment, 4, 0);
+        assertEquals("OBR||||" + CWE, write(segment));
+    }
+
+    @Test
+    public void testEncodedPersonIsNotAffectedByChanges() {
+        final Person person = person().setCalledBy("ANNIE");
+        final EncodedPerson encodedPerson = EncodedPerson.of(person);
+        person.setGivenName("CHANGED");
+        person.getAssigningAuthority().setUniversalId("9.9.9");
+        encodedPerson.getPerson().setPersonIdentifier("CHANGED");
+
+        assertEquals(XCN, encodedPerson.getXcn());
+        assertEquals(XPN + "^^^^^^^^^^^^ANNIE", encodedPerson.getXpn());
+        assertEquals("D123", encodedPerson.getPerson().getPersonIdentifier());
+        assertEquals("1.2.3", encodedPerson.getPerson().getAssigningAuthority().getUniversalId());
+        assertSame(encodedPerson, EncodedPerson.of(person().setCalledBy("ANNIE")));
+
+        final EncodedPerson changed = EncodedPerson.of(person);
+        assertNotSame(encodedPerson, changed);
+        assertTrue(changed.getXcn().startsWith("D123^O'BRIEN\\T\\SONS^CHANGED^J^^^^^ABC&9.9.9&ISO"));
+    }
+
+    @Test
+    public void testEncodedCodedValueIsNotAffectedByChanges() {
+        final CodedValue codedValue = codedValue().setOriginalText("CT OF THE HEAD");
+        final EncodedCodedValue encodedCodedValue = EncodedCodedValue.of(codedValue);
+        codedValue.setText("CHANGED");
+        encodedCodedValue.getCodedValue().setIdentifier("CHANGED");
+
+        assertEquals(CWE + "^^^^CT OF THE HEAD", encodedCodedValue.getCwe());
+        assertEquals("CT^HEAD", encodedCodedValue.getCodedValue().getIdentifier());
+        assertSame(encodedCodedValue, EncodedCodedValue.of(codedValue().setOriginalText("CT OF THE HEAD")));
+        assertNotSame(encodedCodedValue, EncodedCodedValue.of(codedValue));
+    }
+
+    @Test
+    public void testEncodedValueMatchesComponentWrites() {
+        final Er7SegmentWriter byComponent = new Er7SegmentWriter().reset("ORC");
+        person().toXcn(byComponent, 12, 0);
+        codedValue().toCwe(byComponent, 13, 0, 0);
+
+        final Er7SegmentWriter encoded = new Er7SegmentWriter().reset("ORC");
+        EncodedPerson.of(person()).toXcn(encoded, 12, 0);
+        EncodedCodedValue.of(codedValue()).toCwe(encoded, 13, 0);
+        assertEquals(write(byComponent), write(encoded));
+    }
+
+    @Test
+    public void testEscaping() {
+        final StringBuilder destination = new StringBuilder();
+        Er7SegmentWriter.escape(destination, "A|B^C~D\\E&F");
+        assertEquals("A\\F\\B\\S\\C\\R\\D\\E\\E\\T\\F", destination.toString());
+
+        destination.setLength(0);
+        Er7SegmentWriter.escape(destination, "LINE 1\rLINE 2\r");
+        assertEquals("LINE 1\\X0D\\LINE 2\\X0D\\", destination.toString());
+
+        final String field = Er7SegmentWriter.encodeField(segment -> segment.set(1, 0, 2, 2, "X&Y"));
+        assertEquals("^&X\\T\\Y", field);
+    }
+
+    @Test
+    public void testSetEncodedIsWrittenVerbatim() {
+        final Er7SegmentWriter segment = new Er7SegmentWriter().reset("ZZZ")
+            .setEncoded(1, 0, "A^B&C")
+            .setEncoded(1, 1, "D")
+            .setEncoded(1, 1, "E") // replaces D
+            .set(2, 0, 2, 1, null); // empty values do not conflict
+        assertEquals("ZZZ|A^B&C~E", write(segment));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testRejectsComponentAfterEncodedValue() {
+        final Er7SegmentWriter segment = new Er7SegmentWriter().reset("ORC");
+        EncodedPerson.of(person()).toXcn(segment, 12, 0);
+        segment.set(12, 0, 2, 1, "SMITH");
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testRejectsEncodedValueAfterComponent() {
+        final Er7SegmentWriter segment = new Er7SegmentWriter().reset("OBR");
+        segment.set(4, 0, 9, 1, "ORIGINAL");
+        EncodedCodedValue.of(codedValue()).toCwe(segment, 4, 0);
+    }
+
+    @Test
+    public void testResetForgetsEncodedRepetitions() {
+        final Er7SegmentWriter segment = new Er7SegmentWriter().reset("ORC");
+        EncodedPerson.of(person()).toXcn(segment, 12, 0);
+        segment.set(12, 1, 2, 1, "SMITH"); // another repetition of the same field is fine
+        assertEquals("ORC" + "|".repeat(12) + XCN + "~^SMITH", write(segment));
+
+        segment.reset("ORC").set(12, 0, 2, 1, "JONES");
+        assertEquals("ORC" + "|".repeat(12) + "^JONES", write(segment));
+    }
+
+    private static Person person() {
+        final HierarchicDesignator assigningAuthority = HierarchicDesignator.simple("ABC");
+        assigningAuthority.setUniversalId("1.2.3");
+        assigningAuthority.setUniversalIdType("ISO");
+        return new Person()
+            .setPersonIdentifier("D123")
+            .setFamilyName("O'BRIEN&SONS")
+            .setGivenName("ANNE^MARIE")
+            .setSecondNameEtc("J")
+            .setAssigningAuthority(assigningAuthority)
+            .setIdentifierTypeCode("HOSP");
+    }
+
+    private static CodedValue codedValue() {
+        return new CodedValue()
+            .setIdentifier("CT^HEAD")
+            .setText("CT HEAD W/O")
+            .setNameOfCodingSystem("RISPACS")
+            .setAlternateText("CTH");
+    }
+
+    private static String write(Er7SegmentWriter segment) {
+        final StringBuilder destination = new StringBuilder();
+        segment.appendTo(destination);
+        return destination.toString();
+    }
+
+}
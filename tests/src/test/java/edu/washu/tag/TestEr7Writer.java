@@ -0,0 +1,56 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import ca.uhn.hl7v2.HL7Exception;
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.MessageValues;
+import edu.washu.tag.hl7.v2.context.HapiContextProvider;
+import edu.washu.tag.hl7.v2.er7.Er7MessageWriter;
+import edu.washu.tag.hl7.v2.population.PatientPopulation;
+import edu.washu.tag.hl7.v2.report.ReportType;
+import edu.washu.tag.hl7.v2.triggerevents.UnsolicitedObservationTransmissionGenerator;
+import java.util.Arrays;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class TestEr7Writer extends BaseTestCase {
+
+    private static final String PROVIDER_ID = "requirements";
+
+    @DataProvider(name = PROVIDER_ID)
+    public Object[][] requirements() {
+        return new Object[][]{
+            new Object[]{ new MessageRequirements() },
+            new Object[]{ new MessageRequirements().setMalformObrInterpretersAndTech(false) },
+            new Object[]{ new MessageRequirements().setNumPatientIds(2) },
+            new Object[]{ new MessageRequirements().setNumAttendingDoctors(2) },
+            new Object[]{ new MessageRequirements().setIncludePatientAlias(true) },
+            new Object[]{ new MessageRequirements().setSpecifyAddress(false) },
+            new Object[]{ new MessageRequirements().setExtendedPid(false) },
+            new Object[]{ new MessageRequirements().setReportTypes(Arrays.asList(ReportType.values())) },
+            new Object[]{
+                new MessageRequirements()
+                    .setNumPatientIds(2)
+                    .setIncludePatientAlias(true)
+                    .setPatientPopulation(PatientPopulation.generate(1000, 1L))
+            }
+        };
+    }
+
+    @Test(dataProvider = PROVIDER_ID)
+    public void testEr7MatchesHapiEncoding(MessageRequirements messageRequirements) throws HL7Exception {
+        final Er7MessageWriter messageWriter = new Er7MessageWriter();
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator()) {
+            generator.setHapiContextProvider(HapiContextProvider.shared());
+            for (int i = 0; i < 20; i++) {
+                final MessageValues messageValues = generator.drawValues(messageRequirements);
+                assertEquals(
+                    generator.generate(messageRequirements, messageValues).encode(),
+                    generator.generateEr7(messageRequirements, messageValues, messageWriter).toString()
+                );
+            }
+        }
+    }
+
+}
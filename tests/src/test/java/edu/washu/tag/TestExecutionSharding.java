@@ -0,0 +1,74 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.washu.tag.reporting.TestClassRepresentation;
+import edu.washu.tag.reporting.TestInstance;
+import edu.washu.tag.reporting.TestInstance.TestResult;
+import edu.washu.tag.reporting.TestRepresentation;
+import edu.washu.tag.reporting.TestSuiteRepresentation;
+import edu.washu.tag.testcontrol.ExecutionParallelizer;
+import edu.washu.tag.testcontrol.TestDurationHistory;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.testng.annotations.Test;
+
+public class TestExecutionSharding extends BaseTestCase {
+
+    @Test
+    public void testLongestClassesAreBalanced() {
+        final Map<String, Long> durations = new LinkedHashMap<>();
+        durations.put("Small1", 10L);
+        durations.put("Huge", 100L);
+        durations.put("Medium1", 50L);
+        durations.put("Small2", 10L);
+        durations.put("Medium2", 50L);
+        durations.put("Large", 90L);
+
+        final List<List<String>> shards = ExecutionParallelizer.assignByDuration(durations, 3);
+        assertEquals(List.of(List.of("Huge", "Small2"), List.of("Large", "Small1"), List.of("Medium1", "Medium2")), shards);
+
+        final Set<String> assigned = new HashSet<>();
+        shards.forEach(assigned::addAll);
+        assertEquals(durations.keySet(), assigned);
+        assertEquals(shards, ExecutionParallelizer.assignByDuration(new LinkedHashMap<>(durations), 3));
+    }
+
+    @Test
+    public void testHistoryReadsPreviousRun() throws IOException {
+        final Path resultDirectory = Files.createTempDirectory("test_history");
+        new ObjectMapper().writeValue(
+                resultDirectory.resolve("test_executions_0.json").toFile(),
+                new TestSuiteRepresentation(0, List.of(
+                        new TestClassRepresentation("SlowClass", List.of(
+                                new TestRepresentation("parameterized", List.of(
+                                        new TestInstance(TestResult.PASSED, List.of("a"), 1500),
+                                        new TestInstance(TestResult.FAILED, List.of("b"), 500)
+                                )),
+                                new TestRepresentation("simple", List.of(new TestInstance(TestResult.PASSED, List.of(), 250)))
+                        ))
+                ))
+        );
+        Files.writeString(
+                resultDirectory.resolve("test_executions_1.json"),
+                "{\"executorId\":1,\"testClasses\":[{\"testClassName\":\"UntimedClass\",\"tests\":"
+                        + "[{\"testName\":\"legacy\",\"testResults\":[{\"testResult\":\"PASSED\",\"parameters\":[]}]}]}]}"
+        );
+
+        final TestDurationHistory history = TestDurationHistory.load(resultDirectory);
+        assertEquals(2250, history.getClassDuration("SlowClass"));
+        assertEquals(2000, history.getMethodDuration("SlowClass", "parameterized"));
+        assertEquals(-1, history.getClassDuration("UntimedClass"));
+        assertEquals(-1, history.getMethodDuration("SlowClass", "missing"));
+        assertTrue(TestDurationHistory.load(resultDirectory.resolve("missing")).isEmpty());
+    }
+
+}
@@ -0,0 +1,62 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import ca.uhn.hl7v2.HL7Exception;
+import ca.uhn.hl7v2.model.v281.message.ORU_R01;
+import ca.uhn.hl7v2.model.v281.segment.OBR;
+import ca.uhn.hl7v2.parser.EncodingCharacters;
+import ca.uhn.hl7v2.parser.PipeParser;
+import ca.uhn.hl7v2.util.Terser;
+import edu.washu.tag.hl7.v2.context.HapiContextProvider;
+import edu.washu.tag.hl7.v2.segment.FieldPath;
+import org.testng.annotations.Test;
+
+public class TestFieldPath extends BaseTestCase {
+
+    private static final EncodingCharacters ENCODING_CHARACTERS = EncodingCharacters.defaultInstance();
+
+    @Test
+    public void testCompile() {
+        final FieldPath fieldPath = FieldPath.compile("OBR-15(1)-4");
+        assertEquals("OBR", fieldPath.getSegmentName());
+        assertEquals(15, fieldPath.getField());
+        assertEquals(1, fieldPath.getRepetition());
+        assertEquals(4, fieldPath.getComponent());
+        assertEquals(1, fieldPath.getSubcomponent());
+        assertEquals("ZDS-1(0)-1-1", FieldPath.compile("ZDS-1").toString());
+        assertEquals("OBR-33(0)-2-3", FieldPath.compile("OBR-33-2-3").toString());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsMessagePaths() {
+        FieldPath.compile("/.OBR-15-4");
+    }
+
+    @Test
+    public void testMatchesTerserPath() throws HL7Exception {
+        try (HapiContextProvider contextProvider = HapiContextProvider.shared()) {
+            final ORU_R01 viaTerser = contextProvider.acquire().newMessage(ORU_R01.class);
+            final ORU_R01 viaFieldPath = contextProvider.acquire().newMessage(ORU_R01.class);
+            final Terser terser = new Terser(viaTerser);
+            final OBR obr = viaFieldPath.getPATIENT_RESULT().getORDER_OBSERVATION().getOBR();
+            for (String path : new String[]{"OBR-15-4", "OBR-15(1)-4", "OBR-19-4", "OBR-33-2-3"}) {
+                terser.set("/." + path, path);
+                FieldPath.compile(path).set(obr, path);
+            }
+            assertEquals(
+                PipeParser.encode(viaTerser.getPATIENT_RESULT().getORDER_OBSERVATION().getOBR(), ENCODING_CHARACTERS),
+                PipeParser.encode(obr, ENCODING_CHARACTERS)
+            );
+        }
+    }
+
+    @Test(expectedExceptions = HL7Exception.class)
+    public void testRejectsOtherSegments() throws HL7Exception {
+        try (HapiContextProvider contextProvider = HapiContextProvider.shared()) {
+            final ORU_R01 message = contextProvider.acquire().newMessage(ORU_R01.class);
+            FieldPath.compile("OBR-15-4").set(message.getMSH(), "BODY");
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+import ca.uhn.hl7v2.HL7Exception;
+import ca.uhn.hl7v2.HapiContext;
+import ca.uhn.hl7v2.model.v281.message.ORU_R01;
+import ca.uhn.hl7v2.model.v281.segment.MSH;
+import ca.uhn.hl7v2.model.v281.segment.OBR;
+import ca.uhn.hl7v2.model.v281.segment.OBX;
+import ca.uhn.hl7v2.model.v281.segment.PID;
+import edu.washu.tag.hl7.v2.GenerationContext;
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.MessageValues;
+import edu.washu.tag.hl7.v2.context.HapiContextProvider;
+import java.util.List;
+import org.testng.annotations.Test;
+
+public class TestGenerationContext extends BaseTestCase {
+
+    @Test
+    public void testLookupSegments() throws HL7Exception {
+        try (HapiContextProvider contextProvider = HapiContextProvider.shared()) {
+            final HapiContext hapiContext = contextProvider.acquire();
+            final ORU_R01 message = hapiContext.newMessage(ORU_R01.class);
+            final GenerationContext generationContext = new GenerationContext(
+                hapiContext,
+                message,
+                new MessageRequirements()
+            );
+            final MSH msh = message.getMSH();
+            final OBX firstObx = message.getPATIENT_RESULT().getORDER_OBSERVATION().getOBSERVATION(0).getOBX();
+            final OBX secondObx = message.getPATIENT_RESULT().getORDER_OBSERVATION().getOBSERVATION(1).getOBX();
+            generationContext.addSegment(msh).addSegment(firstObx).addSegment(secondObx);
+
+            assertSame(msh, generationContext.lookupSegment(MSH.class));
+            assertSame(firstObx, generationContext.lookupSegment(OBX.class));
+            assertEquals(List.of(firstObx, secondObx), generationContext.lookupSegments(OBX.class));
+            assertNull(generationContext.lookupSegment(PID.class));
+            assertTrue(generationContext.lookupSegments(OBR.class).isEmpty());
+            assertEquals(List.of(msh, firstObx, secondObx), generationContext.getSegments());
+        }
+    }
+
+    @Test
+    public void testResetForgetsPreviousMessage() throws HL7Exception {
+        try (HapiContextProvider contextProvider = HapiContextProvider.shared()) {
+            final HapiContext hapiContext = contextProvider.acquire();
+            final ORU_R01 first = hapiContext.newMessage(ORU_R01.class);
+            final GenerationContext generationContext = new GenerationContext(
+                hapiContext,
+                first,
+                new MessageRequirements()
+            )
+                .setMessageValues(new MessageValues())
+                .addSegment(first.getMSH())
+                .addSegment(first.getPATIENT_RESULT().getPATIENT().getPID());
+
+            final ORU_R01 second = hapiContext.newMessage(ORU_R01.class);
+            final MessageRequirements secondRequirements = new MessageRequirements();
+            generationContext.reset(hapiContext, second, secondRequirements);
+            assertSame(second, generationContext.getParentMessage());
+            assertSame(secondRequirements, generationContext.getMessageRequirements());
+            assertNull(generationContext.getMessageValues());
+            assertTrue(generationContext.getSegments().isEmpty());
+            assertNull(generationContext.lookupSegment(MSH.class));
+            assertTrue(generationContext.lookupSegments(PID.class).isEmpty());
+
+            generationContext.addSegment(second.getMSH());
+            assertSame(second.getMSH(), generationContext.lookupSegment(MSH.class));
+
+            generationContext.clear();
+            assertNull(generationContext.getHapiContext());
+            assertNull(generationContext.getParentMessage());
+            assertTrue(generationContext.getSegments().isEmpty());
+        }
+    }
+
+}
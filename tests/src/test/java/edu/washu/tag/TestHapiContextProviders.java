@@ -0,0 +1,147 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+import ca.uhn.hl7v2.HL7Exception;
+import ca.uhn.hl7v2.HapiContext;
+import ca.uhn.hl7v2.model.v281.message.ORU_R01;
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.context.HapiContextProvider;
+import edu.washu.tag.hl7.v2.context.PooledHapiContextProvider;
+import edu.washu.tag.hl7.v2.er7.Er7Fields;
+import edu.washu.tag.hl7.v2.triggerevents.UnsolicitedObservationTransmissionGenerator;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that every HapiContext mode produces complete, distinct messages. How fast each mode is belongs in
+ * HapiContextProviderBenchmark.
+ */
+public class TestHapiContextProviders extends BaseTestCase {
+
+    private static final Logger log = LoggerFactory.getLogger(TestHapiContextProviders.class);
+    private static final String PROVIDER_ID = "context_providers";
+    private static final int NUM_MESSAGES = 200;
+    private static final int PARALLELISM = 4;
+    private static final int POOL_SIZE = 2;
+
+    @DataProvider(name = PROVIDER_ID)
+    public Object[][] contextProviders() {
+        return new Object[][]{
+            new Object[]{ "fresh", (Supplier<HapiContextProvider>) HapiContextProvider::fresh },
+            new Object[]{ "shared", (Supplier<HapiContextProvider>) HapiContextProvider::shared },
+            new Object[]{ "perThread", (Supplier<HapiContextProvider>) HapiContextProvider::perThread },
+            new Object[]{ "pooled", (Supplier<HapiContextProvider>) () -> HapiContextProvider.pooled(POOL_SIZE) }
+        };
+    }
+
+    @Test(dataProvider = PROVIDER_ID)
+    public void testSequentialGeneration(String mode, Supplier<HapiContextProvider> providerSupplier)
+        throws HL7Exception {
+        final MessageRequirements messageRequirements = new MessageRequirements();
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator()) {
+            generator.setHapiContextProvider(providerSupplier.get());
+            final List<ORU_R01> messages = new ArrayList<>();
+            for (int i = 0; i < NUM_MESSAGES; i++) {
+                messages.add(generator.generate(messageRequirements));
+            }
+
+            assertDistinctMessages(messages);
+            if (generator.getHapiContextProvider() instanceof PooledHapiContextProvider pool) {
+                assertEquals(1, pool.getNumCreated()); // single-threaded use should never grow the pool
+            }
+            log.info("HapiContext mode {} generated {} messages sequentially", mode, messages.size());
+        }
+    }
+
+    @Test(dataProvider = PROVIDER_ID)
+    public void testParallelGeneration(String mode, Supplier<HapiContextProvider> providerSupplier)
+        throws HL7Exception {
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator()) {
+            generator.setHapiContextProvider(providerSupplier.get());
+            final List<ORU_R01> messages = generator.generateBatch(
+                NUM_MESSAGES,
+                new MessageRequirements(),
+                PARALLELISM
+            );
+
+            assertDistinctMessages(messages);
+            if (generator.getHapiContextProvider() instanceof PooledHapiContextProvider pool) {
+                assertTrue(pool.getNumCreated() <= POOL_SIZE);
+            }
+            log.info("HapiContext mode {} generated {} messages on {} threads", mode, messages.size(), PARALLELISM);
+        }
+    }
+
+    @Test
+    public void testFailedContextCreationFreesItsPoolSlot() throws Exception {
+        final CountDownLatch creating = new CountDownLatch(1);
+        final CountDownLatch failCreation = new CountDownLatch(1);
+        final AtomicInteger attempts = new AtomicInteger();
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try (PooledHapiContextProvider pool = new PooledHapiContextProvider(1) {
+            @Override
+            protected HapiContext newContext() {
+                if (attempts.getAndIncrement() == 0) {
+                    creating.countDown();
+                    try {
+                        failCreation.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new IllegalStateException("Simulated context creation failure");
+                }
+                return super.newContext();
+            }
+        }) {
+            final Future<HapiContext> failing = executorService.submit(pool::acquire);
+            creating.await();
+            final Future<HapiContext> waiting = executorService.submit(pool::acquire); // the only slot is taken
+            failCreation.countDown();
+            try {
+                failing.get();
+                fail("Expected the first acquire to fail");
+            } catch (ExecutionException expected) {
+                assertTrue(expected.getCause() instanceof IllegalStateException);
+            }
+
+            final HapiContext context = waiting.get(10, TimeUnit.SECONDS);
+            assertNotNull(context);
+            assertEquals(1, pool.getNumCreated());
+            pool.release(context);
+            assertSame(context, pool.acquire());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private void assertDistinctMessages(List<ORU_R01> messages) throws HL7Exception {
+        assertEquals(NUM_MESSAGES, messages.size());
+        final Set<String> controlIds = new HashSet<>();
+        for (ORU_R01 message : messages) {
+            final String encoded = message.encode();
+            assertTrue(encoded.startsWith("MSH|"));
+            controlIds.add(Er7Fields.get(encoded, "MSH", 10));
+        }
+        assertEquals(NUM_MESSAGES, controlIds.size());
+    }
+
+}
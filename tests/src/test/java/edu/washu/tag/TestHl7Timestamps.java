@@ -0,0 +1,45 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import edu.washu.tag.util.SimulatedClock;
+import edu.washu.tag.util.TimeUtils;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+public class TestHl7Timestamps extends BaseTestCase {
+
+    @Test
+    public void testFormattingMatchesDateTimeFormatter() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            final LocalDateTime timestamp = LocalDateTime.of(random.nextInt(-10, 10010), 1, 1, 0, 0)
+                .plusSeconds(random.nextLong(366L * 86400))
+                .plusNanos(random.nextInt(1_000_000_000));
+            for (LocalDateTime candidate : new LocalDateTime[]{timestamp, timestamp.minusSeconds(1), timestamp}) {
+                assertEquals(TimeUtils.HL7_FORMATTER_DATETIME.format(candidate), TimeUtils.toHl7(candidate));
+            }
+            final LocalDate date = timestamp.toLocalDate();
+            assertEquals(TimeUtils.HL7_FORMATTER_DATE.format(date), TimeUtils.toHl7(date));
+        }
+    }
+
+    @Test
+    public void testSimulatedClockTicksPerRead() {
+        final SimulatedClock clock = new SimulatedClock(
+            Instant.parse("2020-02-29T23:59:00Z"),
+            Duration.ofSeconds(30),
+            ZoneOffset.UTC
+        );
+        assertEquals("20200229235900", TimeUtils.hl7DatetimeNow(clock));
+        assertEquals("20200229235930", TimeUtils.hl7DatetimeNow(clock));
+        clock.advance(Duration.ofDays(1));
+        assertEquals("20200302000000", TimeUtils.hl7DatetimeNow(clock));
+    }
+
+}
@@ -0,0 +1,128 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import edu.washu.tag.hl7.v2.MessageValues;
+import edu.washu.tag.hl7.v2.id.BlockSequenceAllocator;
+import edu.washu.tag.hl7.v2.id.CheckDigit;
+import edu.washu.tag.hl7.v2.id.DicomUidAllocator;
+import edu.washu.tag.hl7.v2.id.IdAllocator;
+import edu.washu.tag.hl7.v2.id.SnowflakeAllocator;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+import org.testng.annotations.Test;
+
+public class TestIdAllocation extends BaseTestCase {
+
+    private static final int NUM_THREADS = 8;
+    private static final int IDS_PER_THREAD = 100_000;
+
+    @Test
+    public void testBlockSequenceIsUniqueAcrossThreads() throws Exception {
+        final long[] ids = allocateConcurrently(BlockSequenceAllocator.ofDigits(9, 1000));
+        assertTrue(Arrays.stream(ids).allMatch(id -> id >= 100_000_000 && id <= 999_999_999));
+        assertEquals(ids.length, LongStream.of(ids).distinct().count());
+    }
+
+    @Test
+    public void testSnowflakeIsUniqueWithinOneMillisecond() throws Exception {
+        final Instant epoch = Instant.parse("2024-01-01T00:00:00Z");
+        final long now = epoch.plusSeconds(86_400).toEpochMilli();
+        final SnowflakeAllocator allocator = new SnowflakeAllocator(5, epoch, () -> now);
+        final long[] ids = allocateConcurrently(allocator);
+        assertEquals(ids.length, LongStream.of(ids).distinct().count());
+        assertEquals(now, allocator.timestampOf(LongStream.of(ids).min().getAsLong()).toEpochMilli());
+        assertTrue(LongStream.of(ids).allMatch(id -> (id >>> SnowflakeAllocator.SEQUENCE_BITS & 1023) == 5));
+    }
+
+    @Test
+    public void testSequenceExhaustion() {
+        final BlockSequenceAllocator allocator = new BlockSequenceAllocator(0, 5, 2);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, allocator.next());
+        }
+        try {
+            allocator.next();
+            throw new AssertionError("Expected the sequence to be exhausted");
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCheckDigits() {
+        assertEquals("79927398713", CheckDigit.LUHN.append(7992739871L));
+        assertTrue(CheckDigit.LUHN.isValid("79927398713"));
+        assertFalse(CheckDigit.LUHN.isValid("79927398731"));
+        assertEquals("12345674", CheckDigit.MOD_11.append(1234567));
+        assertTrue(CheckDigit.MOD_11.isValid("12345674"));
+        assertFalse(CheckDigit.MOD_11.isValid("12345764"));
+        assertEquals("1234567", CheckDigit.NONE.append(1234567));
+    }
+
+    @Test
+    public void testCounterStudyUids() {
+        final DicomUidAllocator allocator = DicomUidAllocator.counter("1.2.826.0.1.3680043.10.1234", 7);
+        final Set<String> uids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            final String uid = allocator.studyInstanceUid(new MessageValues());
+            assertTrue(uid, DicomUidAllocator.UID_PATTERN.matcher(uid).matches());
+            assertTrue(uid, uid.length() <= DicomUidAllocator.MAX_UID_LENGTH);
+            uids.add(uid);
+        }
+        assertEquals(10_000, uids.size());
+
+        // a second allocator for the same node, created straight away, still gets a start of its own
+        final DicomUidAllocator restarted = DicomUidAllocator.counter("1.2.826.0.1.3680043.10.1234", 7);
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(uids.add(restarted.studyInstanceUid(new MessageValues())));
+        }
+    }
+
+    @Test
+    public void testOrderDerivedStudyUids() {
+        final DicomUidAllocator allocator = DicomUidAllocator.fromOrderNumber("1.2.3");
+        assertEquals("1.2.3.1.4567", allocator.studyInstanceUid(new MessageValues().setFillerOrderNumber("4567")));
+        final String hashed = allocator.studyInstanceUid(new MessageValues().setFillerOrderNumber("0045-A"));
+        assertTrue(hashed, hashed.startsWith("1.2.3.2."));
+        assertTrue(hashed, DicomUidAllocator.UID_PATTERN.matcher(hashed).matches());
+        assertEquals(hashed, allocator.studyInstanceUid(new MessageValues().setFillerOrderNumber("0045-A")));
+        try {
+            DicomUidAllocator.fromOrderNumber("1.02.3");
+            throw new AssertionError("Expected a malformed root to be rejected");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    private long[] allocateConcurrently(IdAllocator allocator) throws Exception {
+        final ExecutorService executorService = Executors.newFixedThreadPool(NUM_THREADS);
+        try {
+            final Future<?>[] futures = new Future<?>[NUM_THREADS];
+            final long[] ids = new long[NUM_THREADS * IDS_PER_THREAD];
+            for (int thread = 0; thread < NUM_THREADS; thread++) {
+                final int offset = thread * IDS_PER_THREAD;
+                futures[thread] = executorService.submit(() -> {
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        ids[offset + i] = allocator.next();
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return ids;
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+}
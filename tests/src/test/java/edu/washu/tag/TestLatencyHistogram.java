@@ -0,0 +1,71 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import edu.washu.tag.util.LatencyHistogram;
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+
+public class TestLatencyHistogram extends BaseTestCase {
+
+    private static final int NUM_VALUES = 50;
+    private static final double UNIT_NANOS = 1;
+
+    @Test
+    public void testPercentileDistribution() {
+        // 1ns to 50ns, once each; below 64 every value has a bucket of its own, so the table is exact
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = NUM_VALUES; i >= 1; i--) {
+            histogram.record(i);
+        }
+        final String[] lines = histogram.percentileDistribution(UNIT_NANOS).split("\\R");
+        assertEquals("Value", lines[0].trim().split("\\s+")[0]);
+        assertTrue(lines[1].isEmpty());
+
+        final List<double[]> rows = new ArrayList<>();
+        for (int i = 2; i < lines.length && !lines[i].startsWith("#"); i++) {
+            final String[] columns = lines[i].trim().split("\\s+");
+            final double[] row = new double[columns.length];
+            for (int j = 0; j < columns.length; j++) {
+                row[j] = Double.parseDouble(columns[j]);
+            }
+            rows.add(row);
+        }
+
+        // HdrHistogram's ladder: steps of 10% up to 50%, then 5 steps in each halving of the distance to 100%
+        final double[] expectedPercentiles = {0, 0.1, 0.2, 0.3, 0.4, 0.5, 0.55, 0.6, 0.65, 0.7, 0.75, 0.775, 0.8};
+        for (int i = 0; i < expectedPercentiles.length; i++) {
+            assertEquals(expectedPercentiles[i], rows.get(i)[1], 1e-9);
+        }
+        double previousPercentile = -1;
+        for (double[] row : rows.subList(0, rows.size() - 1)) {
+            final double percentile = row[1];
+            final long expectedValue = Math.max(1, (long) Math.ceil(percentile * NUM_VALUES));
+            assertTrue(percentile > previousPercentile);
+            assertEquals(expectedValue, row[0], 1e-9);
+            assertEquals(expectedValue, (long) row[2]);
+            assertEquals(1 / (1 - percentile), row[3], 0.01);
+            previousPercentile = percentile;
+        }
+        final double[] last = rows.get(rows.size() - 1);
+        assertEquals(3, last.length);
+        assertEquals(NUM_VALUES, last[0], 1e-9);
+        assertEquals(1.0, last[1], 1e-9);
+        assertEquals(NUM_VALUES, (long) last[2]);
+
+        final String meanAndMax = lines[lines.length - 2];
+        assertTrue(meanAndMax, meanAndMax.matches("#\\[Mean +=  +25\\.500, Max +=  +50\\.000]"));
+        final String totalCount = lines[lines.length - 1];
+        assertTrue(totalCount, totalCount.matches("#\\[Total count +=  +50]"));
+    }
+
+    @Test
+    public void testEmptyPercentileDistribution() {
+        final String[] lines = new LatencyHistogram().percentileDistribution(UNIT_NANOS).split("\\R");
+        assertEquals(4, lines.length);
+        assertTrue(lines[3], lines[3].matches("#\\[Total count +=  +0]"));
+    }
+
+}
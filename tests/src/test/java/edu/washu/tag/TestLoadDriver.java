@@ -0,0 +1,128 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.context.HapiContextProvider;
+import edu.washu.tag.hl7.v2.load.ArrivalProfile;
+import edu.washu.tag.hl7.v2.load.LoadDriver;
+import edu.washu.tag.hl7.v2.load.LoadReport;
+import edu.washu.tag.hl7.v2.triggerevents.UnsolicitedObservationTransmissionGenerator;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class TestLoadDriver extends BaseTestCase {
+
+    private static final String INVALID_PROFILES_PROVIDER_ID = "invalid_profiles";
+    private static final String INVALID_SETTINGS_PROVIDER_ID = "invalid_settings";
+    private static final long STALL_MILLIS = 100;
+
+    @DataProvider(name = INVALID_PROFILES_PROVIDER_ID)
+    public Object[][] invalidProfiles() {
+        return new Object[][]{
+            new Object[]{ (Supplier<ArrivalProfile>) () -> ArrivalProfile.step(Duration.ZERO, 100) },
+            new Object[]{ (Supplier<ArrivalProfile>) () -> ArrivalProfile.step(Duration.ofSeconds(-1), 100) },
+            new Object[]{ (Supplier<ArrivalProfile>) () -> ArrivalProfile.step(Duration.ofSeconds(1)) },
+            new Object[]{ (Supplier<ArrivalProfile>) () -> ArrivalProfile.step(Duration.ofSeconds(1), 100, -1) },
+            new Object[]{ (Supplier<ArrivalProfile>) () -> ArrivalProfile.step(Duration.ofSeconds(1), Double.NaN) },
+            new Object[]{ (Supplier<ArrivalProfile>) () -> ArrivalProfile.constant(0) },
+            new Object[]{ (Supplier<ArrivalProfile>) () -> ArrivalProfile.poisson(-5) },
+            new Object[]{ (Supplier<ArrivalProfile>) () -> ArrivalProfile.ramp(0, 100, Duration.ofSeconds(1)) },
+            new Object[]{ (Supplier<ArrivalProfile>) () -> ArrivalProfile.ramp(10, 100, Duration.ofSeconds(-1)) }
+        };
+    }
+
+    @DataProvider(name = INVALID_SETTINGS_PROVIDER_ID)
+    public Object[][] invalidSettings() {
+        return new Object[][]{
+            setting(driver -> driver.setQueueCapacity(0)),
+            setting(driver -> driver.setQueueCapacity(-1)),
+            setting(driver -> driver.setDuration(Duration.ZERO)),
+            setting(driver -> driver.setDuration(Duration.ofSeconds(-1)))
+        };
+    }
+
+    private static Object[] setting(Consumer<LoadDriver<?>> setting) {
+        return new Object[]{ setting };
+    }
+
+    @Test
+    public void testStallIsChargedToQueuedMessages() {
+        final AtomicInteger received = new AtomicInteger();
+        final LoadReport report;
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator()) {
+            generator.setHapiContextProvider(HapiContextProvider.shared());
+            report = new LoadDriver<>(generator, new MessageRequirements())
+                .setArrivalProfile(ArrivalProfile.constant(1000))
+                .setMessageLimit(200)
+                .run(message -> {
+                    if (received.incrementAndGet() == 100) {
+                        sleep(STALL_MILLIS);
+                    }
+                });
+        }
+        assertEquals(200, received.get());
+        assertEquals(200, report.getMessagesSent());
+        assertEquals(200, report.getResponseTime().getCount());
+        // the messages scheduled during the stall were sent late, and that wait counts against their response time
+        assertTrue(report.getResponseTime().getValueAtPercentile(90) > TimeUnit.MILLISECONDS.toNanos(10));
+        assertTrue(report.getServiceTime().getValueAtPercentile(90) < TimeUnit.MILLISECONDS.toNanos(10));
+        assertTrue(report.getElapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(199));
+    }
+
+    @Test
+    public void testArrivalProfiles() {
+        final SplittableRandom random = new SplittableRandom(1L);
+        assertEquals(2_000_000, ArrivalProfile.constant(500).nextArrival(0, random));
+
+        final ArrivalProfile ramp = ArrivalProfile.ramp(100, 1000, Duration.ofSeconds(1));
+        assertEquals(10_000_000, ramp.nextArrival(0, random));
+        assertEquals(501_818_182, ramp.nextArrival(500_000_000, random));
+        assertEquals(3_001_000_000L, ramp.nextArrival(3_000_000_000L, random));
+
+        final ArrivalProfile step = ArrivalProfile.step(Duration.ofSeconds(1), 100, 1000);
+        assertEquals(10_000_000, step.nextArrival(0, random));
+        assertEquals(1_001_000_000, step.nextArrival(1_000_000_000, random));
+
+        final ArrivalProfile paused = ArrivalProfile.step(Duration.ofSeconds(1), 1, 0, 1000, 0);
+        assertEquals(2_000_000_000, paused.nextArrival(0, random)); // the gap ends in the pause, so it waits for step 2
+        assertEquals(2_000_000_000, paused.nextArrival(1_000_000_000, random));
+        assertEquals(2_001_000_000, paused.nextArrival(2_000_000_000, random));
+        assertEquals(Long.MAX_VALUE, paused.nextArrival(2_999_500_000L, random));
+
+        final ArrivalProfile poisson = ArrivalProfile.poisson(1000);
+        long arrival = 0;
+        for (int i = 0; i < 10_000; i++) {
+            arrival = poisson.nextArrival(arrival, random);
+        }
+        assertEquals(10.0, arrival / 1e9, 0.5);
+    }
+
+    @Test(dataProvider = INVALID_PROFILES_PROVIDER_ID, expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsInvalidProfiles(Supplier<ArrivalProfile> profile) {
+        profile.get();
+    }
+
+    @Test(dataProvider = INVALID_SETTINGS_PROVIDER_ID, expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsInvalidSettings(Consumer<LoadDriver<?>> setting) {
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator()) {
+            setting.accept(new LoadDriver<>(generator, new MessageRequirements()));
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import ca.uhn.hl7v2.HL7Exception;
+import ca.uhn.hl7v2.HapiContext;
+import ca.uhn.hl7v2.model.Message;
+import ca.uhn.hl7v2.parser.Parser;
+import ca.uhn.hl7v2.util.Terser;
+import edu.washu.tag.hl7.v2.LocalHospitalLogReader;
+import edu.washu.tag.hl7.v2.LocalHospitalMessageLogger;
+import edu.washu.tag.hl7.v2.LogFrame;
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.context.HapiContextProvider;
+import edu.washu.tag.hl7.v2.triggerevents.UnsolicitedObservationTransmissionGenerator;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+
+public class TestLocalHospitalLogRoundTrip extends BaseTestCase {
+
+    private static final int NUM_MESSAGES = 250;
+
+    @Test
+    public void testLogRoundTrip() throws HL7Exception, IOException {
+        final List<Message> messages = new ArrayList<>();
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator()) {
+            generator.setHapiContextProvider(HapiContextProvider.shared());
+            messages.addAll(generator.generateBatch(NUM_MESSAGES, new MessageRequirements(), 4));
+        }
+        final File log = new LocalHospitalMessageLogger().writeToLog(messages);
+
+        try (HapiContext hapiContext = HapiContextProvider.createContext();
+             LocalHospitalLogReader reader = new LocalHospitalLogReader(log.toPath())) {
+            final Parser parser = hapiContext.getPipeParser();
+            final List<LogFrame> frames = reader.frames().toList();
+            assertEquals(NUM_MESSAGES, frames.size());
+            for (int i = 0; i < NUM_MESSAGES; i++) {
+                final String original = messages.get(i).encode();
+                assertEquals(original, frames.get(i).toEr7());
+                assertEquals(original, frames.get(i).parse(parser).encode());
+            }
+
+            final List<String> parallelRead = reader.parallelFrames(8).map(LogFrame::toEr7).toList();
+            assertEquals(frames.stream().map(LogFrame::toEr7).toList(), parallelRead);
+        }
+    }
+
+    @Test
+    public void testNonAsciiFrameAgreesWithToString() throws HL7Exception {
+        final Message message;
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator()) {
+            message = generator.generate(new MessageRequirements());
+        }
+        new Terser(message).set("/.PID-5-1", "M\u00fcller-\u00d8berg");
+        final File log = new LocalHospitalMessageLogger().writeToLog(List.of(message));
+
+        try (LocalHospitalLogReader reader = new LocalHospitalLogReader(log.toPath())) {
+            final LogFrame frame = reader.frames().findFirst().orElseThrow();
+            final String text = frame.toString();
+            assertTrue(text.contains("M\u00fcller-\u00d8berg"));
+            assertEquals(text.length(), frame.length());
+            assertEquals(text, new StringBuilder(frame).toString());
+            final int nameStart = text.indexOf("M\u00fcller");
+            assertEquals("M\u00fcller", frame.subSequence(nameStart, nameStart + 6).toString());
+            assertEquals(message.encode(), frame.toEr7());
+        }
+    }
+
+}
@@ -0,0 +1,188 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import ca.uhn.hl7v2.HL7Exception;
+import ca.uhn.hl7v2.model.Message;
+import edu.washu.tag.hl7.v2.LocalHospitalLogReader;
+import edu.washu.tag.hl7.v2.LocalHospitalMessageLogger;
+import edu.washu.tag.hl7.v2.LogRotationPolicy;
+import edu.washu.tag.hl7.v2.MessageLogWriter;
+import edu.washu.tag.hl7.v2.MessageLogger;
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.triggerevents.UnsolicitedObservationTransmissionGenerator;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.testng.annotations.Test;
+
+public class TestMessageLogWriter extends BaseTestCase {
+
+    private static final int NUM_MESSAGES = 250;
+    private static final long SEED = 1234L;
+
+    private final LocalHospitalMessageLogger messageLogger = new LocalHospitalMessageLogger();
+
+    @Test
+    public void testWriteToLogMatchesPreviousFormat() throws IOException {
+        final List<Message> messages = generateMessages(NUM_MESSAGES);
+        final File log = messageLogger.writeToLog(messages);
+        final byte[] expected = previousFormat(messages);
+        assertTrue(expected.length > 64 * 1024); // spans several flushes of the writer's buffer
+        assertEquals(new String(expected, StandardCharsets.UTF_8), Files.readString(log.toPath()));
+    }
+
+    @Test
+    public void testWriteToLogUsesEncodeMessagesByDefault() throws IOException {
+        // a logger overriding only encodeMessages, whose separator nothing else knows about
+        final MessageLogger separatingLogger = messages -> messages
+            .stream()
+            .map(TestMessageLogWriter::encode)
+            .collect(Collectors.joining("\n--\n"));
+        final List<Message> messages = generateMessages(3);
+        final File log = separatingLogger.writeToLog(messages);
+        final String expected = separatingLogger.encodeMessages(messages);
+        assertEquals(2, expected.split("\n--\n").length - 1);
+        assertEquals(expected, Files.readString(log.toPath()));
+    }
+
+    @Test
+    public void testEmptyBatchLeavesEmptyLog() throws IOException {
+        final File log = messageLogger.writeToLog(List.of());
+        assertTrue(log.exists());
+        assertEquals(0, Files.size(log.toPath()));
+    }
+
+    @Test
+    public void testRotatesAtMessageCount() throws IOException {
+        final List<Message> messages = generateMessages(25);
+        final List<File> logFiles = writeRotating(messages, LogRotationPolicy.byMessageCount(10));
+        assertEquals(List.of(10, 10, 5), framesPerFile(logFiles));
+        assertFilesHoldMessagesInOrder(logFiles, messages);
+    }
+
+    @Test
+    public void testRotatesAtSize() throws IOException {
+        final List<Message> messages = generateMessages(40);
+        final long maxBytesPerFile = previousFormat(messages.subList(0, 3)).length;
+        final List<File> logFiles = writeRotating(messages, LogRotationPolicy.bySize(maxBytesPerFile));
+
+        final List<Integer> framesPerFile = framesPerFile(logFiles);
+        assertEquals(3, (int) framesPerFile.get(0));
+        assertFilesHoldMessagesInOrder(logFiles, messages);
+        int fileStart = 0;
+        for (int i = 0; i < logFiles.size() - 1; i++) {
+            final int fileEnd = fileStart + framesPerFile.get(i);
+            // each file is rolled over by the first message written once it reached the limit, and not before
+            assertTrue(Files.size(logFiles.get(i).toPath()) >= maxBytesPerFile);
+            assertTrue(previousFormat(messages.subList(fileStart, fileEnd - 1)).length < maxBytesPerFile);
+            fileStart = fileEnd;
+        }
+    }
+
+    @Test
+    public void testOversizedMessageGetsItsOwnFile() throws IOException {
+        final List<Message> messages = generateMessages(5);
+        final List<File> logFiles = writeRotating(messages, LogRotationPolicy.bySize(1));
+        assertEquals(List.of(1, 1, 1, 1, 1), framesPerFile(logFiles));
+        assertFilesHoldMessagesInOrder(logFiles, messages);
+    }
+
+    @Test
+    public void testShouldRotate() {
+        final LogRotationPolicy policy = new LogRotationPolicy(100, 3);
+        assertFalse(policy.shouldRotate(0, 0));
+        assertFalse(policy.shouldRotate(500, 0));
+        assertFalse(policy.shouldRotate(99, 2));
+        assertTrue(policy.shouldRotate(100, 1));
+        assertTrue(policy.shouldRotate(10, 3));
+        assertFalse(LogRotationPolicy.none().shouldRotate(Long.MAX_VALUE - 1, Long.MAX_VALUE - 1));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsEmptyRotationLimit() {
+        LogRotationPolicy.bySize(0);
+    }
+
+    private List<Message> generateMessages(int count) {
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator()) {
+            generator.setSeed(SEED);
+            return new ArrayList<>(generator.generateBatch(count, new MessageRequirements()));
+        }
+    }
+
+    private List<File> writeRotating(List<Message> messages, LogRotationPolicy rotationPolicy) throws IOException {
+        final Path logDirectory = Files.createTempDirectory("message_logs");
+        try (MessageLogWriter writer = MessageLogWriter.rotating(messageLogger, logDirectory, "hl7", rotationPolicy)) {
+            writer.writeAll(messages);
+            assertEquals(messages.size(), writer.getMessagesWritten());
+            return writer.getLogFiles();
+        }
+    }
+
+    private List<Integer> framesPerFile(List<File> logFiles) {
+        final List<Integer> framesPerFile = new ArrayList<>();
+        for (File logFile : logFiles) {
+            try (LocalHospitalLogReader reader = new LocalHospitalLogReader(logFile.toPath())) {
+                framesPerFile.add((int) reader.frames().count());
+            }
+        }
+        return framesPerFile;
+    }
+
+    /**
+     * Checks that the files, read in order, hold every message exactly once and that each file on its own is exactly
+     * what the previous logger would have written for its share of the messages.
+     */
+    private void assertFilesHoldMessagesInOrder(List<File> logFiles, List<Message> messages) throws IOException {
+        final List<Integer> framesPerFile = framesPerFile(logFiles);
+        int fileStart = 0;
+        for (int i = 0; i < logFiles.size(); i++) {
+            final int fileEnd = fileStart + framesPerFile.get(i);
+            assertEquals(
+                new String(previousFormat(messages.subList(fileStart, fileEnd)), StandardCharsets.UTF_8),
+                Files.readString(logFiles.get(i).toPath())
+            );
+            fileStart = fileEnd;
+        }
+        assertEquals(messages.size(), fileStart);
+    }
+
+    /**
+     * The log format as LocalHospitalMessageLogger wrote it before logs were streamed: each message split on CR into
+     * lines ending with {@code <R>}, wrapped in {@code <SB>}/{@code <EB>} lines, and joined with a blank CR line.
+     */
+    private static byte[] previousFormat(List<Message> messages) {
+        return messages
+            .stream()
+            .map(TestMessageLogWriter::previousEncoding)
+            .collect(Collectors.joining(LocalHospitalMessageLogger.CR_REPLACEMENT + "\n\r\n"))
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String previousEncoding(Message message) {
+        final List<String> lines = new ArrayList<>();
+        lines.add("<SB>");
+        for (String line : encode(message).split("\r")) {
+            lines.add(line + LocalHospitalMessageLogger.CR_REPLACEMENT);
+        }
+        lines.add("<EB>");
+        return String.join("\n", lines);
+    }
+
+    private static String encode(Message message) {
+        try {
+            return message.encode();
+        } catch (HL7Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
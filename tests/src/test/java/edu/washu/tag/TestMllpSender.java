@@ -0,0 +1,211 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.er7.Er7Fields;
+import edu.washu.tag.hl7.v2.mllp.MllpAck;
+import edu.washu.tag.hl7.v2.mllp.MllpConnectionStats;
+import edu.washu.tag.hl7.v2.mllp.MllpFrameDecoder;
+import edu.washu.tag.hl7.v2.mllp.MllpFraming;
+import edu.washu.tag.hl7.v2.mllp.MllpReceiver;
+import edu.washu.tag.hl7.v2.mllp.MllpSender;
+import edu.washu.tag.hl7.v2.triggerevents.UnsolicitedObservationTransmissionGenerator;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.testng.annotations.Test;
+
+public class TestMllpSender extends MllpTestCase {
+
+    private static final int NUM_MESSAGES = 500;
+
+    @Test
+    public void testPipelinedSendIsFullyAcknowledged() {
+        final MessageRequirements messageRequirements = new MessageRequirements();
+        final long previouslyReceived = mllpReceiver.getMessagesReceived();
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator();
+             MllpSender sender = new MllpSender("localhost", mllpReceiver.getPort()).setPoolSize(2).setWindow(8)) {
+            final List<MllpAck> acks = sender.send(
+                Stream.generate(() -> generator.generateEr7(messageRequirements)).limit(NUM_MESSAGES).iterator()
+            );
+
+            assertEquals(NUM_MESSAGES, acks.size());
+            assertEquals(NUM_MESSAGES, mllpReceiver.getMessagesReceived() - previouslyReceived);
+            final Set<String> controlIds = new HashSet<>();
+            for (MllpAck ack : acks) {
+                assertTrue(ack.isAccepted()); // also confirms the receiver could parse every message
+                assertTrue(ack.latencyNanos() > 0);
+                controlIds.add(ack.messageControlId());
+            }
+            assertEquals(NUM_MESSAGES, controlIds.size());
+        }
+    }
+
+    @Test
+    public void testMessageWithoutControlIdIsRejected() throws IOException {
+        final long previouslyRejected = mllpReceiver.getMessagesRejected();
+        // the sender refuses to send a message it cannot correlate, so this goes over a plain socket
+        final String ack = sendUncorrelated("MSH|^~\\&|SEND|FAC|RECV|RFAC|20210304||ORU^R01||P|2.7\r");
+        assertEquals("AE", Er7Fields.get(ack, "MSA", 1));
+        assertEquals("", Er7Fields.get(ack, "MSA", 2));
+        assertEquals(1, mllpReceiver.getMessagesRejected() - previouslyRejected);
+    }
+
+    @Test
+    public void testUnparseableMessageIsRejected() {
+        final long previouslyRejected = mllpReceiver.getMessagesRejected();
+        try (MllpSender sender = new MllpSender("localhost", mllpReceiver.getPort())) {
+            final List<MllpAck> acks = sender.send(
+                List.of("MSH|^~\\&|SEND|FAC|RECV|RFAC|20210304||ORU^R01|UNKNOWN-VERSION|P|9.9\r")
+            );
+            assertEquals(1, acks.size());
+            assertEquals("UNKNOWN-VERSION", acks.get(0).messageControlId());
+            assertEquals("AE", acks.get(0).acknowledgmentCode());
+            assertFalse(acks.get(0).isAccepted());
+        }
+        assertEquals(1, mllpReceiver.getMessagesRejected() - previouslyRejected);
+    }
+
+    @Test
+    public void testConnectionStats() {
+        final MllpReceiver receiver = new MllpReceiver().start();
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator();
+             MllpSender sender = new MllpSender("localhost", receiver.getPort()).setPoolSize(2).setWindow(4)) {
+            final MessageRequirements messageRequirements = new MessageRequirements();
+            sender.send(
+                Stream.generate(() -> generator.generateEr7(messageRequirements)).limit(NUM_MESSAGES).iterator()
+            );
+        } finally {
+            receiver.close(); // waits for the selector thread, so every ACK written has been recorded
+        }
+
+        final List<MllpConnectionStats> connectionStats = receiver.getConnectionStats();
+        assertEquals(2, connectionStats.size());
+        long totalReceived = 0;
+        for (MllpConnectionStats stats : connectionStats) {
+            assertFalse(stats.isOpen());
+            assertEquals(0, stats.getMessagesRejected());
+            assertEquals(stats.getMessagesReceived(), stats.getMessagesAccepted());
+            assertEquals(stats.getMessagesReceived(), stats.getAckLatency().getCount());
+            assertTrue(stats.getAckLatency().getMax() > 0);
+            assertTrue(stats.getMessagesPerSecond() > 0);
+            totalReceived += stats.getMessagesReceived();
+        }
+        assertEquals(NUM_MESSAGES, totalReceived);
+        assertEquals(NUM_MESSAGES, receiver.getMessagesReceived());
+        assertEquals(NUM_MESSAGES, receiver.getAckLatency().getCount());
+    }
+
+    @Test
+    public void testReceiverFailureIsSurfaced() {
+        final IllegalStateException cause = new IllegalStateException("Broken acknowledgment");
+        final MllpReceiver failingReceiver = new MllpReceiver() {
+            @Override
+            protected String acknowledgmentCode(String message) {
+                throw cause;
+            }
+        }.start();
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator();
+             MllpSender sender = new MllpSender("localhost", failingReceiver.getPort())
+                 .setAckTimeout(Duration.ofSeconds(10))) {
+            sender.send(List.of(generator.generateEr7(new MessageRequirements())));
+            fail("Expected the send to fail once the receiver closed the connection");
+        } catch (RuntimeException expected) {
+            // the receiver closed the connection without an ACK
+        }
+        try {
+            failingReceiver.close();
+            fail("Expected close() to report the receiver failure");
+        } catch (IllegalStateException expected) {
+            assertSame(cause, expected.getCause());
+        }
+    }
+
+    @Test
+    public void testAckTimestampComesFromClock() {
+        final AckBuildingReceiver receiver = new AckBuildingReceiver();
+        receiver.setClock(Clock.fixed(Instant.parse("2021-03-04T05:06:07Z"), ZoneOffset.UTC));
+        final String ack = receiver.ackFor("MSH|^~\\&|SEND|FAC|RECV|RFAC|20210304||ORU^R01|12345|P|2.7\r");
+        assertEquals("20210304050607", Er7Fields.get(ack, "MSH", 7));
+        assertEquals("12345", Er7Fields.get(ack, "MSA", 2));
+    }
+
+    @Test
+    public void testAckEchoesProcessingIdAndVersion() {
+        final AckBuildingReceiver receiver = new AckBuildingReceiver();
+        final String ack = receiver.ackFor("MSH|^~\\&|SEND|FAC|RECV|RFAC|20210304||ORU^R01|12345|T^T|2.5.1\r");
+        assertEquals("T^T", Er7Fields.get(ack, "MSH", 11));
+        assertEquals("2.5.1", Er7Fields.get(ack, "MSH", 12));
+
+        final String defaultedAck = receiver.ackFor("MSH|^~\\&|SEND|FAC|RECV|RFAC|20210304||ORU^R01|12345\r");
+        assertEquals("P", Er7Fields.get(defaultedAck, "MSH", 11));
+        assertEquals("2.7", Er7Fields.get(defaultedAck, "MSH", 12));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsEmptyWindow() {
+        try (MllpSender sender = new MllpSender("localhost", mllpReceiver.getPort())) {
+            sender.setWindow(0);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsEmptyPool() {
+        try (MllpSender sender = new MllpSender("localhost", mllpReceiver.getPort())) {
+            sender.setPoolSize(0);
+        }
+    }
+
+    /**
+     * Sends one framed message to the suite's receiver over a blocking socket and returns the ACK it answers with.
+     */
+    private static String sendUncorrelated(String message) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", mllpReceiver.getPort()))) {
+            final ByteBuffer frame = MllpFraming.frame(
+                message,
+                StandardCharsets.UTF_8.newEncoder(),
+                ByteBuffer.allocate(256)
+            );
+            frame.flip();
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+            final MllpFrameDecoder decoder = new MllpFrameDecoder(StandardCharsets.UTF_8);
+            final ByteBuffer readBuffer = ByteBuffer.allocate(1024);
+            final List<String> acks = new ArrayList<>();
+            while (acks.isEmpty()) {
+                if (channel.read(readBuffer) < 0) {
+                    throw new EOFException("Receiver closed the connection without an ACK");
+                }
+                readBuffer.flip();
+                decoder.decode(readBuffer, acks::add);
+                readBuffer.clear();
+            }
+            return acks.get(0);
+        }
+    }
+
+    private static class AckBuildingReceiver extends MllpReceiver {
+        private String ackFor(String message) {
+            return buildAck(message, "AA");
+        }
+    }
+
+}
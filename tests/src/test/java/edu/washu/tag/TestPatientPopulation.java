@@ -0,0 +1,69 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import edu.washu.tag.hl7.v2.population.Patient;
+import edu.washu.tag.hl7.v2.population.PatientPopulation;
+import edu.washu.tag.hl7.v2.segment.PidGenerator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import org.testng.annotations.Test;
+
+public class TestPatientPopulation extends BaseTestCase {
+
+    private static final int POPULATION_SIZE = 10_000;
+    private static final long SEED = 42L;
+
+    @Test
+    public void testPopulationIsReproducible() {
+        final PatientPopulation first = PatientPopulation.generate(POPULATION_SIZE, SEED);
+        final PatientPopulation second = PatientPopulation.generate(POPULATION_SIZE, SEED);
+        for (int i = 0; i < POPULATION_SIZE; i += 97) {
+            assertEquals(
+                first.getPatient(i, PidGenerator.patientIdEncoders),
+                second.getPatient(i, PidGenerator.patientIdEncoders)
+            );
+        }
+    }
+
+    @Test
+    public void testIdentifiersAreUnique() {
+        final PatientPopulation population = PatientPopulation.generate(POPULATION_SIZE, SEED);
+        final Set<String> identifiers = new HashSet<>();
+        final Set<String> ssns = new HashSet<>();
+        for (int i = 0; i < POPULATION_SIZE; i++) {
+            final Patient patient = population.getPatient(i, PidGenerator.patientIdEncoders);
+            identifiers.addAll(patient.patientIds());
+            ssns.add(patient.ssn());
+        }
+        assertEquals(POPULATION_SIZE * PidGenerator.patientIdEncoders.size(), identifiers.size());
+        assertEquals(POPULATION_SIZE, ssns.size());
+    }
+
+    @Test
+    public void testRevisitsAreSkewed() {
+        final PatientPopulation population = PatientPopulation.generate(POPULATION_SIZE, SEED);
+        final SplittableRandom random = new SplittableRandom(SEED);
+        final int[] visits = new int[POPULATION_SIZE];
+        final int numDraws = 100_000;
+        for (int i = 0; i < numDraws; i++) {
+            visits[population.sample(random)]++;
+        }
+        int topHundred = 0;
+        int distinct = 0;
+        for (int i = 0; i < POPULATION_SIZE; i++) {
+            if (i < 100) {
+                topHundred += visits[i];
+            }
+            if (visits[i] > 0) {
+                distinct++;
+            }
+        }
+        // with exponent 1.1 the 1% most frequent patients get roughly half of all reports
+        assertTrue(topHundred > numDraws / 3);
+        assertTrue(distinct > POPULATION_SIZE / 2);
+    }
+
+}
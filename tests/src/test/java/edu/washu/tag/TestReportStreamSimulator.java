@@ -0,0 +1,124 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.er7.Er7Fields;
+import edu.washu.tag.hl7.v2.er7.Er7MessageWriter;
+import edu.washu.tag.hl7.v2.simulation.ReportStatus;
+import edu.washu.tag.hl7.v2.simulation.ReportStreamSimulator;
+import edu.washu.tag.hl7.v2.simulation.SimulatedReport;
+import edu.washu.tag.hl7.v2.triggerevents.UnsolicitedObservationTransmissionGenerator;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class TestReportStreamSimulator extends BaseTestCase {
+
+    private static final String INVALID_SETTINGS_PROVIDER_ID = "invalid_settings";
+    private static final long SEED = 1234L;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 4, 8, 0);
+    private static final Duration DURATION = Duration.ofHours(8);
+
+    @DataProvider(name = INVALID_SETTINGS_PROVIDER_ID)
+    public Object[][] invalidSettings() {
+        return new Object[][]{
+            setting(simulator -> simulator.setOrdersPerDay(-1)),
+            setting(simulator -> simulator.setPreliminaryFraction(-0.1)),
+            setting(simulator -> simulator.setPreliminaryFraction(1.5)),
+            setting(simulator -> simulator.setCorrectionFraction(2)),
+            setting(simulator -> simulator.setCorrectionFraction(Double.NaN))
+        };
+    }
+
+    private static Object[] setting(Consumer<ReportStreamSimulator<?>> setting) {
+        return new Object[]{ setting };
+    }
+
+    @Test
+    public void testLifecyclesAreOrderedAndConsistent() {
+        final MessageRequirements messageRequirements = new MessageRequirements();
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator()) {
+            generator.setSeed(SEED);
+            final List<SimulatedReport> reports = simulator(generator, messageRequirements).stream().toList();
+            assertTrue(reports.size() > 1000);
+
+            final Er7MessageWriter messageWriter = new Er7MessageWriter();
+            final Map<Long, SimulatedReport> latestByOrder = new HashMap<>();
+            LocalDateTime previous = START;
+            for (SimulatedReport report : reports) {
+                assertFalse(report.timestamp().isBefore(previous));
+                assertTrue(report.timestamp().isBefore(START.plus(DURATION)));
+                previous = report.timestamp();
+
+                final SimulatedReport earlier = latestByOrder.put(report.orderIndex(), report);
+                if (earlier != null) {
+                    assertTrue(earlier.status().compareTo(report.status()) < 0);
+                    assertEquals(
+                        earlier.messageValues().getFillerOrderNumber(),
+                        report.messageValues().getFillerOrderNumber()
+                    );
+                }
+
+                final String message = generator
+                    .generateEr7(messageRequirements, report.messageValues(), messageWriter)
+                    .toString();
+                assertEquals(report.status().getCode(), Er7Fields.get(message, "ORC", 5));
+                assertEquals(report.messageValues().getPlacerOrderNumber() + "^SYS", Er7Fields.get(message, "ORC", 2));
+            }
+            assertTrue(latestByOrder.values().stream().anyMatch(report -> report.status() == ReportStatus.CORRECTED));
+        }
+    }
+
+    @Test
+    public void testSeededStreamIsReproducible() {
+        assertEquals(summarize(), summarize());
+    }
+
+    @Test
+    public void testNoOrdersGivesEmptyStream() {
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator()) {
+            assertEquals(0, simulator(generator, new MessageRequirements()).setOrdersPerDay(0).stream().count());
+        }
+    }
+
+    @Test(dataProvider = INVALID_SETTINGS_PROVIDER_ID, expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsInvalidSettings(Consumer<ReportStreamSimulator<?>> setting) {
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator()) {
+            setting.accept(simulator(generator, new MessageRequirements()));
+        }
+    }
+
+    private List<String> summarize() {
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator()) {
+            generator.setSeed(SEED);
+            return simulator(generator, new MessageRequirements())
+                .stream()
+                .map(report -> String.join(" ",
+                    report.timestamp().toString(),
+                    report.status().getCode(),
+                    report.messageValues().getMessageControlId(),
+                    report.messageValues().getPlacerOrderNumber()
+                ))
+                .toList();
+        }
+    }
+
+    private ReportStreamSimulator<?> simulator(UnsolicitedObservationTransmissionGenerator generator,
+        MessageRequirements messageRequirements) {
+        return new ReportStreamSimulator<>(generator, messageRequirements)
+            .setStart(START)
+            .setDuration(DURATION)
+            .setOrdersPerDay(5000)
+            .setCorrectionFraction(0.2)
+            .setSeed(SEED);
+    }
+
+}
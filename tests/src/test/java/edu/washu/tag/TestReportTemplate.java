@@ -0,0 +1,63 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertSame;
+
+import edu.washu.tag.hl7.v2.report.ReportTemplate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.testng.annotations.Test;
+
+public class TestReportTemplate extends BaseTestCase {
+
+    private static final Map<String, String> VALUES = Map.of(
+        "%INTERPRETER%", "ANNE SMITH",
+        "%AB1%", "No fracture",
+        "%AB_2%", "Mild effusion"
+    );
+
+    @Test
+    public void testPlaceholdersAreSubstituted() {
+        final ReportTemplate template = ReportTemplate.compile("%AB1%. %AB_2%.\nSigned: %INTERPRETER%");
+        assertEquals(List.of("%AB1%", "%AB_2%", "%INTERPRETER%"), template.getPlaceholders());
+
+        final StringBuilder buffer = new StringBuilder("left over from the previous report");
+        assertSame(buffer, template.render(buffer, VALUES::get));
+        assertEquals("No fracture. Mild effusion.\nSigned: ANNE SMITH", buffer.toString());
+    }
+
+    @Test
+    public void testTextThatIsNotAPlaceholderIsLiteral() {
+        final String text = "100% of %lower% and %% and %AB1 and 5%";
+        final ReportTemplate template = ReportTemplate.compile(text);
+        assertEquals(List.of(), template.getPlaceholders());
+        assertEquals(text, template.render(new StringBuilder(), VALUES::get).toString());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsMissingPlaceholderValue() {
+        ReportTemplate.compile("Findings: %AB3%").render(new StringBuilder(), VALUES::get);
+    }
+
+    @Test
+    public void testWrapsAtLastSpaceBeforeLimit() {
+        assertEquals(List.of("aaaa bbbb", "cccc"), wrap("aaaa bbbb cccc", 10));
+        assertEquals(List.of("aaaa", "bbbbb"), wrap("aaaa bbbbb", 10)); // a line of exactly the limit is wrapped
+        assertEquals(List.of("123456789"), wrap("123456789", 10));
+        assertEquals(List.of("one", "", "two"), wrap("one\n\ntwo\n\n", 10)); // trailing empty lines are dropped
+    }
+
+    @Test
+    public void testBreaksLineWithoutSpaceAtLimit() {
+        assertEquals(List.of("abcde", "fghij", "kl"), wrap("abcdefghijkl", 5));
+        assertEquals(List.of("ab", "cdefg", "hij"), wrap("ab cdefghij", 5));
+    }
+
+    private static List<String> wrap(String text, int width) {
+        final List<String> lines = new ArrayList<>();
+        ReportTemplate.wrapLines(text, width, lines::add);
+        return lines;
+    }
+
+}
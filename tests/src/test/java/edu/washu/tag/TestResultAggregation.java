@@ -0,0 +1,133 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.washu.tag.reporting.TestClassRepresentation;
+import edu.washu.tag.reporting.TestInstance;
+import edu.washu.tag.reporting.TestInstance.TestResult;
+import edu.washu.tag.reporting.TestInstanceRecord;
+import edu.washu.tag.reporting.TestRepresentation;
+import edu.washu.tag.reporting.TestResultAggregator;
+import edu.washu.tag.reporting.TestSuiteMerger;
+import edu.washu.tag.reporting.TestSuiteRepresentation;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+
+public class TestResultAggregation extends BaseTestCase {
+
+    private static final int NUM_EXECUTORS = 8;
+    private static final long START_MILLIS = 1_700_000_000_000L;
+
+    @Test
+    public void testPartialSuitesAreMerged() throws IOException {
+        final Path resultDirectory = Files.createTempDirectory("test_results");
+        final ObjectMapper objectMapper = new ObjectMapper();
+        for (int executor = 0; executor < NUM_EXECUTORS; executor++) {
+            final List<TestInstance> instances = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                instances.add(new TestInstance(TestResult.values()[i % 3], List.of(executor + "-" + i)));
+            }
+            objectMapper.writeValue(
+                    resultDirectory.resolve("test_executions_" + executor + ".json").toFile(),
+                    new TestSuiteRepresentation(executor, List.of(
+                            new TestClassRepresentation("SharedClass", List.of(new TestRepresentation("shared", instances))),
+                            new TestClassRepresentation("Class" + executor, List.of(new TestRepresentation("own", instances)))
+                    ))
+            );
+        }
+
+        final TestSuiteMerger merger = TestResultAggregator.aggregate(resultDirectory);
+        assertEquals(NUM_EXECUTORS, merger.getSuitesMerged());
+        assertEquals(NUM_EXECUTORS * 2 * 34, merger.countTestInstances(TestResult.PASSED));
+        assertEquals(NUM_EXECUTORS * 2 * 33, merger.countTestInstances(TestResult.FAILED));
+        assertEquals(NUM_EXECUTORS * 2 * 33, merger.countTestInstances(TestResult.SKIPPED));
+
+        final TestSuiteRepresentation aggregated = merger.toSuiteRepresentation(0);
+        assertEquals(NUM_EXECUTORS + 1, aggregated.testClasses().size());
+        final TestClassRepresentation shared = aggregated.testClasses().get(0);
+        assertEquals("SharedClass", shared.testClassName());
+        assertEquals(1, shared.tests().size());
+        assertEquals(NUM_EXECUTORS * 100, shared.tests().get(0).testResults().size());
+        assertEquals(List.of("0-0"), shared.tests().get(0).testResults().get(0).parameters());
+    }
+
+    @Test
+    public void testIncrementalResultsSurviveTruncation() throws IOException {
+        final Path resultDirectory = Files.createTempDirectory("test_results");
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final Path resultsFile = resultDirectory.resolve("test_executions_1.jsonl");
+        for (int i = 0; i < 10; i++) {
+            Files.writeString(
+                    resultsFile,
+                    objectMapper.writeValueAsString(new TestInstanceRecord(
+                            1,
+                            "IncrementalClass",
+                            "test" + (i % 2),
+                            new TestInstance(
+                                    i < 7 ? TestResult.PASSED : TestResult.FAILED,
+                                    List.of(String.valueOf(i)),
+                                    START_MILLIS + i * 100,
+                                    50,
+                                    "main",
+                                    -1,
+                                    -1
+                            )
+                    )) + "\n",
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND
+            );
+        }
+        Files.writeString(resultsFile, "{\"testClassName\":\"Incremental", StandardOpenOption.APPEND);
+
+        final TestSuiteMerger merger = TestResultAggregator.aggregate(resultDirectory);
+        assertEquals(1, merger.getSuitesMerged());
+        assertEquals(7, merger.countTestInstances(TestResult.PASSED));
+        assertEquals(3, merger.countTestInstances(TestResult.FAILED));
+        assertEquals(950, merger.getExecutorTimings().get(1).getWallTimeMillis());
+
+        final TestClassRepresentation incremental = merger.toSuiteRepresentation(0).testClasses().get(0);
+        assertEquals(2, incremental.tests().size());
+        assertEquals(5, incremental.tests().get(0).testResults().size());
+    }
+
+    @Test
+    public void testTimingSummaryReportsSkew() throws IOException {
+        final Path resultDirectory = Files.createTempDirectory("test_results");
+        final ObjectMapper objectMapper = new ObjectMapper();
+        for (int executor = 0; executor < 2; executor++) {
+            final long durationMillis = (executor + 1) * 1000L;
+            objectMapper.writeValue(
+                    resultDirectory.resolve("test_executions_" + executor + ".json").toFile(),
+                    new TestSuiteRepresentation(executor, List.of(new TestClassRepresentation(
+                            "Class" + executor,
+                            List.of(new TestRepresentation("timed", List.of(new TestInstance(
+                                    TestResult.PASSED,
+                                    List.of(),
+                                    START_MILLIS,
+                                    durationMillis,
+                                    "main",
+                                    durationMillis * 1_000_000,
+                                    1_000_000
+                            ))))
+                    )))
+            );
+        }
+
+        final TestSuiteMerger merger = TestResultAggregator.aggregate(resultDirectory);
+        assertEquals(1000, merger.getExecutorTimings().get(0).getWallTimeMillis());
+        assertEquals(2000, merger.getExecutorTimings().get(1).getWallTimeMillis());
+        final String summary = TestResultAggregator.summarizeTimings(merger, merger.toSuiteRepresentation(0), 1);
+        assertTrue(summary.contains("Class1.timed"));
+        assertFalse(summary.contains("Class0.timed"));
+        assertTrue(summary.contains("1.33x the mean and finished 1.0s after the fastest"));
+    }
+
+}
@@ -0,0 +1,86 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+
+import ca.uhn.hl7v2.HL7Exception;
+import ca.uhn.hl7v2.model.v281.message.ORU_R01;
+import edu.washu.tag.hl7.v2.MessageRequirements;
+import edu.washu.tag.hl7.v2.context.HapiContextProvider;
+import edu.washu.tag.hl7.v2.er7.Er7Fields;
+import edu.washu.tag.hl7.v2.report.ReportType;
+import edu.washu.tag.hl7.v2.triggerevents.UnsolicitedObservationTransmissionGenerator;
+import edu.washu.tag.util.TimeUtils;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.testng.annotations.Test;
+
+public class TestSeededGeneration extends BaseTestCase {
+
+    private static final int NUM_MESSAGES = 200;
+    private static final long SEED = 20240601L;
+
+    @Test
+    public void testSeededBatchIsIndependentOfParallelism() throws HL7Exception {
+        final List<String> serial = randomizedFields(generateBatch(SEED, 1));
+        final List<String> parallel = randomizedFields(generateBatch(SEED, 4));
+        assertEquals(serial, parallel);
+        assertFalse(serial.equals(randomizedFields(generateBatch(SEED + 1, 4))));
+    }
+
+    @Test
+    public void testFixedClockReproducesWholeMessages() throws HL7Exception {
+        final LocalDateTime messageTime = LocalDateTime.of(2019, 3, 14, 15, 9, 26);
+        final Clock clock = Clock.fixed(messageTime.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        final List<ORU_R01> serial = generateBatch(SEED, 1, clock);
+        final List<ORU_R01> parallel = generateBatch(SEED, 4, clock);
+        for (int i = 0; i < NUM_MESSAGES; i++) {
+            final String encoded = serial.get(i).encode();
+            assertEquals(encoded, parallel.get(i).encode());
+            assertEquals(TimeUtils.toHl7(messageTime), Er7Fields.get(encoded, "MSH", 7));
+            assertEquals(TimeUtils.toHl7(messageTime), Er7Fields.get(encoded, "ORC", 9));
+        }
+    }
+
+    private List<ORU_R01> generateBatch(long seed, int parallelism) {
+        return generateBatch(seed, parallelism, Clock.systemDefaultZone());
+    }
+
+    private List<ORU_R01> generateBatch(long seed, int parallelism, Clock clock) {
+        final MessageRequirements messageRequirements = new MessageRequirements()
+            .setNumPatientIds(2)
+            .setReportTypes(Arrays.asList(ReportType.values()));
+        try (UnsolicitedObservationTransmissionGenerator generator = new UnsolicitedObservationTransmissionGenerator()) {
+            generator.setHapiContextProvider(HapiContextProvider.perThread());
+            generator.setSeed(seed);
+            generator.setClock(clock);
+            return generator.generateBatch(NUM_MESSAGES, messageRequirements, parallelism);
+        }
+    }
+
+    /**
+     * Everything drawn from the random source; timestamps come from the wall clock and are left out.
+     */
+    private List<String> randomizedFields(List<ORU_R01> messages) throws HL7Exception {
+        final List<String> fields = new ArrayList<>();
+        for (ORU_R01 message : messages) {
+            final String encoded = message.encode();
+            fields.add(String.join(" ",
+                Er7Fields.get(encoded, "MSH", 10),
+                Er7Fields.get(encoded, "PID", 3),
+                Er7Fields.get(encoded, "PID", 7),
+                Er7Fields.get(encoded, "PV1", 19),
+                Er7Fields.get(encoded, "OBR", 2),
+                Er7Fields.get(encoded, "OBR", 4),
+                Er7Fields.get(encoded, "ZDS", 1),
+                String.valueOf(message.getPATIENT_RESULT().getORDER_OBSERVATION().getOBSERVATIONReps())
+            ));
+        }
+        return fields;
+    }
+
+}
@@ -0,0 +1,189 @@
+package edu.washu.tag;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import edu.washu.tag.testcontrol.FileLockWorkQueue;
+import edu.washu.tag.testcontrol.WorkStealingHook;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.testng.IHookCallBack;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+public class TestWorkQueue extends BaseTestCase {
+
+    private static final int NUM_EXECUTORS = 4;
+    private static final int NUM_ITEMS = 500;
+    private static final int NUM_ROWS = 100;
+
+    @Test
+    public void testEachItemIsClaimedOnce() throws Exception {
+        final Path queueDirectory = Files.createTempDirectory("work_queue");
+        final Map<String, AtomicInteger> claims = new ConcurrentHashMap<>();
+        final ExecutorService executorService = Executors.newFixedThreadPool(NUM_EXECUTORS);
+        try {
+            final List<Future<Integer>> claimedPerExecutor = new ArrayList<>();
+            for (int executor = 0; executor < NUM_EXECUTORS; executor++) {
+                final FileLockWorkQueue workQueue = new FileLockWorkQueue(queueDirectory, "executor-" + executor);
+                claimedPerExecutor.add(executorService.submit(() -> {
+                    int claimed = 0;
+                    for (int i = 0; i < NUM_ITEMS; i++) {
+                        final String item = "TestClass#test[" + i + "]\n#0";
+                        if (workQueue.claim(item)) {
+                            claims.computeIfAbsent(item, key -> new AtomicInteger()).incrementAndGet();
+                            claimed++;
+                        }
+                    }
+                    return claimed;
+                }));
+            }
+            int totalClaimed = 0;
+            for (Future<Integer> claimed : claimedPerExecutor) {
+                totalClaimed += claimed.get();
+            }
+            assertEquals(NUM_ITEMS, totalClaimed);
+            assertEquals(NUM_ITEMS, claims.size());
+            assertTrue(claims.values().stream().allMatch(count -> count.get() == 1));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testLaterQueueSeesEarlierClaims() throws IOException {
+        final Path queueDirectory = Files.createTempDirectory("work_queue");
+        assertTrue(new FileLockWorkQueue(queueDirectory, "first").claim("a"));
+        final FileLockWorkQueue second = new FileLockWorkQueue(queueDirectory, "second");
+        assertFalse(second.claim("a"));
+        assertTrue(second.claim("b"));
+        assertFalse(second.claim("b"));
+    }
+
+    @Test
+    public void testIsClaimedSeesOtherQueues() throws IOException {
+        final Path queueDirectory = Files.createTempDirectory("work_queue");
+        final FileLockWorkQueue first = new FileLockWorkQueue(queueDirectory, "first");
+        final FileLockWorkQueue second = new FileLockWorkQueue(queueDirectory, "second");
+        assertFalse(second.isClaimed("a"));
+        assertTrue(first.claim("a"));
+        assertTrue(second.isClaimed("a"));
+        assertTrue(first.isClaimed("a"));
+        assertFalse(second.claim("a"));
+    }
+
+    @Test
+    public void testHookClaimsEachDataProviderRowOnce() throws Exception {
+        final Path queueDirectory = Files.createTempDirectory("work_queue");
+        final Map<Integer, AtomicInteger> executions = new ConcurrentHashMap<>();
+        final ExecutorService executorService = Executors.newFixedThreadPool(NUM_EXECUTORS);
+        try {
+            final List<Future<Integer>> skippedPerExecutor = new ArrayList<>();
+            for (int executor = 0; executor < NUM_EXECUTORS; executor++) {
+                final WorkStealingHook hook = new WorkStealingHook(
+                    new FileLockWorkQueue(queueDirectory, "executor-" + executor)
+                );
+                skippedPerExecutor.add(executorService.submit(() -> {
+                    final Object[][] rows = lambdaRows();
+                    int skipped = 0;
+                    for (int rowIndex = 0; rowIndex < rows.length; rowIndex++) {
+                        final ITestResult testResult = testResult(rowIndex, rows[rowIndex]);
+                        try {
+                            hook.run(countingCallBack(rows[rowIndex], executions), testResult);
+                            assertFalse(WorkStealingHook.isClaimedElsewhere(testResult));
+                        } catch (SkipException e) {
+                            assertTrue(WorkStealingHook.isClaimedElsewhere(testResult));
+                            skipped++;
+                        }
+                    }
+                    return skipped;
+                }));
+            }
+            int totalSkipped = 0;
+            for (Future<Integer> skipped : skippedPerExecutor) {
+                totalSkipped += skipped.get();
+            }
+            assertEquals((NUM_EXECUTORS - 1) * NUM_ROWS, totalSkipped);
+            assertEquals(NUM_ROWS, executions.size());
+            assertTrue(executions.values().stream().allMatch(count -> count.get() == 1));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Data provider rows as each executor would build them: capturing lambdas, whose {@code toString} differs between
+     * executors even for the same row.
+     */
+    private static Object[][] lambdaRows() {
+        final Object[][] rows = new Object[NUM_ROWS][];
+        for (int i = 0; i < NUM_ROWS; i++) {
+            final int row = i;
+            rows[i] = new Object[]{ (Supplier<Integer>) () -> row };
+        }
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static IHookCallBack countingCallBack(Object[] parameters, Map<Integer, AtomicInteger> executions) {
+        return new IHookCallBack() {
+            @Override
+            public void runTestMethod(ITestResult testResult) {
+                final int row = ((Supplier<Integer>) parameters[0]).get();
+                executions.computeIfAbsent(row, key -> new AtomicInteger()).incrementAndGet();
+            }
+
+            @Override
+            public Object[] getParameters() {
+                return parameters;
+            }
+        };
+    }
+
+    private static ITestResult testResult(int parameterIndex, Object[] parameters) {
+        final ITestNGMethod testMethod = stub(ITestNGMethod.class, Map.of(
+            "getRealClass", TestWorkQueue.class,
+            "getMethodName", "testWithLambdaParameters"
+        ));
+        return stub(ITestResult.class, Map.of(
+            "getMethod", testMethod,
+            "getParameters", parameters,
+            "getParameterIndex", parameterIndex,
+            "getStatus", ITestResult.STARTED
+        ));
+    }
+
+    /**
+     * Implements {@code type} with the given return values by method name, plus attribute storage for test results.
+     */
+    private static <T> T stub(Class<T> type, Map<String, Object> returnValues) {
+        final Map<String, Object> attributes = new HashMap<>();
+        return type.cast(Proxy.newProxyInstance(
+            type.getClassLoader(),
+            new Class<?>[]{ type },
+            (proxy, method, args) -> switch (method.getName()) {
+                case "setAttribute" -> attributes.put((String) args[0], args[1]);
+                case "getAttribute" -> attributes.get((String) args[0]);
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> returnValues.get(method.getName());
+            }
+        ));
+    }
+
+}